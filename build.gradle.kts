@@ -21,8 +21,47 @@ repositories {
     maven("https://repo.papermc.io/repository/maven-public/")
 }
 
+val paperApi = "io.papermc.paper:paper-api:1.21.4-R0.1-SNAPSHOT"
+val jmhVersion = "1.37"
+val junitVersion = "5.11.4"
+
+// JMH ベンチマーク用ソースセット (src/jmh/java)
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
 dependencies {
-    compileOnly("io.papermc.paper:paper-api:1.21.4-R0.1-SNAPSHOT")
+    compileOnly(paperApi)
+
+    testImplementation(paperApi)
+    testImplementation(platform("org.junit:junit-bom:$junitVersion"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    "jmhImplementation"(paperApi)
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhImplementation"("org.mockito:mockito-core:5.14.2")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// ./gradlew jmh [-PjmhIncludes=<正規表現>]
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the GC (allocation rate) profiler."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(resultFile)
+    args("-prof", "gc")
+    args("-rf", "json", "-rff", resultFile.get().asFile.absolutePath)
+    args("-jvmArgsAppend", "-XX:+EnableDynamicAgentLoading")
+    providers.gradleProperty("jmhIncludes").orNull?.let { args(it) }
 }
 
 tasks.jar {
@@ -0,0 +1,208 @@
+package dev.timegateplugin.timegate.benchmark;
+
+import dev.timegateplugin.timegate.access.AdmissionController;
+import dev.timegateplugin.timegate.access.BypassAllowlist;
+import dev.timegateplugin.timegate.access.BypassResolver;
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.audit.AuditLog;
+import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.playtime.PlaytimeStore;
+import dev.timegateplugin.timegate.playtime.PlaytimeTracker;
+import dev.timegateplugin.timegate.schedule.CountdownBar;
+import dev.timegateplugin.timegate.schedule.OverrideJournal;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.mockito.Answers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * ベンチマーク用に、スタブ化した Bukkit 環境の上で TimeGate の各クラスを組み立てるヘルパー
+ * <p>
+ * モックは呼び出し履歴を記録しない stubOnly 設定で作成する（長時間の計測でメモリが増えないように）。
+ */
+public final class BenchmarkFixture {
+
+    private static final Logger LOGGER = Logger.getLogger("TimeGate-Benchmark");
+
+    static {
+        // 計測中のログ出力を抑止する
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    public final JavaPlugin plugin;
+    public final ConfigManager configManager;
+    public final GroupResolver groupResolver;
+    public final AdmissionController admission;
+    public final GateMetrics metrics;
+    public final AuditLog audit;
+    public final ScheduleManager scheduleManager;
+    public final PlaytimeTracker playtime;
+
+    private BenchmarkFixture(YamlConfiguration config) {
+        installServer();
+        this.plugin = mock(JavaPlugin.class, withSettings().stubOnly());
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.isEnabled()).thenReturn(true);
+
+        Clock clock = Clock.systemUTC();
+        this.configManager = new ConfigManager(plugin, clock);
+        this.groupResolver = new GroupResolver(new BypassResolver(
+                new BypassAllowlist(tempDataPath("bypass.txt"), LOGGER)));
+        this.admission = new AdmissionController();
+        this.metrics = new GateMetrics();
+        // 開始しない監査ログ（記録は何もしない）
+        this.audit = new AuditLog(configManager, tempDataPath("audit"), LOGGER, metrics);
+        this.scheduleManager = new ScheduleManager(plugin, configManager, groupResolver, admission, metrics,
+                new CountdownBar(plugin, clock),
+                new OverrideJournal(tempDataPath("override.journal"), LOGGER), audit, clock);
+        this.playtime = new PlaytimeTracker(plugin, configManager, groupResolver, metrics,
+                new PlaytimeStore(tempDataPath("playtime.dat"), LOGGER), audit);
+    }
+
+    /**
+     * 同梱の config.yml（デフォルト設定）で組み立てる
+     */
+    public static BenchmarkFixture withDefaultConfig() {
+        return new BenchmarkFixture(loadYaml(defaultConfigText()));
+    }
+
+    /**
+     * 同梱の config.yml の一部の項目を差し替えて組み立てる
+     *
+     * @param overrides 設定のパスと値
+     */
+    public static BenchmarkFixture withDefaultConfig(Map<String, Object> overrides) {
+        YamlConfiguration config = loadYaml(defaultConfigText());
+        overrides.forEach(config::set);
+        return new BenchmarkFixture(config);
+    }
+
+    /**
+     * デフォルト設定のスケジュールを、乱数で生成した指定件数のエントリに差し替えて組み立てる
+     */
+    public static BenchmarkFixture withScheduleEntries(int count) {
+        YamlConfiguration config = loadYaml(defaultConfigText());
+        config.set("schedule", randomSchedule(count, 42L));
+        return new BenchmarkFixture(config);
+    }
+
+    /**
+     * 曜日と時刻帯を乱数で決めたスケジュール定義（config.yml の schedule セクション形式）
+     */
+    public static List<Map<String, Object>> randomSchedule(int count, long seed) {
+        Random random = new Random(seed);
+        DayOfWeek[] allDays = DayOfWeek.values();
+        List<Map<String, Object>> schedule = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> days = new ArrayList<>();
+            for (DayOfWeek day : allDays) {
+                if (random.nextInt(4) == 0) {
+                    days.add(day.name());
+                }
+            }
+            if (days.isEmpty()) {
+                days.add(allDays[random.nextInt(allDays.length)].name());
+            }
+            int start = random.nextInt(24 * 60);
+            int end = start + 30 + random.nextInt(8 * 60); // 24:00 超えを含む
+            schedule.add(Map.of(
+                    "days", days,
+                    "start", formatTime(start),
+                    "end", formatTime(end)));
+        }
+        return schedule;
+    }
+
+    private static Path tempDataPath(String fileName) {
+        try {
+            Path dir = Files.createTempDirectory("timegate-benchmark");
+            return dir.resolve(fileName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String formatTime(int minutes) {
+        return String.format("%d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private static String defaultConfigText() {
+        try (InputStream in = BenchmarkFixture.class.getResourceAsStream("/config.yml")) {
+            if (in == null) {
+                throw new IllegalStateException("config.yml がクラスパス上に見つかりません");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static YamlConfiguration loadYaml(String text) {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.loadFromString(text);
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        return config;
+    }
+
+    /**
+     * Bukkit.getOfflinePlayer などが使えるよう、スタブの Server を 1 度だけ登録する。
+     * イベントの発火（状態変化・告知）は何もしない PluginManager に、タスクの登録はスタブのタスクを返す
+     * BukkitScheduler に渡す。
+     * Bukkit.setServer はバージョン情報の出力に実装側のサービスを要求するため、直接フィールドに設定する
+     */
+    private static synchronized void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        OfflinePlayer offlinePlayer = mock(OfflinePlayer.class, withSettings().stubOnly());
+        when(offlinePlayer.isOp()).thenReturn(false);
+
+        Server server = mock(Server.class, withSettings().stubOnly());
+        when(server.getLogger()).thenReturn(LOGGER);
+        when(server.getOfflinePlayer(any(UUID.class))).thenReturn(offlinePlayer);
+        when(server.getPluginManager()).thenReturn(mock(PluginManager.class, withSettings().stubOnly()));
+        when(server.getScheduler()).thenReturn(
+                mock(BukkitScheduler.class, withSettings().stubOnly().defaultAnswer(Answers.RETURNS_MOCKS)));
+
+        try {
+            Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("スタブの Server を登録できませんでした", e);
+        }
+    }
+}
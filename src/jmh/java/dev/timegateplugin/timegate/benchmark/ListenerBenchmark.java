@@ -0,0 +1,95 @@
+package dev.timegateplugin.timegate.benchmark;
+
+import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
+import dev.timegateplugin.timegate.listener.LoginListener;
+import dev.timegateplugin.timegate.listener.PingListener;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Ping とログインのイベント 1 件あたりの処理コスト（スタブ化したイベントを使用）
+ * <p>
+ * 状態は強制開放/強制閉鎖で固定する。閉鎖時のログインは拒否されるケースを測る。
+ * 事前ログイン段階での拒否を測るため async-prelogin-deny を有効にし、権限の確認済みのプレイヤーを使う。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerBenchmark {
+
+    @Param({"OPEN", "CLOSED"})
+    public String state;
+
+    private PingListener pingListener;
+    private LoginListener loginListener;
+    private PaperServerListPingEvent pingEvent;
+    private AsyncPlayerPreLoginEvent preLoginEvent;
+    private PlayerLoginEvent loginEvent;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixture fixture = BenchmarkFixture.withDefaultConfig(Map.of("async-prelogin-deny", true));
+        fixture.scheduleManager.setOverrideMode(state.equals("OPEN")
+                ? ScheduleManager.OverrideMode.FORCE_OPEN
+                : ScheduleManager.OverrideMode.FORCE_CLOSED);
+
+        pingListener = new PingListener(fixture.scheduleManager, fixture.metrics);
+        loginListener = new LoginListener(fixture.scheduleManager, fixture.groupResolver, fixture.admission,
+                fixture.playtime, fixture.metrics, fixture.audit);
+
+        UUID uuid = UUID.randomUUID();
+        pingEvent = mock(PaperServerListPingEvent.class, withSettings().stubOnly());
+
+        preLoginEvent = mock(AsyncPlayerPreLoginEvent.class, withSettings().stubOnly());
+        when(preLoginEvent.getUniqueId()).thenReturn(uuid);
+        when(preLoginEvent.getLoginResult()).thenReturn(AsyncPlayerPreLoginEvent.Result.ALLOWED);
+
+        Player player = mock(Player.class, withSettings().stubOnly());
+        when(player.getUniqueId()).thenReturn(uuid);
+        when(player.hasPermission("timegate.bypass")).thenReturn(false);
+        loginEvent = mock(PlayerLoginEvent.class, withSettings().stubOnly());
+        when(loginEvent.getPlayer()).thenReturn(player);
+
+        // 権限を確認済みにしておく（未確認のプレイヤーは事前ログイン段階では拒否されない）
+        loginListener.onPlayerLogin(loginEvent);
+    }
+
+    @Benchmark
+    public void ping() {
+        pingListener.onServerListPing(pingEvent);
+    }
+
+    @Benchmark
+    public void asyncPreLogin() {
+        loginListener.onAsyncPreLogin(preLoginEvent);
+    }
+
+    @Benchmark
+    public void playerLogin() {
+        loginListener.onPlayerLogin(loginEvent);
+    }
+}
@@ -0,0 +1,89 @@
+package dev.timegateplugin.timegate.benchmark;
+
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.util.MessageTemplate;
+import dev.timegateplugin.timegate.util.MessageUtil;
+import dev.timegateplugin.timegate.util.Placeholder;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * デフォルト設定のメッセージを {@link MessageUtil#parse} でパースするコストと、
+ * コンパイル済みの {@link MessageTemplate} で表示するコストの比較
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageParseBenchmark {
+
+    private String motdOpen;
+    private String motdClosed;
+    private String warningMessage;
+    private String kickMessage;
+    private MessageTemplate warningTemplate;
+    private MessageTemplate kickTemplate;
+    /** キャッシュに収まらない数の異なるプレイヤー名（キックは毎回別のプレイヤーになる） */
+    private String[] playerNames;
+    private int nextName;
+
+    @Setup
+    public void setUp() {
+        ConfigSnapshot config = BenchmarkFixture.withDefaultConfig().configManager.snapshot();
+        motdOpen = config.motdOpen().source();
+        motdClosed = config.motdClosed().source();
+        warningMessage = config.warningMessage().source();
+        kickMessage = config.kickMessage().source();
+        warningTemplate = config.warningMessage();
+        kickTemplate = config.kickMessage();
+        playerNames = new String[1024];
+        for (int i = 0; i < playerNames.length; i++) {
+            playerNames[i] = "Player" + i;
+        }
+    }
+
+    @Benchmark
+    public Component motdOpen() {
+        return MessageUtil.parse(motdOpen);
+    }
+
+    @Benchmark
+    public Component motdClosed() {
+        return MessageUtil.parse(motdClosed);
+    }
+
+    @Benchmark
+    public Component warning() {
+        return MessageUtil.parse(warningMessage.replace("{minutes}", "5"));
+    }
+
+    @Benchmark
+    public Component kick() {
+        return MessageUtil.parse(kickMessage);
+    }
+
+    @Benchmark
+    public Component warningTemplate() {
+        return warningTemplate.render(Placeholder.MINUTES, "5");
+    }
+
+    @Benchmark
+    public Component kickTemplate() {
+        String name = playerNames[nextName];
+        nextName = (nextName + 1) % playerNames.length;
+        return kickTemplate.render(Placeholder.PLAYER, name);
+    }
+}
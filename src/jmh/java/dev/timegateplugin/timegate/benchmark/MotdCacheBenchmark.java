@@ -0,0 +1,80 @@
+package dev.timegateplugin.timegate.benchmark;
+
+import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.listener.PingListener;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.schedule.GateSnapshot;
+import dev.timegateplugin.timegate.schedule.GateState;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import dev.timegateplugin.timegate.util.MessageUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Ping 1 件あたりの MOTD 生成コストを、キャッシュあり（{@link PingListener}）と
+ * キャッシュなし（Ping のたびに MiniMessage でパースする、キャッシュ導入前の処理）で比較する
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MotdCacheBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    @Param({"OPEN", "CLOSED"})
+    public String state;
+
+    private Consumer<PaperServerListPingEvent> handler;
+    private PaperServerListPingEvent pingEvent;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixture fixture = BenchmarkFixture.withDefaultConfig();
+        ScheduleManager scheduleManager = fixture.scheduleManager;
+        scheduleManager.setOverrideMode(state.equals("OPEN")
+                ? ScheduleManager.OverrideMode.FORCE_OPEN
+                : ScheduleManager.OverrideMode.FORCE_CLOSED);
+
+        if (cache) {
+            handler = new PingListener(scheduleManager, fixture.metrics)::onServerListPing;
+        } else {
+            GateMetrics metrics = fixture.metrics;
+            handler = event -> {
+                long startNanos = System.nanoTime();
+                GateSnapshot snapshot = scheduleManager.snapshot();
+                ConfigSnapshot config = snapshot.config();
+                String source = snapshot.state() == GateState.OPEN
+                        ? config.motdOpen().source()
+                        : config.motdClosed().source();
+                event.motd(MessageUtil.parse(source));
+                metrics.recordPing(System.nanoTime() - startNanos);
+            };
+        }
+        pingEvent = mock(PaperServerListPingEvent.class, withSettings().stubOnly());
+    }
+
+    @Benchmark
+    public void ping() {
+        handler.accept(pingEvent);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.timegateplugin.timegate.benchmark;
+
+import dev.timegateplugin.timegate.schedule.ScheduleEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ScheduleEntry} 単体の判定コスト
+ * <p>
+ * デフォルト設定の週末エントリ (10:00〜25:00) に対し、当日分・翌日へのはみ出し分・時間外の 3 通りを測る。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleEntryBenchmark {
+
+    private final ScheduleEntry entry = new ScheduleEntry(
+            EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), 10 * 60, 25 * 60);
+
+    private final DayOfWeek inWindowDay = DayOfWeek.SATURDAY;
+    private final LocalTime inWindowTime = LocalTime.of(15, 30);
+    private final DayOfWeek overflowDay = DayOfWeek.MONDAY;
+    private final LocalTime overflowTime = LocalTime.of(0, 30);
+    private final DayOfWeek outsideDay = DayOfWeek.WEDNESDAY;
+    private final LocalTime outsideTime = LocalTime.of(12, 0);
+
+    @Benchmark
+    public boolean isWithinInWindow() {
+        return entry.isWithin(inWindowDay, inWindowTime);
+    }
+
+    @Benchmark
+    public boolean isWithinOverflow() {
+        return entry.isWithin(overflowDay, overflowTime);
+    }
+
+    @Benchmark
+    public boolean isWithinOutside() {
+        return entry.isWithin(outsideDay, outsideTime);
+    }
+
+    @Benchmark
+    public int minutesUntilEndInWindow() {
+        return entry.getMinutesUntilEnd(inWindowDay, inWindowTime);
+    }
+
+    @Benchmark
+    public int minutesUntilEndOverflow() {
+        return entry.getMinutesUntilEnd(overflowDay, overflowTime);
+    }
+}
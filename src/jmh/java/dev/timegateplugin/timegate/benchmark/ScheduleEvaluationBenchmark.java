@@ -0,0 +1,97 @@
+package dev.timegateplugin.timegate.benchmark;
+
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.schedule.ScheduleEntry;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * スケジュール全体の状態判定コスト（エントリ数 1 / 10 / 500）
+ * <p>
+ * 全エントリを線形走査する判定と、コンパイル済みインデックス（例外日を含む）による判定、
+ * および {@link ScheduleManager} を通した再評価（スナップショット公開を含む）を比較する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleEvaluationBenchmark {
+
+    @Param({"1", "10", "500"})
+    public int entryCount;
+
+    private ScheduleManager scheduleManager;
+    private ConfigSnapshot config;
+    private List<ScheduleEntry> entries;
+    private DayOfWeek day;
+    private LocalTime time;
+    private LocalDateTime dateTime;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixture fixture = BenchmarkFixture.withScheduleEntries(entryCount);
+        scheduleManager = fixture.scheduleManager;
+        config = fixture.configManager.snapshot();
+        entries = config.scheduleEntries();
+
+        ZonedDateTime now = ZonedDateTime.now(config.timezone());
+        day = now.getDayOfWeek();
+        time = now.toLocalTime();
+        dateTime = now.toLocalDateTime();
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        for (ScheduleEntry entry : entries) {
+            if (entry.isWithin(day, time)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean indexLookup() {
+        return config.schedule().weekly().isOpen(day, time);
+    }
+
+    @Benchmark
+    public int indexMinutesUntilEnd() {
+        return config.schedule().weekly().getMinutesUntilEnd(day, time);
+    }
+
+    @Benchmark
+    public boolean compiledScheduleLookup() {
+        return config.schedule().isOpen(dateTime);
+    }
+
+    @Benchmark
+    public Object compiledScheduleNextEdge() {
+        return config.schedule().findNextEdge(dateTime);
+    }
+
+    @Benchmark
+    public Object managerReevaluate() {
+        scheduleManager.reevaluate();
+        return scheduleManager.snapshot();
+    }
+}
@@ -1,13 +1,33 @@
 package dev.timegateplugin.timegate;
 
+import dev.timegateplugin.timegate.access.AdmissionController;
+import dev.timegateplugin.timegate.access.BypassAllowlist;
+import dev.timegateplugin.timegate.access.BypassResolver;
+import dev.timegateplugin.timegate.access.GroupRefresher;
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.api.TimeGateApi;
+import dev.timegateplugin.timegate.api.TimeGateService;
+import dev.timegateplugin.timegate.audit.AuditLog;
 import dev.timegateplugin.timegate.command.TimeGateCommand;
 import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.config.ConfigWatcher;
 import dev.timegateplugin.timegate.listener.LoginListener;
 import dev.timegateplugin.timegate.listener.PingListener;
+import dev.timegateplugin.timegate.listener.PlayerSessionListener;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.metrics.MetricsHttpServer;
+import dev.timegateplugin.timegate.playtime.PlaytimeStore;
+import dev.timegateplugin.timegate.playtime.PlaytimeTracker;
+import dev.timegateplugin.timegate.schedule.CountdownBar;
+import dev.timegateplugin.timegate.schedule.OverrideJournal;
 import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import dev.timegateplugin.timegate.sync.SharedStateSync;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.time.Clock;
+
 /**
  * TimeGate — 時間制限ホワイトリストプラグイン
  * <p>
@@ -18,24 +38,91 @@ public class TimeGate extends JavaPlugin {
 
     private ConfigManager configManager;
     private ScheduleManager scheduleManager;
+    private MetricsHttpServer metricsHttpServer;
+    private SharedStateSync sharedStateSync;
+    private ConfigWatcher configWatcher;
+    private PlaytimeTracker playtimeTracker;
+    private AuditLog auditLog;
+    private BypassAllowlist bypassAllowlist;
+    private GroupRefresher groupRefresher;
 
     @Override
     public void onEnable() {
         // 設定読み込み
-        configManager = new ConfigManager(this);
+        Clock clock = Clock.systemUTC();
+        configManager = new ConfigManager(this, clock);
+
+        // TimeGate が管理するバイパス許可リスト
+        bypassAllowlist = new BypassAllowlist(getDataFolder().toPath().resolve("bypass.txt"), getLogger());
+        bypassAllowlist.open();
+
+        GroupResolver groupResolver = new GroupResolver(new BypassResolver(bypassAllowlist));
+        AdmissionController admission = new AdmissionController();
+        GateMetrics metrics = new GateMetrics();
+        CountdownBar countdownBar = new CountdownBar(this, clock);
+
+        // 監査ログ（無効時は記録しても何もしない。変更はサーバー再起動後に反映）
+        auditLog = new AuditLog(configManager, getDataFolder().toPath().resolve("audit"), getLogger(), metrics);
+        if (configManager.snapshot().audit().enabled()) {
+            auditLog.start(configManager.snapshot().audit());
+        }
+        // オーバーライドのジャーナル（前回のオーバーライドはスケジュールマネージャー初期化時に復元される）
+        OverrideJournal journal = new OverrideJournal(
+                getDataFolder().toPath().resolve("override.journal"), getLogger());
 
         // スケジュールマネージャー初期化・開始
-        scheduleManager = new ScheduleManager(this, configManager);
+        scheduleManager = new ScheduleManager(this, configManager, groupResolver, admission, metrics,
+                countdownBar, journal, auditLog, clock);
         scheduleManager.start();
 
+        // オンラインプレイヤーの所属を tick に分けて判定し直す
+        groupRefresher = new GroupRefresher(this, configManager, groupResolver);
+        groupRefresher.start();
+
+        // 1 日あたりのプレイ時間の上限
+        playtimeTracker = new PlaytimeTracker(this, configManager, groupResolver, metrics,
+                new PlaytimeStore(getDataFolder().toPath().resolve("playtime.dat"), getLogger()), auditLog);
+        playtimeTracker.start();
+
+        // 複数サーバー間の状態共有（有効時のみ）
+        if (configManager.snapshot().sharedState().enabled()) {
+            sharedStateSync = new SharedStateSync(this, scheduleManager);
+            scheduleManager.setSharedStateSync(sharedStateSync);
+            if (!sharedStateSync.start(configManager.snapshot().sharedState())) {
+                scheduleManager.setSharedStateSync(null);
+                sharedStateSync = null;
+            }
+        }
+
+        // メトリクス HTTP エンドポイント（有効時のみ）
+        if (configManager.snapshot().metricsHttpEnabled()) {
+            metricsHttpServer = new MetricsHttpServer(metrics, getLogger());
+            metricsHttpServer.start(configManager.snapshot().metricsHttpPort());
+        }
+
+        // config.yml の自動リロード（有効時のみ）
+        if (configManager.snapshot().autoReload()) {
+            configWatcher = new ConfigWatcher(configManager, scheduleManager, getLogger());
+            configWatcher.start(configManager.snapshot().autoReloadDebounceMillis());
+        }
+
         // イベントリスナー登録
         getServer().getPluginManager().registerEvents(
-                new LoginListener(scheduleManager, configManager), this);
+                new LoginListener(scheduleManager, groupResolver, admission, playtimeTracker, metrics, auditLog),
+                this);
+        getServer().getPluginManager().registerEvents(
+                new PingListener(scheduleManager, metrics), this);
         getServer().getPluginManager().registerEvents(
-                new PingListener(scheduleManager, configManager), this);
+                new PlayerSessionListener(countdownBar, scheduleManager, playtimeTracker, groupResolver,
+                        groupRefresher), this);
+
+        // 他のプラグイン向けの API
+        getServer().getServicesManager().register(TimeGateApi.class, new TimeGateService(scheduleManager),
+                this, ServicePriority.Normal);
 
         // コマンド登録
-        TimeGateCommand commandHandler = new TimeGateCommand(scheduleManager, configManager);
+        TimeGateCommand commandHandler = new TimeGateCommand(scheduleManager, configManager, metrics,
+                groupResolver, bypassAllowlist, auditLog);
         PluginCommand command = getCommand("timegate");
         if (command != null) {
             command.setExecutor(commandHandler);
@@ -47,9 +134,34 @@ public class TimeGate extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        getServer().getServicesManager().unregisterAll(this);
+        if (configWatcher != null) {
+            configWatcher.stop();
+        }
+        if (configManager != null) {
+            configManager.shutdown();
+        }
+        if (metricsHttpServer != null) {
+            metricsHttpServer.stop();
+        }
+        if (sharedStateSync != null) {
+            sharedStateSync.stop();
+        }
+        if (playtimeTracker != null) {
+            playtimeTracker.stop();
+        }
+        if (groupRefresher != null) {
+            groupRefresher.stop();
+        }
         if (scheduleManager != null) {
             scheduleManager.stop();
         }
+        if (bypassAllowlist != null) {
+            bypassAllowlist.close();
+        }
+        if (auditLog != null) {
+            auditLog.stop();
+        }
         getLogger().info("TimeGate が無効化されました。");
     }
 }
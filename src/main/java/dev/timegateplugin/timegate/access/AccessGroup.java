@@ -0,0 +1,25 @@
+package dev.timegateplugin.timegate.access;
+
+import dev.timegateplugin.timegate.schedule.CompiledSchedule;
+
+/**
+ * 権限で振り分けるアクセスグループ（サポーター・スタッフなど）
+ * <p>
+ * グループのスケジュールは全体のスケジュールに追加される時間帯で、
+ * 全体のスケジュールと合わせた開放時間を事前にコンパイルして保持する。
+ *
+ * @param name        グループ名
+ * @param permission  所属判定に使う権限
+ * @param always      常時ログイン可能か（スケジュール・強制閉鎖に関係なく入れる）
+ * @param schedule    全体のスケジュールと合わせてコンパイルしたスケジュール（常時ログイン可能な場合は null）
+ * @param kickOnClose グループの開放時間が終わったときにキックするか
+ * @param warnings    グループの開放時間が終わる前に告知するか
+ */
+public record AccessGroup(
+        String name,
+        String permission,
+        boolean always,
+        CompiledSchedule schedule,
+        boolean kickOnClose,
+        boolean warnings) {
+}
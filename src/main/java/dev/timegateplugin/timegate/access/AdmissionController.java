@@ -0,0 +1,173 @@
+package dev.timegateplugin.timegate.access;
+
+import dev.timegateplugin.timegate.config.AdmissionSettings;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 開放直後のログイン集中を抑える入場制御
+ * <p>
+ * ゲートが開いてから一定時間（制御期間）だけ、次の 2 つでログインを制限する。
+ * <ul>
+ *   <li>トークンバケット（GCRA）による 1 秒あたりのログイン数</li>
+ *   <li>制御期間中に受け付けるログイン数の上限（バイパス権限用の予約枠を含む）</li>
+ * </ul>
+ * 非同期の事前ログイン段階から複数スレッドで呼ばれるため、状態はすべて CAS で更新する。
+ * <p>
+ * 上限の枠は、後の段階（他のプラグインやプレイ時間の上限）でログインが拒否された場合に {@link #release} で返す。
+ * 上限で受け付けなかったログインはトークンを消費しない。
+ */
+public class AdmissionController {
+
+    /**
+     * 入場判定の結果
+     *
+     * @param admitted     受け付けたか
+     * @param retrySeconds 受け付けなかった場合の再試行までの秒数
+     * @param capReached   上限に達したために受け付けなかったか（false ならログイン数の制限）
+     */
+    public record Decision(boolean admitted, long retrySeconds, boolean capReached) {
+
+        static final Decision ADMITTED = new Decision(true, 0, false);
+    }
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** 制御期間の終了時刻（System.nanoTime 基準）。制御期間外は現在より前の値 */
+    private volatile long windowEndNanos = System.nanoTime();
+    /** GCRA の理論到着時刻 */
+    private final AtomicLong theoreticalArrival = new AtomicLong();
+    /** 制御期間中に受け付けたログイン数 */
+    private final AtomicInteger admitted = new AtomicInteger();
+    /** 上限の枠を確保したまま、ログインが完了していないプレイヤー */
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * ゲートが開いたときに制御期間を開始する（メインスレッド）
+     */
+    public void startWindow(AdmissionSettings settings) {
+        if (!settings.enabled() || settings.windowSeconds() <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        admitted.set(0);
+        pending.clear();
+        theoreticalArrival.set(now);
+        windowEndNanos = now + settings.windowSeconds() * NANOS_PER_SECOND;
+    }
+
+    /**
+     * 制御期間を終了する（閉鎖時など）
+     */
+    public void endWindow() {
+        windowEndNanos = System.nanoTime();
+        pending.clear();
+    }
+
+    /**
+     * 制御期間中かどうか
+     */
+    public boolean isWindowActive() {
+        return System.nanoTime() - windowEndNanos < 0;
+    }
+
+    /**
+     * ログインを受け付けるか判定する（任意のスレッドから呼び出し可能）
+     * <p>
+     * バイパス権限を持つプレイヤーはログイン数の制限を受けず、予約枠を含めた上限まで受け付ける。
+     * 上限の枠を先に確保し、ログイン数の制限で受け付けなかった場合は枠を返す。
+     *
+     * @param player 受け付けた場合に枠を確保するプレイヤー
+     */
+    public Decision tryAdmit(AdmissionSettings settings, UUID player, boolean bypass) {
+        long now = System.nanoTime();
+        long windowEnd = windowEndNanos;
+        if (!settings.enabled() || now - windowEnd >= 0) {
+            return Decision.ADMITTED;
+        }
+
+        boolean reserved = false;
+        if (settings.maxPlayers() > 0) {
+            int limit = bypass ? settings.maxPlayers() : settings.maxPlayers() - settings.reservedSlots();
+            if (!reserveSlot(limit)) {
+                // 上限に達したら制御期間が終わるまで待ってもらう
+                return new Decision(false, toRetrySeconds(windowEnd - now), true);
+            }
+            reserved = true;
+        }
+
+        if (!bypass) {
+            long wait = acquireToken(settings, now);
+            if (wait > 0) {
+                if (reserved) {
+                    admitted.decrementAndGet();
+                }
+                return new Decision(false, toRetrySeconds(wait), false);
+            }
+        }
+
+        if (reserved && !pending.add(player)) {
+            // 同じプレイヤーのログインが処理中なら、枠は 1 つだけ使う
+            admitted.decrementAndGet();
+        }
+        return Decision.ADMITTED;
+    }
+
+    /**
+     * 受け付けたログインが後の段階で拒否された場合に、上限の枠を返す（任意のスレッドから呼び出し可能）
+     */
+    public void release(UUID player) {
+        if (pending.remove(player)) {
+            admitted.decrementAndGet();
+        }
+    }
+
+    /**
+     * 受け付けたログインが完了した（枠はそのまま使う）
+     */
+    public void complete(UUID player) {
+        pending.remove(player);
+    }
+
+    /**
+     * トークンを 1 つ取得する
+     *
+     * @return 取得できた場合は 0、できなかった場合は取得できるまでのナノ秒
+     */
+    private long acquireToken(AdmissionSettings settings, long now) {
+        long interval = (long) (NANOS_PER_SECOND / Math.max(0.001, settings.loginsPerSecond()));
+        long tolerance = interval * Math.max(0, settings.burst() - 1);
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long allowAt = tat - tolerance;
+            if (now - allowAt < 0) {
+                return allowAt - now;
+            }
+            long next = Math.max(tat, now) + interval;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private boolean reserveSlot(int limit) {
+        while (true) {
+            int count = admitted.get();
+            if (count >= limit) {
+                return false;
+            }
+            if (admitted.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static long toRetrySeconds(long nanos) {
+        return Math.max(1, (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+}
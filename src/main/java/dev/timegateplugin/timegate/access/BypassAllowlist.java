@@ -0,0 +1,236 @@
+package dev.timegateplugin.timegate.access;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * TimeGate が管理するバイパス許可リスト（UUID）
+ * <p>
+ * UUID の上位・下位 64 ビットを交互に並べ、(上位, 下位) の順に整列した long 配列として保持する。
+ * 判定は二分探索のみでオブジェクトを生成せず、権限プラグインや {@code Player} を必要としないため、
+ * 非同期の事前ログイン段階からも使える。
+ * 変更時は新しい配列を作って差し替える（読み取りはロックなし）。
+ * <p>
+ * 1 行 1 UUID のテキストファイルに保存し、書き込みは専用の 1 スレッドで行う。
+ */
+public class BypassAllowlist {
+
+    private static final long[] EMPTY = new long[0];
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final Path path;
+    private final Logger logger;
+    private ExecutorService writer;
+
+    /** 整列済みの (上位, 下位) の並び。変更はメインスレッドのみ、読み取りは任意のスレッドから */
+    private volatile long[] entries = EMPTY;
+
+    public BypassAllowlist(Path path, Logger logger) {
+        this.path = path;
+        this.logger = logger;
+    }
+
+    /**
+     * 保存済みのリストを読み込み、書き込みスレッドを開始する
+     */
+    public void open() {
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-Bypass");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warning("バイパス許可リストを読み込めませんでした (" + path + "): " + e.getMessage());
+            return;
+        }
+        long[] loaded = EMPTY;
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            try {
+                UUID uuid = UUID.fromString(trimmed);
+                loaded = insert(loaded, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            } catch (IllegalArgumentException e) {
+                logger.warning("バイパス許可リストの不正な行を無視します: " + trimmed);
+            }
+        }
+        entries = loaded;
+        if (size() > 0) {
+            logger.info("バイパス許可リストを読み込みました: " + size() + " 人");
+        }
+    }
+
+    /**
+     * 未処理の書き込みを済ませてから閉じる
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("バイパス許可リストの書き込みが時間内に終わりませんでした。");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * 許可リストに含まれるかどうか（任意のスレッドから呼び出し可能）
+     */
+    public boolean contains(UUID uuid) {
+        return indexOf(entries, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * 許可リストに追加する（メインスレッド）
+     *
+     * @return 追加した場合は true、すでに含まれていた場合は false
+     */
+    public boolean add(UUID uuid) {
+        long[] current = entries;
+        long[] updated = insert(current, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (updated == current) {
+            return false;
+        }
+        entries = updated;
+        save(updated);
+        return true;
+    }
+
+    /**
+     * 許可リストから削除する（メインスレッド）
+     *
+     * @return 削除した場合は true、含まれていなかった場合は false
+     */
+    public boolean remove(UUID uuid) {
+        long[] current = entries;
+        int index = indexOf(current, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (index < 0) {
+            return false;
+        }
+        long[] updated = new long[current.length - 2];
+        System.arraycopy(current, 0, updated, 0, index * 2);
+        System.arraycopy(current, index * 2 + 2, updated, index * 2, current.length - index * 2 - 2);
+        entries = updated;
+        save(updated);
+        return true;
+    }
+
+    /**
+     * 許可リストの人数
+     */
+    public int size() {
+        return entries.length / 2;
+    }
+
+    /**
+     * 許可リストの UUID の一覧（整列順）
+     */
+    public List<UUID> list() {
+        long[] current = entries;
+        List<UUID> uuids = new ArrayList<>(current.length / 2);
+        for (int i = 0; i < current.length; i += 2) {
+            uuids.add(new UUID(current[i], current[i + 1]));
+        }
+        return uuids;
+    }
+
+    /**
+     * 整列済みの並びから (high, low) を二分探索する
+     *
+     * @return 見つかった要素の番号。なければ (-(挿入位置) - 1)
+     */
+    private static int indexOf(long[] sorted, long high, long low) {
+        int from = 0;
+        int to = sorted.length / 2 - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            long midHigh = sorted[mid * 2];
+            int cmp = midHigh != high ? Long.compare(midHigh, high) : Long.compare(sorted[mid * 2 + 1], low);
+            if (cmp < 0) {
+                from = mid + 1;
+            } else if (cmp > 0) {
+                to = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(from + 1);
+    }
+
+    /**
+     * (high, low) を挿入した新しい並びを返す。すでに含まれていれば元の配列をそのまま返す
+     */
+    private static long[] insert(long[] sorted, long high, long low) {
+        int index = indexOf(sorted, high, low);
+        if (index >= 0) {
+            return sorted;
+        }
+        int at = -(index + 1) * 2;
+        long[] updated = Arrays.copyOf(sorted, sorted.length + 2);
+        System.arraycopy(sorted, at, updated, at + 2, sorted.length - at);
+        updated[at] = high;
+        updated[at + 1] = low;
+        return updated;
+    }
+
+    /**
+     * 非同期で保存する（配列は差し替え専用で変更されないため、そのまま書き込みスレッドに渡す）
+     */
+    private void save(long[] snapshot) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.execute(() -> write(snapshot));
+        } catch (RejectedExecutionException e) {
+            logger.warning("書き込みスレッドが停止しているため、バイパス許可リストを保存できませんでした。");
+        }
+    }
+
+    /**
+     * 一時ファイルに書き出して置き換える（書き込みスレッド）
+     */
+    private void write(long[] snapshot) {
+        StringBuilder text = new StringBuilder(snapshot.length / 2 * 37 + 64);
+        text.append("# TimeGate バイパス許可リスト (/timegate bypass add|remove で編集)\n");
+        for (int i = 0; i < snapshot.length; i += 2) {
+            text.append(new UUID(snapshot[i], snapshot[i + 1])).append('\n');
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(temp, text, StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("バイパス許可リストの保存に失敗しました: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.timegateplugin.timegate.access;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * バイパス権限の判定クラス
+ * <p>
+ * {@link Player} がまだ存在しない非同期の事前ログイン段階でも判定できるよう、
+ * UUID だけで引ける経路（OP 判定と、ログイン時に確認した権限の記録）を持つ。
+ * 権限とは別に、TimeGate が管理する {@link BypassAllowlist} に含まれるプレイヤーも常に許可する。
+ * <p>
+ * 権限の記録はログインでしか作られないため、記録のない UUID は「不明」として扱い、
+ * 事前ログイン段階では拒否せずにログイン時の判定に任せる（{@link #isResolved(UUID)}）。
+ * 「権限なし」の記録は {@value #NEGATIVE_TTL_MINUTES} 分で期限切れになり、再び「不明」に戻る。
+ * 権限プラグインで後から bypass を付与されたプレイヤーも、期限が切れればログイン時の判定で記録し直される。
+ * 記録は {@link ConcurrentHashMap} に置き、事前ログインのスレッドからはロックなしで読む。
+ */
+public class BypassResolver {
+
+    public static final String BYPASS_PERMISSION = "timegate.bypass";
+
+    /** 「権限なし」の記録を信用する時間 */
+    static final long NEGATIVE_TTL_MINUTES = 5;
+    /** 記録がこの人数を超えたら、期限切れの記録を掃除する */
+    static final int MAX_RESOLVED = 10_000;
+
+    private static final long NEGATIVE_TTL_MILLIS = NEGATIVE_TTL_MINUTES * 60_000L;
+    /** 掃除しても減らない場合に、掃除を繰り返さない間隔 */
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000L;
+
+    /**
+     * ログイン時に確認した権限
+     *
+     * @param bypass        bypass 権限を持っていたか
+     * @param checkedMillis 確認した時刻
+     */
+    private record Check(boolean bypass, long checkedMillis) {
+    }
+
+    private final Map<UUID, Check> resolved = new ConcurrentHashMap<>();
+    private final BypassAllowlist allowlist;
+    /** 次に掃除してよい時刻（メインスレッドのみ） */
+    private long nextSweepMillis;
+
+    public BypassResolver(BypassAllowlist allowlist) {
+        this.allowlist = allowlist;
+    }
+
+    /**
+     * オンラインプレイヤーのバイパス権限を判定し、結果を記録する（メインスレッド）
+     *
+     * @param player 判定するプレイヤー
+     * @return バイパス権限を持っていれば true
+     */
+    public boolean hasBypass(Player player) {
+        if (allowlist.contains(player.getUniqueId())) {
+            return true;
+        }
+        boolean bypass = player.hasPermission(BYPASS_PERMISSION);
+        long now = System.currentTimeMillis();
+        resolved.put(player.getUniqueId(), new Check(bypass, now));
+        if (resolved.size() > MAX_RESOLVED && now >= nextSweepMillis) {
+            resolved.values().removeIf(check -> now - check.checkedMillis() >= NEGATIVE_TTL_MILLIS);
+            nextSweepMillis = now + SWEEP_INTERVAL_MILLIS;
+        }
+        return bypass;
+    }
+
+    /**
+     * UUID だけでバイパス権限を判定する（任意のスレッドから呼び出し可能）
+     * <p>
+     * 許可リストのプレイヤー、OP（bypass 権限のデフォルト付与先）、ログイン時に権限を確認できたプレイヤーを許可する。
+     *
+     * @param uuid 判定するプレイヤーの UUID
+     * @return バイパス可能と判定できれば true
+     */
+    public boolean hasBypass(UUID uuid) {
+        if (allowlist.contains(uuid)) {
+            return true;
+        }
+        Check check = resolved.get(uuid);
+        return (check != null && check.bypass()) || Bukkit.getOfflinePlayer(uuid).isOp();
+    }
+
+    /**
+     * 権限の有無を、信用できる期間内に確認済みかどうか（任意のスレッドから呼び出し可能）
+     * <p>
+     * false の場合は権限プラグインで bypass を持っている可能性があるため、UUID だけで拒否してはいけない。
+     */
+    public boolean isResolved(UUID uuid) {
+        Check check = resolved.get(uuid);
+        return check != null
+                && (check.bypass() || System.currentTimeMillis() - check.checkedMillis() < NEGATIVE_TTL_MILLIS);
+    }
+}
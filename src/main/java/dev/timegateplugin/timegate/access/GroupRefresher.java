@@ -0,0 +1,112 @@
+package dev.timegateplugin.timegate.access;
+
+import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+
+/**
+ * オンラインプレイヤーの所属を、数 tick に分けて判定し直すクラス（メインスレッド）
+ * <p>
+ * 参加したプレイヤーは参加した tick ではなく次の tick 以降に判定する。
+ * その後も {@value #CYCLE_SECONDS} 秒ごとに全員を判定し直し、権限プラグインでの昇格・降格をキャッシュに反映する。
+ * 設定の再読み込みで世代が変わった場合は、すぐに全員の判定をやり直す。
+ * 1 tick あたりの判定人数は 1 周が {@value #CYCLE_SECONDS} 秒で終わる人数（最低 {@value #MIN_PER_TICK} 人）に抑えるため、
+ * 状態遷移時のキック対象・告知対象の選定はキャッシュを読むだけで済む。
+ */
+public class GroupRefresher {
+
+    /** 全員を判定し直す周期 */
+    static final long CYCLE_SECONDS = 30;
+    /** 1 tick あたりに判定する最低人数 */
+    static final int MIN_PER_TICK = 4;
+
+    private static final long CYCLE_TICKS = CYCLE_SECONDS * 20L;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final GroupResolver groupResolver;
+
+    /** 参加後まだ判定していないプレイヤー（周期の判定より先に処理する） */
+    private final Deque<UUID> joined = new ArrayDeque<>();
+    /** 今回の周期で判定し直すプレイヤー */
+    private final Deque<UUID> cycle = new ArrayDeque<>();
+    private int perTick = MIN_PER_TICK;
+    private long ticks;
+    private long nextCycleTick;
+    private int generation = -1;
+    private BukkitTask task;
+
+    public GroupRefresher(JavaPlugin plugin, ConfigManager configManager, GroupResolver groupResolver) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.groupResolver = groupResolver;
+    }
+
+    /**
+     * 定期処理を開始する。起動時（/reload を含む）にすでに参加しているプレイヤーは最初の周期で判定される
+     */
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        joined.clear();
+        cycle.clear();
+    }
+
+    /**
+     * 参加したプレイヤーを判定待ちに加える
+     */
+    public void enqueue(Player player) {
+        joined.add(player.getUniqueId());
+    }
+
+    private void tick() {
+        ticks++;
+        ConfigSnapshot config = configManager.snapshot();
+        if (config.generation() != generation || (cycle.isEmpty() && ticks >= nextCycleTick)) {
+            generation = config.generation();
+            fillCycle();
+        }
+
+        int budget = perTick;
+        while (budget > 0 && !joined.isEmpty()) {
+            Player player = Bukkit.getPlayer(joined.poll());
+            // 閉鎖中のログインですでに判定済みのプレイヤーは除く
+            if (player != null && groupResolver.cached(player.getUniqueId(), config) == null) {
+                groupResolver.refresh(player, config);
+                budget--;
+            }
+        }
+        while (budget > 0 && !cycle.isEmpty()) {
+            Player player = Bukkit.getPlayer(cycle.poll());
+            if (player != null) {
+                groupResolver.refresh(player, config);
+                budget--;
+            }
+        }
+    }
+
+    /**
+     * 参加中の全員を今回の周期の判定対象にし、周期内に終わる 1 tick あたりの人数を決める
+     */
+    private void fillCycle() {
+        cycle.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            cycle.add(player.getUniqueId());
+        }
+        perTick = (int) Math.max(MIN_PER_TICK, (cycle.size() + CYCLE_TICKS - 1) / CYCLE_TICKS);
+        nextCycleTick = ticks + CYCLE_TICKS;
+    }
+}
@@ -0,0 +1,123 @@
+package dev.timegateplugin.timegate.access;
+
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * プレイヤーの所属アクセスグループを判定し、UUID ごとにキャッシュするクラス
+ * <p>
+ * 権限の判定（{@code hasPermission} の連鎖）は閉鎖中のログイン時と、{@link GroupRefresher} が tick を分けて
+ * 行う定期的な判定でだけ行い、状態遷移時のキック対象・告知対象の選定ではキャッシュを使う。
+ * キャッシュは設定の世代番号を持ち、リロードでグループ構成が変わると自動的に無効になる。
+ * Bukkit には権限変更のイベントがないため、オンライン中の昇格・降格は {@link GroupRefresher} の周期で反映され、
+ * キックの直前にも判定し直す。
+ * <p>
+ * キャッシュはオンライン中のプレイヤーの分だけ持ち、退出時（とログインの拒否時）に破棄する。
+ */
+public class GroupResolver {
+
+    /** どのグループにも属さない（全体のスケジュールに従う） */
+    public static final int DEFAULT_GROUP = -1;
+
+    /**
+     * 判定結果
+     *
+     * @param generation 判定に使った設定の世代番号
+     * @param bypass     バイパス権限を持つか
+     * @param group      所属グループの番号（{@link ConfigSnapshot#groups()} の添字、なければ {@link #DEFAULT_GROUP}）
+     */
+    public record Resolution(int generation, boolean bypass, int group) {
+    }
+
+    private final BypassResolver bypassResolver;
+    private final Map<UUID, Resolution> cache = new ConcurrentHashMap<>();
+
+    public GroupResolver(BypassResolver bypassResolver) {
+        this.bypassResolver = bypassResolver;
+    }
+
+    /**
+     * オンラインプレイヤーの所属を返す。キャッシュが有効ならそれを使う（メインスレッド）
+     */
+    public Resolution resolve(Player player, ConfigSnapshot config) {
+        Resolution cached = cache.get(player.getUniqueId());
+        if (cached != null && cached.generation() == config.generation()) {
+            return cached;
+        }
+        return refresh(player, config);
+    }
+
+    /**
+     * 権限を判定し直してキャッシュを更新する（メインスレッド）
+     */
+    public Resolution refresh(Player player, ConfigSnapshot config) {
+        boolean bypass = bypassResolver.hasBypass(player);
+        int group = DEFAULT_GROUP;
+        List<AccessGroup> groups = config.groups();
+        for (int i = 0; i < groups.size(); i++) {
+            if (player.hasPermission(groups.get(i).permission())) {
+                group = i;
+                break;
+            }
+        }
+
+        Resolution resolution = new Resolution(config.generation(), bypass, group);
+        cache.put(player.getUniqueId(), resolution);
+        return resolution;
+    }
+
+    /**
+     * キャッシュ済みの所属を返す（任意のスレッドから呼び出し可能）
+     *
+     * @return キャッシュがない、または設定の世代が異なる場合は null
+     */
+    public Resolution cached(UUID uuid, ConfigSnapshot config) {
+        Resolution cached = cache.get(uuid);
+        return cached != null && cached.generation() == config.generation() ? cached : null;
+    }
+
+    /**
+     * キャッシュ済みの所属を返す。未判定のプレイヤーはバイパスなし・グループなしとして扱い、権限の判定は行わない
+     */
+    public Resolution cachedOrDefault(UUID uuid, ConfigSnapshot config) {
+        Resolution cached = cached(uuid, config);
+        return cached != null ? cached : new Resolution(config.generation(), false, DEFAULT_GROUP);
+    }
+
+    /**
+     * UUID だけでバイパス権限を判定する（任意のスレッドから呼び出し可能）
+     *
+     * @see BypassResolver#hasBypass(UUID)
+     */
+    public boolean hasBypass(UUID uuid) {
+        return bypassResolver.hasBypass(uuid);
+    }
+
+    /**
+     * バイパス権限の有無をログイン時に確認済みかどうか（任意のスレッドから呼び出し可能）
+     *
+     * @see BypassResolver#isResolved(UUID)
+     */
+    public boolean isBypassResolved(UUID uuid) {
+        return bypassResolver.isResolved(uuid);
+    }
+
+    /**
+     * 指定したプレイヤーのキャッシュを破棄する
+     */
+    public void invalidate(UUID uuid) {
+        cache.remove(uuid);
+    }
+
+    /**
+     * すべてのキャッシュを破棄する
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+}
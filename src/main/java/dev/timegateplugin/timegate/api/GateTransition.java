@@ -0,0 +1,14 @@
+package dev.timegateplugin.timegate.api;
+
+import dev.timegateplugin.timegate.schedule.GateState;
+
+import java.time.Instant;
+
+/**
+ * 予定されている開閉の切り替え
+ *
+ * @param at    切り替え時刻
+ * @param state 切り替え後の状態
+ */
+public record GateTransition(Instant at, GateState state) {
+}
@@ -0,0 +1,58 @@
+package dev.timegateplugin.timegate.api;
+
+import dev.timegateplugin.timegate.schedule.GateState;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 他のプラグインから TimeGate の状態を参照するための API
+ * <p>
+ * Bukkit の {@link org.bukkit.plugin.ServicesManager} に登録されており、次のように取得する:
+ * <pre>{@code
+ * TimeGateApi api = Bukkit.getServicesManager().load(TimeGateApi.class);
+ * }</pre>
+ * すべてのメソッドは任意のスレッドから呼び出せる。
+ * 状態の変化を知りたい場合はポーリングせず、
+ * {@link dev.timegateplugin.timegate.api.event.GateStateChangeEvent} を購読すること。
+ */
+public interface TimeGateApi {
+
+    /**
+     * 現在のゲート状態（オーバーライドを考慮した全体の状態）
+     */
+    @NotNull GateState getState();
+
+    /**
+     * 現在のオーバーライドモード
+     */
+    @NotNull ScheduleManager.OverrideMode getOverride();
+
+    /**
+     * オーバーライドの期限。期限なし、または自動モードの場合は null
+     */
+    @Nullable Instant getOverrideExpiresAt();
+
+    /**
+     * 次に状態が切り替わる時刻（オーバーライドの期限切れを含む）。
+     * 切り替えが予定されていなければ空
+     */
+    @NotNull Optional<Instant> getNextTransition();
+
+    /**
+     * 現在の状態が続く残り時間。切り替えが予定されていなければ空
+     */
+    @NotNull Optional<Duration> getTimeRemaining();
+
+    /**
+     * 指定した期間内に予定されている切り替えを時刻順に返す
+     *
+     * @param horizon 現在から先読みする期間
+     */
+    @NotNull List<GateTransition> getTimeline(@NotNull Duration horizon);
+}
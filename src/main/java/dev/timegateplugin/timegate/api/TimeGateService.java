@@ -0,0 +1,56 @@
+package dev.timegateplugin.timegate.api;
+
+import dev.timegateplugin.timegate.schedule.GateState;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link TimeGateApi} の実装。{@link ScheduleManager} が公開するスナップショットから読み取る
+ */
+public class TimeGateService implements TimeGateApi {
+
+    private final ScheduleManager scheduleManager;
+
+    public TimeGateService(ScheduleManager scheduleManager) {
+        this.scheduleManager = scheduleManager;
+    }
+
+    @Override
+    public @NotNull GateState getState() {
+        return scheduleManager.getCurrentState();
+    }
+
+    @Override
+    public @NotNull ScheduleManager.OverrideMode getOverride() {
+        return scheduleManager.getOverrideMode();
+    }
+
+    @Override
+    public @Nullable Instant getOverrideExpiresAt() {
+        return scheduleManager.getOverrideExpiresAt();
+    }
+
+    @Override
+    public @NotNull Optional<Instant> getNextTransition() {
+        return Optional.ofNullable(scheduleManager.getNextTransition());
+    }
+
+    @Override
+    public @NotNull Optional<Duration> getTimeRemaining() {
+        return getNextTransition().map(at -> {
+            Duration remaining = Duration.between(scheduleManager.clock().instant(), at);
+            return remaining.isNegative() ? Duration.ZERO : remaining;
+        });
+    }
+
+    @Override
+    public @NotNull List<GateTransition> getTimeline(@NotNull Duration horizon) {
+        return scheduleManager.getUpcomingTransitions(horizon);
+    }
+}
@@ -0,0 +1,58 @@
+package dev.timegateplugin.timegate.api.event;
+
+import dev.timegateplugin.timegate.schedule.GateState;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * ゲートの全体の状態が切り替わったときに呼ばれるイベント（メインスレッド）
+ * <p>
+ * スケジュールによる切り替え、オーバーライドの変更・期限切れ、他サーバーからの共有のいずれでも呼ばれる。
+ * 呼ばれた時点で状態はすでに切り替わっている。
+ */
+public class GateStateChangeEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final GateState oldState;
+    private final GateState newState;
+    private final ScheduleManager.OverrideMode override;
+
+    public GateStateChangeEvent(GateState oldState, GateState newState, ScheduleManager.OverrideMode override) {
+        this.oldState = oldState;
+        this.newState = newState;
+        this.override = override;
+    }
+
+    /**
+     * 切り替え前の状態
+     */
+    public GateState getOldState() {
+        return oldState;
+    }
+
+    /**
+     * 切り替え後の状態
+     */
+    public GateState getNewState() {
+        return newState;
+    }
+
+    /**
+     * 切り替え後のオーバーライドモード（スケジュールによる切り替えの場合は NONE）
+     */
+    public ScheduleManager.OverrideMode getOverride() {
+        return override;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,52 @@
+package dev.timegateplugin.timegate.api.event;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+
+/**
+ * スケジュール上の開放を前に、ウォームアップを開始するときに呼ばれるイベント（メインスレッド）
+ * <p>
+ * 他のプラグインはこのイベントで開放前の準備（データの先読み、キャッシュの構築など）を行える。
+ * キャンセルすると TimeGate 自身によるチャンクの先読みを行わない。
+ */
+public class GateWarmupEvent extends Event implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Instant openAt;
+    private boolean cancelled;
+
+    public GateWarmupEvent(Instant openAt) {
+        this.openAt = openAt;
+    }
+
+    /**
+     * 開放予定時刻
+     */
+    public Instant getOpenAt() {
+        return openAt;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
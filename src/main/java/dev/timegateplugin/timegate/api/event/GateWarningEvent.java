@@ -0,0 +1,70 @@
+package dev.timegateplugin.timegate.api.event;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * 閉鎖前告知を送信する直前に呼ばれるイベント（メインスレッド）
+ * <p>
+ * キャンセルすると TimeGate 自身による告知メッセージを送信しない（告知済みとしては扱う）。
+ */
+public class GateWarningEvent extends Event implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final int minutesRemaining;
+    private final Instant closeAt;
+    private final String group;
+    private boolean cancelled;
+
+    public GateWarningEvent(int minutesRemaining, Instant closeAt, @Nullable String group) {
+        this.minutesRemaining = minutesRemaining;
+        this.closeAt = closeAt;
+        this.group = group;
+    }
+
+    /**
+     * 閉鎖までの残り分数（端数は切り上げ）
+     */
+    public int getMinutesRemaining() {
+        return minutesRemaining;
+    }
+
+    /**
+     * 閉鎖予定時刻
+     */
+    public Instant getCloseAt() {
+        return closeAt;
+    }
+
+    /**
+     * 告知の対象のアクセスグループ名。全体の告知の場合は null
+     */
+    public @Nullable String getGroup() {
+        return group;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,247 @@
+package dev.timegateplugin.timegate.audit;
+
+import dev.timegateplugin.timegate.config.AuditSettings;
+import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * ログイン拒否・バイパスログイン・キック・オーバーライド・状態の切り替えを記録する監査ログ
+ * <p>
+ * 記録は {@link AuditRing} に積むだけで、ファイルへの書き込みは専用の 1 スレッドがまとめて行う。
+ * メインスレッドや netty スレッドがディスク I/O を待つことはない。
+ * バッファが満杯の場合はその記録を捨て、捨てた件数をメトリクスに数える。
+ * <p>
+ * ファイルは {@code audit/audit-<日付>.log} に 1 行 1 件のタブ区切りで書き、日付が変わるか
+ * サイズの上限を超えると {@code audit-<日付>.<番号>.log} に切り替える。
+ */
+public class AuditLog {
+
+    private static final long DRAIN_INTERVAL_MILLIS = 200L;
+    private static final int DRAIN_BATCH = 4096;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    private final ConfigManager configManager;
+    private final Path directory;
+    private final Logger logger;
+    private final GateMetrics metrics;
+
+    private volatile AuditRing<AuditRecord> ring;
+    private ScheduledExecutorService writer;
+
+    // 以下は書き込みスレッドからのみ触る
+    private Writer out;
+    private LocalDate fileDate;
+    private long fileBytes;
+    private long maxFileBytes;
+    private long droppedReported;
+
+    public AuditLog(ConfigManager configManager, Path directory, Logger logger, GateMetrics metrics) {
+        this.configManager = configManager;
+        this.directory = directory;
+        this.logger = logger;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 書き込みスレッドを開始する
+     */
+    public void start(AuditSettings settings) {
+        maxFileBytes = Math.max(1L, settings.maxFileSizeMb()) * 1024 * 1024;
+        ring = new AuditRing<>(settings.bufferSize());
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-Audit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::drain, DRAIN_INTERVAL_MILLIS, DRAIN_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        logger.info("監査ログを開始しました: " + directory.toAbsolutePath());
+    }
+
+    /**
+     * 残りの記録を書き出してから閉じる
+     */
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        writer.execute(() -> {
+            drain();
+            closeFile();
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("監査ログの書き込みが時間内に終わりませんでした。");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        ring = null;
+    }
+
+    /**
+     * 記録する（任意のスレッドから呼び出し可能）。監査ログが無効の場合は何もしない
+     */
+    public void record(AuditType type, UUID player, String name, InetAddress address, String reason) {
+        AuditRing<AuditRecord> current = ring;
+        if (current == null) {
+            return;
+        }
+        AuditRecord record = new AuditRecord(System.currentTimeMillis(), type, player, name,
+                address != null ? address.getHostAddress() : null, reason);
+        if (!current.offer(record)) {
+            metrics.recordAuditDropped();
+        }
+    }
+
+    /**
+     * オンラインのプレイヤーについて記録する
+     */
+    public void record(AuditType type, Player player, String reason) {
+        if (ring == null) {
+            return;
+        }
+        InetSocketAddress address = player.getAddress();
+        record(type, player.getUniqueId(), player.getName(), address != null ? address.getAddress() : null, reason);
+    }
+
+    /**
+     * プレイヤーに関係しない出来事（状態の切り替えなど）を記録する
+     *
+     * @param actor コマンドの実行者名など（なければ null）
+     */
+    public void recordEvent(AuditType type, String actor, String reason) {
+        record(type, null, actor, null, reason);
+    }
+
+    /**
+     * バッファの記録をファイルに書き出す（書き込みスレッド）
+     */
+    private void drain() {
+        AuditRing<AuditRecord> current = ring;
+        if (current == null) {
+            return;
+        }
+        ZoneId zone = configManager.snapshot().timezone();
+        try {
+            int drained;
+            do {
+                drained = current.drain(record -> write(record, zone), DRAIN_BATCH);
+            } while (drained == DRAIN_BATCH);
+            if (out != null) {
+                out.flush();
+            }
+        } catch (UncheckedWriteException e) {
+            logger.warning("監査ログの書き込みに失敗しました: " + e.getCause().getMessage());
+            closeFile();
+        } catch (IOException e) {
+            logger.warning("監査ログの書き込みに失敗しました: " + e.getMessage());
+            closeFile();
+        }
+
+        long dropped = metrics.getAuditDropped();
+        if (dropped != droppedReported) {
+            logger.warning("監査ログのバッファが満杯のため、" + (dropped - droppedReported) + " 件の記録を破棄しました。");
+            droppedReported = dropped;
+        }
+    }
+
+    private void write(AuditRecord record, ZoneId zone) {
+        ZonedDateTime time = Instant.ofEpochMilli(record.timeMillis()).atZone(zone);
+        String line = TIME_FORMAT.format(time)
+                + '\t' + record.type().name()
+                + '\t' + field(record.player() != null ? record.player().toString() : null)
+                + '\t' + field(record.name())
+                + '\t' + field(record.address())
+                + '\t' + field(record.reason())
+                + '\n';
+        try {
+            rotateIfNeeded(time.toLocalDate());
+            out.write(line);
+            fileBytes += line.getBytes(StandardCharsets.UTF_8).length;
+        } catch (IOException e) {
+            throw new UncheckedWriteException(e);
+        }
+    }
+
+    /**
+     * 日付が変わったか、サイズの上限を超えていれば次のファイルに切り替える
+     */
+    private void rotateIfNeeded(LocalDate date) throws IOException {
+        if (out != null && date.equals(fileDate) && fileBytes < maxFileBytes) {
+            return;
+        }
+        closeFile();
+        Files.createDirectories(directory);
+
+        Path path = directory.resolve("audit-" + date + ".log");
+        if (Files.exists(path) && Files.size(path) >= maxFileBytes) {
+            // サイズの上限による切り替え: 現在のファイルを空いている番号に退避する
+            int index = 1;
+            while (Files.exists(directory.resolve("audit-" + date + "." + index + ".log"))) {
+                index++;
+            }
+            Files.move(path, directory.resolve("audit-" + date + "." + index + ".log"));
+        }
+        fileDate = date;
+        fileBytes = Files.exists(path) ? Files.size(path) : 0L;
+        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeFile() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warning("監査ログを閉じられませんでした: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    /**
+     * タブ・改行を含む値を 1 行に収める
+     */
+    private static String field(String value) {
+        if (value == null) {
+            return "-";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * ラムダ内の書き込みエラーを drain に伝えるための例外
+     */
+    private static final class UncheckedWriteException extends RuntimeException {
+        UncheckedWriteException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package dev.timegateplugin.timegate.audit;
+
+import java.util.UUID;
+
+/**
+ * 監査ログの 1 件
+ *
+ * @param timeMillis 発生時刻（エポックミリ秒）
+ * @param type       種類
+ * @param player     対象プレイヤーの UUID（プレイヤーに関係しない場合は null）
+ * @param name       対象プレイヤー名、またはコマンドの実行者名（なければ null）
+ * @param address    接続元 IP アドレス（なければ null）
+ * @param reason     理由・詳細
+ */
+public record AuditRecord(long timeMillis, AuditType type, UUID player, String name, String address, String reason) {
+}
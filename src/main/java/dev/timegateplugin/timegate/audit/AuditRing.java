@@ -0,0 +1,87 @@
+package dev.timegateplugin.timegate.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 複数の書き込み側と 1 つの読み出し側のための、ロックを使わない固定長のリングバッファ
+ * <p>
+ * 各スロットにシーケンス番号を持たせ、書き込み側は末尾位置を CAS で確保してから要素を書き、
+ * シーケンス番号を進めて読み出し側に公開する。満杯の場合は待たずに諦めて false を返すため、
+ * メインスレッドや netty スレッドが書き込みで止まることはない。
+ */
+public class AuditRing<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    /** スロットごとのシーケンス番号。pos なら書き込み可能、pos + 1 なら読み出し可能 */
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /** 読み出し位置（読み出しスレッドのみ） */
+    private long head;
+
+    /**
+     * @param capacity 容量（2 のべき乗に切り上げる）
+     */
+    public AuditRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 要素を追加する（任意のスレッドから呼び出し可能）
+     *
+     * @return 満杯で追加できなかった場合は false
+     */
+    public boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // 読み出しが 1 周遅れている: 満杯
+                return false;
+            } else {
+                // 他の書き込み側が先に確保した
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 読み出し可能な要素を順に取り出す（読み出しスレッドのみ）
+     *
+     * @param limit 取り出す最大件数
+     * @return 取り出した件数
+     */
+    public int drain(Consumer<T> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            T element = elements.get(index);
+            elements.lazySet(index, null);
+            sequences.set(index, head + mask + 1);
+            head++;
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+}
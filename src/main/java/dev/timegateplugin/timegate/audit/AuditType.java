@@ -0,0 +1,19 @@
+package dev.timegateplugin.timegate.audit;
+
+/**
+ * 監査ログに記録する出来事の種類
+ */
+public enum AuditType {
+    /** ログイン拒否 */
+    LOGIN_DENIED,
+    /** 閉鎖中のバイパス（権限・グループ）によるログイン */
+    BYPASS_LOGIN,
+    /** キック */
+    KICK,
+    /** オーバーライドの変更（コマンド・期限切れ・他サーバーからの共有） */
+    OVERRIDE,
+    /** ゲート状態の切り替え */
+    STATE_CHANGE,
+    /** バイパス許可リストの変更 */
+    BYPASS_LIST
+}
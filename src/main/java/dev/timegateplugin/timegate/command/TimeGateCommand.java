@@ -1,31 +1,70 @@
 package dev.timegateplugin.timegate.command;
 
+import dev.timegateplugin.timegate.access.BypassAllowlist;
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.audit.AuditLog;
+import dev.timegateplugin.timegate.audit.AuditType;
 import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
 import dev.timegateplugin.timegate.schedule.GateState;
 import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import dev.timegateplugin.timegate.schedule.ScheduleSimulator;
 import dev.timegateplugin.timegate.util.MessageUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabExecutor;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * /timegate コマンドの処理クラス
  */
 public class TimeGateCommand implements TabExecutor {
 
-    private static final List<String> SUBCOMMANDS = List.of("status", "open", "close", "auto", "reload");
+    private static final List<String> SUBCOMMANDS = List.of("status", "open", "close", "auto", "reload", "metrics",
+            "bypass", "simulate");
+    private static final List<String> BYPASS_ACTIONS = List.of("add", "remove", "list");
+
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.ofPattern("H:mm");
+    private static final DateTimeFormatter EXPIRY_FORMAT = DateTimeFormatter.ofPattern("M/d HH:mm");
+    /** 期限の指定が不正だったことを表す値 */
+    private static final Instant INVALID_EXPIRY = Instant.MIN;
+    /** シミュレーションできる日数の上限 */
+    private static final int MAX_SIMULATION_DAYS = 366;
+    /** シミュレーション結果のタイムラインとして表示する行数の上限 */
+    private static final int MAX_SIMULATION_LINES = 100;
 
     private final ScheduleManager scheduleManager;
     private final ConfigManager configManager;
+    private final GateMetrics metrics;
+    private final GroupResolver groupResolver;
+    private final BypassAllowlist allowlist;
+    private final AuditLog audit;
 
-    public TimeGateCommand(ScheduleManager scheduleManager, ConfigManager configManager) {
+    public TimeGateCommand(ScheduleManager scheduleManager, ConfigManager configManager, GateMetrics metrics,
+            GroupResolver groupResolver, BypassAllowlist allowlist, AuditLog audit) {
         this.scheduleManager = scheduleManager;
         this.configManager = configManager;
+        this.metrics = metrics;
+        this.groupResolver = groupResolver;
+        this.allowlist = allowlist;
+        this.audit = audit;
     }
 
     @Override
@@ -39,10 +78,13 @@ public class TimeGateCommand implements TabExecutor {
         String subCommand = args[0].toLowerCase();
         switch (subCommand) {
             case "status" -> handleStatus(sender);
-            case "open" -> handleOpen(sender);
-            case "close" -> handleClose(sender);
+            case "open" -> handleOpen(sender, args);
+            case "close" -> handleClose(sender, args);
             case "auto" -> handleAuto(sender);
             case "reload" -> handleReload(sender);
+            case "metrics" -> handleMetrics(sender);
+            case "bypass" -> handleBypass(sender, args);
+            case "simulate" -> handleSimulate(sender, args);
             default -> sendUsage(sender);
         }
 
@@ -53,18 +95,45 @@ public class TimeGateCommand implements TabExecutor {
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command,
             @NotNull String alias, @NotNull String[] args) {
         if (args.length == 1) {
-            List<String> completions = new ArrayList<>();
-            String input = args[0].toLowerCase();
-            for (String sub : SUBCOMMANDS) {
-                if (sub.startsWith(input)) {
-                    completions.add(sub);
+            return filter(SUBCOMMANDS, args[0]);
+        }
+        if (args.length == 2 && (args[0].equalsIgnoreCase("open") || args[0].equalsIgnoreCase("close"))
+                && "until".startsWith(args[1].toLowerCase())) {
+            return List.of("until");
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("simulate")) {
+            return filter(List.of("7", "30", "365"), args[1]);
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("bypass")) {
+            return filter(BYPASS_ACTIONS, args[1]);
+        }
+        if (args.length == 3 && args[0].equalsIgnoreCase("bypass")) {
+            List<String> candidates = new ArrayList<>();
+            if (args[1].equalsIgnoreCase("add")) {
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    candidates.add(player.getName());
+                }
+            } else if (args[1].equalsIgnoreCase("remove")) {
+                for (UUID uuid : allowlist.list()) {
+                    candidates.add(displayName(uuid));
                 }
             }
-            return completions;
+            return filter(candidates, args[2]);
         }
         return List.of();
     }
 
+    private static List<String> filter(List<String> candidates, String input) {
+        List<String> completions = new ArrayList<>();
+        String prefix = input.toLowerCase();
+        for (String candidate : candidates) {
+            if (candidate.toLowerCase().startsWith(prefix)) {
+                completions.add(candidate);
+            }
+        }
+        return completions;
+    }
+
     private void handleStatus(CommandSender sender) {
         GateState state = scheduleManager.getCurrentState();
         ScheduleManager.OverrideMode override = scheduleManager.getOverrideMode();
@@ -82,35 +151,262 @@ public class TimeGateCommand implements TabExecutor {
         sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <gray>ステータス"));
         sender.sendMessage(MessageUtil.parse("<gray>状態: " + stateStr));
         sender.sendMessage(MessageUtil.parse("<gray>モード: " + overrideStr));
+
+        Instant expiresAt = scheduleManager.getOverrideExpiresAt();
+        if (expiresAt != null) {
+            ZoneId zone = configManager.snapshot().timezone();
+            sender.sendMessage(MessageUtil.parse("<gray>期限: <white>"
+                    + EXPIRY_FORMAT.format(expiresAt.atZone(zone)) + "<gray> まで"));
+        }
+        if (scheduleManager.isIdle()) {
+            sender.sendMessage(MessageUtil.parse("<gray>省電力モード: <aqua>有効"));
+        }
+    }
+
+    private void handleOpen(CommandSender sender, String[] args) {
+        Instant expiresAt = parseExpiry(sender, args);
+        if (expiresAt == INVALID_EXPIRY) {
+            return;
+        }
+        scheduleManager.setOverrideMode(ScheduleManager.OverrideMode.FORCE_OPEN, expiresAt, sender.getName());
+        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <green>強制開放モードに切り替えました。"
+                + expirySuffix(expiresAt)));
     }
 
-    private void handleOpen(CommandSender sender) {
-        scheduleManager.setOverrideMode(ScheduleManager.OverrideMode.FORCE_OPEN);
-        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <green>強制開放モードに切り替えました。"));
+    private void handleClose(CommandSender sender, String[] args) {
+        Instant expiresAt = parseExpiry(sender, args);
+        if (expiresAt == INVALID_EXPIRY) {
+            return;
+        }
+        scheduleManager.setOverrideMode(ScheduleManager.OverrideMode.FORCE_CLOSED, expiresAt, sender.getName());
+        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <red>強制閉鎖モードに切り替えました。"
+                + expirySuffix(expiresAt)));
+    }
+
+    /**
+     * {@code open/close [until] H:mm} の期限を解釈する。
+     * 指定時刻が現在より前であれば翌日のその時刻とする
+     *
+     * @return 期限。指定がなければ null、不正な場合はメッセージを送って {@link #INVALID_EXPIRY}
+     */
+    private Instant parseExpiry(CommandSender sender, String[] args) {
+        int index = args.length > 1 && args[1].equalsIgnoreCase("until") ? 2 : 1;
+        if (args.length <= index) {
+            return index == 2 ? invalidExpiry(sender) : null;
+        }
+
+        LocalTime time;
+        try {
+            time = LocalTime.parse(args[index], UNTIL_FORMAT);
+        } catch (DateTimeParseException e) {
+            return invalidExpiry(sender);
+        }
+
+        ZonedDateTime now = ZonedDateTime.ofInstant(scheduleManager.clock().instant(),
+                configManager.snapshot().timezone());
+        ZonedDateTime until = now.with(time).truncatedTo(ChronoUnit.MINUTES);
+        if (!until.isAfter(now)) {
+            until = until.plusDays(1).with(time);
+        }
+        return until.toInstant();
     }
 
-    private void handleClose(CommandSender sender) {
-        scheduleManager.setOverrideMode(ScheduleManager.OverrideMode.FORCE_CLOSED);
-        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <red>強制閉鎖モードに切り替えました。"));
+    private static Instant invalidExpiry(CommandSender sender) {
+        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <red>期限は H:mm 形式で指定してください（例: until 18:00）"));
+        return INVALID_EXPIRY;
+    }
+
+    private String expirySuffix(Instant expiresAt) {
+        if (expiresAt == null) {
+            return "";
+        }
+        ZoneId zone = configManager.snapshot().timezone();
+        return " <gray>(" + EXPIRY_FORMAT.format(expiresAt.atZone(zone)) + " まで)";
     }
 
     private void handleAuto(CommandSender sender) {
-        scheduleManager.setOverrideMode(ScheduleManager.OverrideMode.NONE);
+        scheduleManager.setOverrideMode(ScheduleManager.OverrideMode.NONE, null, sender.getName());
         sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <aqua>自動モードに切り替えました。スケジュールに従います。"));
     }
 
     private void handleReload(CommandSender sender) {
-        configManager.reload();
-        scheduleManager.reevaluate();
-        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <green>設定をリロードしました。"));
+        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <gray>設定を読み込んでいます..."));
+        configManager.reloadAsync().thenAccept(result -> {
+            if (result.applied()) {
+                scheduleManager.reevaluate();
+                sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <green>設定をリロードしました。"));
+                for (String notice : result.notices()) {
+                    sender.sendMessage(MessageUtil.parse("<gray>- <yellow>" + MessageUtil.escape(notice)));
+                }
+                return;
+            }
+            sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <red>設定に問題があるため、現在の設定を維持します:"));
+            for (String problem : result.problems()) {
+                sender.sendMessage(MessageUtil.parse("<gray>- <white>" + MessageUtil.escape(problem)));
+            }
+        });
+    }
+
+    private void handleMetrics(CommandSender sender) {
+        long stateSeconds = (System.currentTimeMillis() - metrics.getStateSinceMillis()) / 1000;
+
+        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <gray>メトリクス"));
+        sender.sendMessage(MessageUtil.parse("<gray>Ping: <white>" + metrics.getPingsServed()
+                + " <gray>件 (平均 <white>" + String.format("%.1f", metrics.getAveragePingMicros()) + "<gray> µs)"));
+        sender.sendMessage(MessageUtil.parse("<gray>ログイン許可: <white>" + metrics.getLoginsAllowed()
+                + " <gray>(バイパス <white>" + metrics.getBypassLogins() + "<gray>) / 拒否: <white>"
+                + metrics.getLoginsDenied()));
+        sender.sendMessage(MessageUtil.parse("<gray>キック: <white>" + metrics.getKicksIssued()
+                + " <gray>/ 告知: <white>" + metrics.getWarningsSent()
+                + " <gray>/ 閉鎖前の保存: <white>" + metrics.getPreCloseSaveMillis() + "<gray> ms"));
+        sender.sendMessage(MessageUtil.parse("<gray>状態遷移: <white>" + metrics.getTransitions()
+                + " <gray>回 / 現在の状態の継続: <white>" + stateSeconds / 60 + "<gray> 分"));
+    }
+
+    /**
+     * {@code simulate <日数>}: 現在の設定のスケジュールを現在時刻から再生し、切り替えのタイムラインと要確認点を表示する
+     */
+    private void handleSimulate(CommandSender sender, String[] args) {
+        int days;
+        try {
+            days = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        } catch (NumberFormatException e) {
+            days = -1;
+        }
+        if (days < 1 || days > MAX_SIMULATION_DAYS) {
+            sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <red>日数は 1〜"
+                    + MAX_SIMULATION_DAYS + " で指定してください（例: /timegate simulate 30）"));
+            return;
+        }
+
+        ConfigSnapshot config = configManager.snapshot();
+        ScheduleSimulator.Result result = ScheduleSimulator.simulate(config, scheduleManager.clock().instant(),
+                Duration.ofDays(days));
+
+        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <gray>シミュレーション: <white>"
+                + days + "<gray> 日分 (<white>" + String.format("%.1f", result.elapsedNanos() / 1_000_000d)
+                + "<gray> ms)"));
+        sender.sendMessage(MessageUtil.parse("<gray>開放: <white>" + result.count(ScheduleSimulator.EventType.OPEN)
+                + " <gray>回 / 閉鎖: <white>" + result.count(ScheduleSimulator.EventType.CLOSE)
+                + " <gray>回 / 告知: <white>" + result.count(ScheduleSimulator.EventType.WARNING) + " <gray>回"));
+        if (scheduleManager.getOverrideMode() != ScheduleManager.OverrideMode.NONE) {
+            sender.sendMessage(MessageUtil.parse("<yellow>現在のオーバーライドは考慮せず、スケジュールのみで再生しています。"));
+        }
+
+        if (result.findings().isEmpty()) {
+            sender.sendMessage(MessageUtil.parse("<gray>重なり・長さ 0 の開放時間は見つかりませんでした。"));
+        } else {
+            sender.sendMessage(MessageUtil.parse("<yellow>要確認: <white>" + result.findings().size() + "<yellow> 件"));
+            for (String finding : result.findings()) {
+                sender.sendMessage(MessageUtil.parse("<gray>- <white>" + MessageUtil.escape(finding)));
+            }
+        }
+
+        int shown = 0;
+        int hidden = 0;
+        for (ScheduleSimulator.Event event : result.events()) {
+            if (event.type() == ScheduleSimulator.EventType.WARNING) {
+                continue;
+            }
+            if (shown >= MAX_SIMULATION_LINES) {
+                hidden++;
+                continue;
+            }
+            String group = event.group() >= 0
+                    ? " <gray>[" + MessageUtil.escape(config.groups().get(event.group()).name()) + "]"
+                    : "";
+            sender.sendMessage(MessageUtil.parse("<gray>" + ScheduleSimulator.format(event.at(), config.timezone())
+                    + (event.type() == ScheduleSimulator.EventType.OPEN ? " <green>開放" : " <red>閉鎖") + group));
+            shown++;
+        }
+        if (hidden > 0) {
+            sender.sendMessage(MessageUtil.parse("<gray>... ほか <white>" + hidden
+                    + "<gray> 件（日数を短くするとすべて表示されます）"));
+        }
+    }
+
+    /**
+     * {@code bypass add|remove <プレイヤー名|UUID>} と {@code bypass list}
+     */
+    private void handleBypass(CommandSender sender, String[] args) {
+        String action = args.length > 1 ? args[1].toLowerCase() : "";
+        if (action.equals("list")) {
+            List<UUID> uuids = allowlist.list();
+            sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <gray>バイパス許可リスト (<white>"
+                    + uuids.size() + "<gray> 人)"));
+            for (UUID uuid : uuids) {
+                sender.sendMessage(MessageUtil.parse("<gray>- <white>" + MessageUtil.escape(displayName(uuid))
+                        + " <dark_gray>" + uuid));
+            }
+            return;
+        }
+        if (!action.equals("add") && !action.equals("remove") || args.length < 3) {
+            sender.sendMessage(MessageUtil.parse("<yellow>" + MessageUtil.escape("/timegate bypass add|remove <プレイヤー名|UUID>")
+                    + " <gray>/ <yellow>/timegate bypass list"));
+            return;
+        }
+
+        UUID uuid = resolveTarget(args[2]);
+        if (uuid == null) {
+            sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <red>プレイヤー <white>"
+                    + MessageUtil.escape(args[2]) + "<red> が見つかりません。一度も参加していない場合は UUID で指定してください。"));
+            return;
+        }
+        String name = MessageUtil.escape(displayName(uuid));
+        boolean add = action.equals("add");
+        boolean changed = add ? allowlist.add(uuid) : allowlist.remove(uuid);
+        if (!changed) {
+            sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <gray>" + name
+                    + (add ? " はすでに許可リストに含まれています。" : " は許可リストに含まれていません。")));
+            return;
+        }
+
+        // キャッシュ済みの判定結果に反映する
+        groupResolver.invalidate(uuid);
+        audit.recordEvent(AuditType.BYPASS_LIST, sender.getName(), action + " " + uuid);
+        sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <green>" + name
+                + (add ? " をバイパス許可リストに追加しました。" : " をバイパス許可リストから削除しました。")));
+    }
+
+    /**
+     * プレイヤー名または UUID から UUID を求める。
+     * 名前はオンラインのプレイヤーとサーバーのキャッシュのみを引き、外部への問い合わせは行わない
+     *
+     * @return 見つからなければ null
+     */
+    private static UUID resolveTarget(String input) {
+        if (input.length() == 36) {
+            try {
+                return UUID.fromString(input);
+            } catch (IllegalArgumentException ignored) {
+                // 名前として扱う
+            }
+        }
+        Player online = Bukkit.getPlayerExact(input);
+        if (online != null) {
+            return online.getUniqueId();
+        }
+        OfflinePlayer cached = Bukkit.getOfflinePlayerIfCached(input);
+        return cached != null ? cached.getUniqueId() : null;
+    }
+
+    /**
+     * 表示用の名前。サーバーが名前を知らなければ UUID
+     */
+    private static String displayName(UUID uuid) {
+        String name = Bukkit.getOfflinePlayer(uuid).getName();
+        return name != null ? name : uuid.toString();
     }
 
     private void sendUsage(CommandSender sender) {
         sender.sendMessage(MessageUtil.parse("<gold><bold>TimeGate</bold></gold> <gray>使い方:"));
         sender.sendMessage(MessageUtil.parse("<yellow>/timegate status <gray>- 現在の状態を表示"));
-        sender.sendMessage(MessageUtil.parse("<yellow>/timegate open <gray>- 強制開放"));
-        sender.sendMessage(MessageUtil.parse("<yellow>/timegate close <gray>- 強制閉鎖"));
+        sender.sendMessage(MessageUtil.parse("<yellow>/timegate open [until H:mm] <gray>- 強制開放"));
+        sender.sendMessage(MessageUtil.parse("<yellow>/timegate close [until H:mm] <gray>- 強制閉鎖"));
         sender.sendMessage(MessageUtil.parse("<yellow>/timegate auto <gray>- 自動モードに戻す"));
         sender.sendMessage(MessageUtil.parse("<yellow>/timegate reload <gray>- 設定をリロード"));
+        sender.sendMessage(MessageUtil.parse("<yellow>/timegate metrics <gray>- メトリクスを表示"));
+        sender.sendMessage(MessageUtil.parse("<yellow>/timegate bypass add|remove|list [プレイヤー] <gray>- バイパス許可リストを編集"));
+        sender.sendMessage(MessageUtil.parse("<yellow>/timegate simulate [日数] <gray>- スケジュールを先の日付まで再生して確認"));
     }
 }
@@ -0,0 +1,44 @@
+package dev.timegateplugin.timegate.config;
+
+import dev.timegateplugin.timegate.util.MessageTemplate;
+import net.kyori.adventure.text.Component;
+
+import java.util.List;
+
+/**
+ * 開放直後のログイン集中を抑える入場制御の設定
+ *
+ * @param enabled         入場制御を有効にするか
+ * @param windowSeconds   開放後、入場制御を行う秒数
+ * @param loginsPerSecond 1 秒あたりに受け付けるログイン数
+ * @param burst           連続して受け付けられるログイン数
+ * @param maxPlayers      制御期間中に受け付けるログインの上限（0 で無制限）
+ * @param reservedSlots   上限のうちバイパス権限を持つプレイヤー用に確保する枠
+ * @param retryMessage    再試行を促すメッセージ ({seconds} が待ち秒数に置換される)
+ * @param retryComponents 待ち秒数ごとにパース済みのメッセージ（添字 = 秒数）
+ */
+public record AdmissionSettings(
+        boolean enabled,
+        int windowSeconds,
+        double loginsPerSecond,
+        int burst,
+        int maxPlayers,
+        int reservedSlots,
+        MessageTemplate retryMessage,
+        List<Component> retryComponents) {
+
+    /** 事前にパースしておく待ち秒数の上限（これを超える場合はこの値で表示する） */
+    public static final int MAX_RETRY_SECONDS = 60;
+
+    public AdmissionSettings {
+        retryComponents = List.copyOf(retryComponents);
+    }
+
+    /**
+     * 待ち秒数に対応するパース済みメッセージを返す
+     */
+    public Component retryComponent(long seconds) {
+        int index = (int) Math.max(1, Math.min(seconds, MAX_RETRY_SECONDS));
+        return retryComponents.get(index);
+    }
+}
@@ -0,0 +1,14 @@
+package dev.timegateplugin.timegate.config;
+
+/**
+ * 監査ログの設定
+ *
+ * @param enabled       監査ログを記録するか
+ * @param maxFileSizeMb 1 ファイルの最大サイズ（MB）。超えると次のファイルに切り替える
+ * @param bufferSize    書き出し待ちの記録を保持するバッファの件数。満杯の間の記録は破棄する
+ */
+public record AuditSettings(
+        boolean enabled,
+        int maxFileSizeMb,
+        int bufferSize) {
+}
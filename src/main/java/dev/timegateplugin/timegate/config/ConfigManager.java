@@ -1,93 +1,468 @@
 package dev.timegateplugin.timegate.config;
 
+import dev.timegateplugin.timegate.access.AccessGroup;
+import dev.timegateplugin.timegate.schedule.CompiledSchedule;
+import dev.timegateplugin.timegate.schedule.DateException;
+import dev.timegateplugin.timegate.schedule.ExceptionIndex;
+import dev.timegateplugin.timegate.schedule.GateState;
+import dev.timegateplugin.timegate.schedule.RecurrenceRule;
+import dev.timegateplugin.timegate.schedule.RuleIndex;
 import dev.timegateplugin.timegate.schedule.ScheduleEntry;
+import dev.timegateplugin.timegate.schedule.ScheduleIndex;
+import dev.timegateplugin.timegate.schedule.ScheduleRule;
+import dev.timegateplugin.timegate.util.MessageTemplate;
+import dev.timegateplugin.timegate.util.MessageUtil;
+import dev.timegateplugin.timegate.util.Placeholder;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.GameRule;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
  * config.yml の読み込み・管理クラス
+ * <p>
+ * 起動時は同期的に読み込み、問題のある項目は警告を出してデフォルト値で補う。
+ * 実行中の再読み込み（{@link #reloadAsync()}）はバックグラウンドスレッドで読み込み・検証し、
+ * 問題が 1 つもない場合のみメインスレッドで差し替える。
+ * 期限切れの繰り返し規則のように、時間の経過だけで生じる事項は問題ではなく注意として扱い、差し替えは妨げない。
  */
 public class ConfigManager {
 
+    /**
+     * 非同期の再読み込み結果
+     *
+     * @param snapshot 差し替えた設定（問題があり差し替えなかった場合は null）
+     * @param problems 検出した問題の一覧
+     * @param notices  差し替えは妨げない注意の一覧
+     */
+    public record ReloadResult(ConfigSnapshot snapshot, List<String> problems, List<String> notices) {
+
+        public ReloadResult {
+            problems = List.copyOf(problems);
+            notices = List.copyOf(notices);
+        }
+
+        /**
+         * 設定を差し替えたかどうか
+         */
+        public boolean applied() {
+            return snapshot != null;
+        }
+    }
+
     private final JavaPlugin plugin;
     private final Logger logger;
+    private final Clock clock;
+    private final ExecutorService loader;
+    private final Executor mainThread;
+
+    private final AtomicReference<ConfigSnapshot> current = new AtomicReference<>();
+    private final AtomicInteger generation = new AtomicInteger();
 
-    private List<ScheduleEntry> scheduleEntries;
-    private boolean kickOnClose;
-    private String kickMessage;
-    private String denyMessage;
-    private String motdOpen;
-    private String motdClosed;
-    private List<Integer> warningIntervals;
-    private String warningMessage;
-    private ZoneId timezone;
-
-    public ConfigManager(JavaPlugin plugin) {
+    /**
+     * @param clock 繰り返し規則のコンパイル時に「今日」を決める時計
+     */
+    public ConfigManager(JavaPlugin plugin, Clock clock) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
+        this.clock = clock;
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-ConfigLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.mainThread = task -> {
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
         reload();
     }
 
     /**
-     * config.yml を再読み込みする
+     * config.yml を同期的に再読み込みし、新しいスナップショットに差し替える（起動時用）。
+     * 問題のある項目は警告を出したうえでデフォルト値を使う
      */
     public void reload() {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
-        FileConfiguration config = plugin.getConfig();
 
-        // スケジュール読み込み
-        scheduleEntries = new ArrayList<>();
+        List<String> problems = new ArrayList<>();
+        List<String> notices = new ArrayList<>();
+        ConfigSnapshot snapshot = build(plugin.getConfig(), problems, notices);
+        for (String problem : problems) {
+            logger.warning(problem + " — 該当項目を無視またはデフォルト値を使用します。");
+        }
+        apply(snapshot, notices);
+    }
+
+    /**
+     * config.yml をバックグラウンドスレッドで読み込み・検証する
+     * <p>
+     * YAML の構文エラーや項目の問題が 1 つでもあれば現在の設定を維持する。
+     * 問題がなければメインスレッドで設定を差し替え、その後に返り値の Future が完了する
+     * （後続処理はメインスレッドで実行される）。
+     *
+     * @return 再読み込み結果
+     */
+    public CompletableFuture<ReloadResult> reloadAsync() {
+        return CompletableFuture
+                .supplyAsync(this::load, loader)
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    return new ReloadResult(null, List.of("設定の読み込み中にエラーが発生しました: " + cause), List.of());
+                })
+                .thenApplyAsync(result -> {
+                    if (result.applied()) {
+                        apply(result.snapshot(), result.notices());
+                    }
+                    return result;
+                }, mainThread);
+    }
+
+    /**
+     * 読み込みスレッドを停止する
+     */
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * config.yml のパス
+     */
+    public Path configPath() {
+        return plugin.getDataFolder().toPath().resolve("config.yml");
+    }
+
+    /**
+     * config.yml を読み込み、検証する（読み込みスレッド）
+     */
+    private ReloadResult load() {
+        File file = configPath().toFile();
+        if (!file.exists()) {
+            plugin.saveDefaultConfig();
+        }
+
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.load(file);
+        } catch (IOException | InvalidConfigurationException e) {
+            return new ReloadResult(null, List.of("config.yml を読み込めませんでした: " + e.getMessage()), List.of());
+        }
+
+        List<String> problems = new ArrayList<>();
+        List<String> notices = new ArrayList<>();
+        ConfigSnapshot snapshot = build(config, problems, notices);
+        return new ReloadResult(problems.isEmpty() ? snapshot : null, problems, notices);
+    }
+
+    /**
+     * 設定を差し替え、注意があればログに出す
+     */
+    private void apply(ConfigSnapshot snapshot, List<String> notices) {
+        current.set(snapshot);
+        for (String notice : notices) {
+            logger.warning(notice);
+        }
+        logger.info("設定を読み込みました。スケジュール数: " + snapshot.scheduleEntries().size()
+                + ", 規則数: " + snapshot.scheduleRules().size()
+                + ", 例外日数: " + snapshot.exceptions().size()
+                + ", グループ数: " + snapshot.groups().size()
+                + ", タイムゾーン: " + snapshot.timezone().getId());
+    }
+
+    /**
+     * 読み込んだ YAML から設定スナップショットを組み立てる（任意のスレッドから呼び出し可能）
+     *
+     * @param problems 検出した問題の追加先。問題のある項目は無視またはデフォルト値で補う
+     * @param notices  差し替えを妨げない注意の追加先
+     */
+    private ConfigSnapshot build(FileConfiguration config, List<String> problems, List<String> notices) {
+        // タイムゾーン（繰り返し規則の「今日」に使うため先に読む）
+        ZoneId timezone;
+        String tz = config.getString("timezone", "");
+        if (tz != null && !tz.isEmpty()) {
+            try {
+                timezone = ZoneId.of(tz);
+            } catch (Exception e) {
+                problems.add("無効なタイムゾーン: " + tz);
+                timezone = ZoneId.systemDefault();
+            }
+        } else {
+            timezone = ZoneId.systemDefault();
+        }
+        LocalDate today = LocalDate.now(clock.withZone(timezone));
+
+        // スケジュール読み込み（曜日指定のエントリと、繰り返し規則のエントリ）
+        List<ScheduleEntry> scheduleEntries = new ArrayList<>();
+        List<ScheduleRule> scheduleRules = new ArrayList<>();
         List<?> scheduleList = config.getList("schedule");
         if (scheduleList != null) {
             for (Object obj : scheduleList) {
                 if (obj instanceof Map<?, ?> map) {
                     try {
-                        ScheduleEntry entry = parseScheduleEntry(map);
-                        scheduleEntries.add(entry);
+                        if (map.get("rule") != null) {
+                            scheduleRules.add(parseScheduleRule(map));
+                        } else {
+                            scheduleEntries.add(parseScheduleEntry(map));
+                        }
+                    } catch (Exception e) {
+                        problems.add("スケジュールエントリの読み込みに失敗しました: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        // 日付指定の例外
+        List<DateException> exceptions = new ArrayList<>();
+        List<?> exceptionList = config.getList("exceptions");
+        if (exceptionList != null) {
+            for (Object obj : exceptionList) {
+                if (obj instanceof Map<?, ?> map) {
+                    try {
+                        exceptions.add(parseDateException(map));
                     } catch (Exception e) {
-                        logger.warning("スケジュールエントリの読み込みに失敗しました: " + e.getMessage());
+                        problems.add("例外日の読み込みに失敗しました: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        CompiledSchedule schedule = new CompiledSchedule(ScheduleIndex.compile(scheduleEntries),
+                compileRules(scheduleRules, "", today, notices, 0), ExceptionIndex.compile(exceptions));
+
+        // アクセスグループ（記載順に判定し、最初に権限を持つグループに所属）
+        List<AccessGroup> groups = new ArrayList<>();
+        List<?> groupList = config.getList("groups");
+        if (groupList != null) {
+            for (Object obj : groupList) {
+                if (obj instanceof Map<?, ?> map) {
+                    try {
+                        groups.add(parseAccessGroup(map, scheduleEntries, scheduleRules, exceptions, today,
+                                problems, notices));
+                    } catch (Exception e) {
+                        problems.add("アクセスグループの読み込みに失敗しました: " + e.getMessage());
                     }
                 }
             }
         }
 
         // その他の設定
-        kickOnClose = config.getBoolean("kick-on-close", true);
-        kickMessage = config.getString("kick-message", "<red>サーバーは現在閉鎖中です。");
-        denyMessage = config.getString("deny-message", "<red>サーバーは現在閉鎖中です。");
-        motdOpen = config.getString("motd.open", "<green>Server is OPEN");
-        motdClosed = config.getString("motd.closed", "<red>Server is CLOSED");
+        boolean kickOnClose = config.getBoolean("kick-on-close", true);
+        MessageTemplate kickMessage = MessageUtil.compile(
+                config.getString("kick-message", "<red>サーバーは現在閉鎖中です。"));
+        int kickDrainPlayersPerTick = config.getInt("kick-drain.players-per-tick", 5);
+        int kickDrainSpreadSeconds = config.getInt("kick-drain.spread-seconds", 10);
+        MessageTemplate denyMessage = MessageUtil.compile(
+                config.getString("deny-message", "<red>サーバーは現在閉鎖中です。"));
+        boolean asyncPreLoginDeny = config.getBoolean("async-prelogin-deny", true);
+        MessageTemplate motdOpen = MessageUtil.compile(config.getString("motd.open", "<green>Server is OPEN"));
+        MessageTemplate motdClosed = MessageUtil.compile(config.getString("motd.closed", "<red>Server is CLOSED"));
 
         // 閉鎖前告知設定
         List<Integer> defaultIntervals = List.of(30, 15, 5, 1);
-        warningIntervals = config.getIntegerList("warning.intervals");
+        List<Integer> warningIntervals = config.getIntegerList("warning.intervals");
         if (warningIntervals.isEmpty()) {
             warningIntervals = defaultIntervals;
         }
-        warningMessage = config.getString("warning.message",
-                "<gold><bold>⚠ 告知</bold></gold> <yellow>サーバーは <red>{minutes}分後</red> に閉鎖されます。");
+        MessageTemplate warningMessage = MessageUtil.compile(config.getString("warning.message",
+                "<gold><bold>⚠ 告知</bold></gold> <yellow>サーバーは <red>{minutes}分後</red> に閉鎖されます。"));
 
-        // タイムゾーン
-        String tz = config.getString("timezone", "");
-        if (tz != null && !tz.isEmpty()) {
-            try {
-                timezone = ZoneId.of(tz);
-            } catch (Exception e) {
-                logger.warning("無効なタイムゾーン: " + tz + " — システムデフォルトを使用します。");
-                timezone = ZoneId.systemDefault();
+        // メトリクス
+        boolean metricsHttpEnabled = config.getBoolean("metrics.http.enabled", false);
+        int metricsHttpPort = config.getInt("metrics.http.port", 9465);
+
+        // 閉鎖前カウントダウン
+        CountdownSettings countdown = new CountdownSettings(
+                config.getBoolean("countdown.enabled", false),
+                Math.max(1, config.getInt("countdown.minutes", 5)),
+                MessageUtil.compile(config.getString("countdown.title", "<red>閉鎖まで <white>{time}</white>")),
+                parseEnum(BossBar.Color.class, config.getString("countdown.color", "RED"), BossBar.Color.RED,
+                        problems),
+                parseEnum(BossBar.Overlay.class, config.getString("countdown.overlay", "PROGRESS"),
+                        BossBar.Overlay.PROGRESS, problems));
+
+        // 開放直後の入場制御
+        MessageTemplate retryMessage = MessageUtil.compile(config.getString("admission.retry-message",
+                "<yellow>ただいま混雑しています。<white>{seconds}</white> 秒後に再接続してください。"));
+        List<Component> retryComponents = new ArrayList<>(AdmissionSettings.MAX_RETRY_SECONDS + 1);
+        for (int seconds = 0; seconds <= AdmissionSettings.MAX_RETRY_SECONDS; seconds++) {
+            retryComponents.add(retryMessage.render(Placeholder.SECONDS, String.valueOf(seconds)));
+        }
+        AdmissionSettings admission = new AdmissionSettings(
+                config.getBoolean("admission.enabled", false),
+                Math.max(0, config.getInt("admission.window-seconds", 60)),
+                config.getDouble("admission.logins-per-second", 5.0),
+                Math.max(1, config.getInt("admission.burst", 10)),
+                Math.max(0, config.getInt("admission.max-players", 0)),
+                Math.max(0, config.getInt("admission.reserved-slots", 0)),
+                retryMessage,
+                retryComponents);
+        if (admission.loginsPerSecond() <= 0) {
+            problems.add("admission.logins-per-second には正の値を指定してください: " + admission.loginsPerSecond());
+        }
+        if (admission.maxPlayers() > 0 && admission.reservedSlots() >= admission.maxPlayers()) {
+            problems.add("admission.reserved-slots は max-players より小さくしてください: "
+                    + admission.reservedSlots());
+        }
+
+        // 開放前のウォームアップ
+        WarmupSettings warmup = new WarmupSettings(
+                config.getBoolean("warmup.enabled", false),
+                Math.max(1, config.getInt("warmup.minutes", 5)),
+                config.getString("warmup.world", ""),
+                Math.max(0, config.getInt("warmup.radius", 8)),
+                Math.max(1, config.getInt("warmup.max-concurrent", 8)),
+                Math.max(0, config.getInt("warmup.release-after-seconds", 300)));
+
+        // 閉鎖前の保存
+        PreCloseSaveSettings preCloseSave = new PreCloseSaveSettings(
+                config.getBoolean("pre-close-save.enabled", false),
+                Math.max(1, config.getInt("pre-close-save.minutes", 1)),
+                Math.max(1, config.getInt("pre-close-save.players-per-tick", 5)),
+                Math.max(1, config.getInt("pre-close-save.world-interval-ticks", 20)));
+
+        // 閉鎖中の省電力モード
+        IdleSettings idle = new IdleSettings(
+                config.getBoolean("idle.enabled", false),
+                Math.max(0, config.getInt("idle.view-distance", 4)),
+                Math.max(0, config.getInt("idle.simulation-distance", 2)),
+                config.getBoolean("idle.unload-chunks", true),
+                parseGameRules(config.getConfigurationSection("idle.gamerules"), problems),
+                config.getStringList("idle.commands.on-idle"),
+                config.getStringList("idle.commands.on-resume"));
+
+        // 1 日あたりのプレイ時間の上限
+        PlaytimeSettings playtime = new PlaytimeSettings(
+                config.getBoolean("playtime.enabled", false),
+                config.getInt("playtime.daily-minutes", 180),
+                Math.max(1, config.getInt("playtime.flush-interval-seconds", 60)),
+                MessageUtil.compile(config.getString("playtime.warning-message",
+                        "<yellow>本日のプレイ可能時間は残り <red>{minutes}分</red> です。")),
+                MessageUtil.compile(config.getString("playtime.exhausted-message",
+                        "<red>本日のプレイ可能時間を使い切りました。また明日お越しください。")));
+        if (playtime.dailyMinutes() <= 0) {
+            problems.add("playtime.daily-minutes には正の値を指定してください: " + playtime.dailyMinutes());
+        }
+
+        // 監査ログ
+        AuditSettings audit = new AuditSettings(
+                config.getBoolean("audit.enabled", false),
+                Math.max(1, config.getInt("audit.max-file-size-mb", 16)),
+                Math.max(16, config.getInt("audit.buffer-size", 8192)));
+
+        // 複数サーバー間の状態共有
+        SharedStateSettings sharedState = new SharedStateSettings(
+                config.getBoolean("shared-state.enabled", false),
+                config.getString("shared-state.file", "").trim(),
+                Math.max(1, config.getInt("shared-state.poll-interval-ms", 20)));
+        if (sharedState.enabled() && sharedState.file().isEmpty()) {
+            // 誰でも書き込める /tmp などを既定にしないよう、パスは明示させる
+            problems.add("shared-state.file に共有ファイルのパスを指定してください（状態共有は無効になります）");
+        }
+
+        // 自動リロード
+        boolean autoReload = config.getBoolean("auto-reload.enabled", false);
+        int autoReloadDebounceMillis = Math.max(0, config.getInt("auto-reload.debounce-ms", 500));
+
+        if (metricsHttpPort < 1 || metricsHttpPort > 65535) {
+            problems.add("無効なメトリクスのポート番号: " + metricsHttpPort);
+            metricsHttpPort = 9465;
+        }
+        if (kickDrainPlayersPerTick < 1) {
+            problems.add("kick-drain.players-per-tick は 1 以上を指定してください: " + kickDrainPlayersPerTick);
+            kickDrainPlayersPerTick = 5;
+        }
+        for (int interval : warningIntervals) {
+            if (interval <= 0) {
+                problems.add("warning.intervals には正の値を指定してください: " + interval);
             }
-        } else {
-            timezone = ZoneId.systemDefault();
         }
 
-        logger.info("設定を読み込みました。スケジュール数: " + scheduleEntries.size()
-                + ", タイムゾーン: " + timezone.getId());
+        return new ConfigSnapshot(
+                generation.incrementAndGet(),
+                scheduleEntries,
+                scheduleRules,
+                exceptions,
+                schedule,
+                groups,
+                kickOnClose,
+                kickMessage,
+                kickDrainPlayersPerTick,
+                kickDrainSpreadSeconds,
+                denyMessage,
+                asyncPreLoginDeny,
+                motdOpen,
+                motdClosed,
+                warningIntervals,
+                warningMessage,
+                timezone,
+                metricsHttpEnabled,
+                metricsHttpPort,
+                countdown,
+                admission,
+                warmup,
+                preCloseSave,
+                idle,
+                playtime,
+                audit,
+                sharedState,
+                autoReload,
+                autoReloadDebounceMillis);
+    }
+
+    /**
+     * 現在の設定スナップショットを取得する（任意のスレッドから呼び出し可能）
+     */
+    public ConfigSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * 省電力モードのゲームルールを読み込む。値の型はルールに合わせて検証する
+     *
+     * @param section {@code idle.gamerules}（未指定の場合は null）
+     * @return ルール名 → 値 (Boolean または Integer)
+     */
+    private static Map<String, Object> parseGameRules(ConfigurationSection section, List<String> problems) {
+        Map<String, Object> rules = new LinkedHashMap<>();
+        if (section == null) {
+            return rules;
+        }
+        for (String name : section.getKeys(false)) {
+            GameRule<?> rule = GameRule.getByName(name);
+            Object value = section.get(name);
+            if (rule == null) {
+                problems.add("不明なゲームルール: " + name);
+            } else if (rule.getType() == Boolean.class && value instanceof Boolean
+                    || rule.getType() == Integer.class && value instanceof Integer) {
+                rules.put(name, value);
+            } else {
+                problems.add("ゲームルール " + name + " の値が不正です: " + value);
+            }
+        }
+        return rules;
     }
 
     /**
@@ -101,56 +476,172 @@ public class ConfigManager {
         return hours * 60 + minutes;
     }
 
-    @SuppressWarnings("unchecked")
-    private ScheduleEntry parseScheduleEntry(Map<?, ?> map) {
-        List<String> dayStrings = (List<String>) map.get("days");
-        String startStr = (String) map.get("start");
-        String endStr = (String) map.get("end");
+    /**
+     * 日付指定の例外を読み込む
+     * <p>
+     * {@code date} で 1 日、{@code from}/{@code to} で複数日（両端を含む）を指定する。
+     * {@code start} は初日の開始時刻、{@code end} は最終日の終了時刻で、省略時は終日となる。
+     * {@code end} には 24:00 を超える値も指定できる。
+     */
+    private DateException parseDateException(Map<?, ?> map) {
+        Object stateValue = map.get("state");
+        if (stateValue == null) {
+            throw new IllegalArgumentException("state (OPEN / CLOSED) が指定されていません");
+        }
+        GateState state = GateState.valueOf(stateValue.toString().toUpperCase());
 
-        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
-        for (String dayStr : dayStrings) {
-            days.add(DayOfWeek.valueOf(dayStr.toUpperCase()));
+        LocalDate from;
+        LocalDate to;
+        if (map.get("date") != null) {
+            from = LocalDate.parse(map.get("date").toString());
+            to = from;
+        } else if (map.get("from") != null && map.get("to") != null) {
+            from = LocalDate.parse(map.get("from").toString());
+            to = LocalDate.parse(map.get("to").toString());
+        } else {
+            throw new IllegalArgumentException("date または from/to が指定されていません");
         }
 
-        int startMinutes = parseTimeToMinutes(startStr);
-        int endMinutes = parseTimeToMinutes(endStr);
+        Object startValue = map.get("start");
+        Object endValue = map.get("end");
+        int startMinutes = startValue != null ? parseTimeToMinutes(startValue.toString()) : 0;
+        int endMinutes = endValue != null ? parseTimeToMinutes(endValue.toString()) : 24 * 60;
 
-        return new ScheduleEntry(days, startMinutes, endMinutes);
+        LocalDateTime start = from.atStartOfDay().plusMinutes(startMinutes);
+        LocalDateTime end = to.atStartOfDay().plusMinutes(endMinutes);
+        return new DateException(start, end, state);
     }
 
-    public List<ScheduleEntry> getScheduleEntries() {
-        return Collections.unmodifiableList(scheduleEntries);
-    }
+    /**
+     * アクセスグループを読み込む
+     * <p>
+     * グループの {@code schedule}/{@code exceptions} は全体のものに追加され、合わせてコンパイルされる。
+     * 例外は全体のものの後に並べるため、重なる場合はグループの例外が優先される。
+     */
+    private AccessGroup parseAccessGroup(Map<?, ?> map, List<ScheduleEntry> baseEntries,
+            List<ScheduleRule> baseRules, List<DateException> baseExceptions, LocalDate today,
+            List<String> problems, List<String> notices) {
+        Object nameValue = map.get("name");
+        if (nameValue == null) {
+            throw new IllegalArgumentException("name が指定されていません");
+        }
+        String name = nameValue.toString();
+        Object permissionValue = map.get("permission");
+        String permission = permissionValue != null ? permissionValue.toString() : "timegate.group." + name;
+        boolean always = Boolean.parseBoolean(String.valueOf(map.get("always")));
+        boolean kickOnClose = !"false".equals(String.valueOf(map.get("kick-on-close")));
+        boolean warnings = !"false".equals(String.valueOf(map.get("warnings")));
 
-    public boolean isKickOnClose() {
-        return kickOnClose;
-    }
+        if (always) {
+            return new AccessGroup(name, permission, true, null, false, false);
+        }
 
-    public String getKickMessage() {
-        return kickMessage;
-    }
+        List<ScheduleEntry> entries = new ArrayList<>(baseEntries);
+        List<ScheduleRule> rules = new ArrayList<>(baseRules);
+        int groupRulesFrom = rules.size();
+        if (map.get("schedule") instanceof List<?> list) {
+            for (Object obj : list) {
+                if (obj instanceof Map<?, ?> entryMap) {
+                    try {
+                        if (entryMap.get("rule") != null) {
+                            rules.add(parseScheduleRule(entryMap));
+                        } else {
+                            entries.add(parseScheduleEntry(entryMap));
+                        }
+                    } catch (Exception e) {
+                        problems.add("グループ " + name + " のスケジュールエントリの読み込みに失敗しました: "
+                                + e.getMessage());
+                    }
+                }
+            }
+        }
+        List<DateException> exceptions = new ArrayList<>(baseExceptions);
+        if (map.get("exceptions") instanceof List<?> list) {
+            for (Object obj : list) {
+                if (obj instanceof Map<?, ?> exceptionMap) {
+                    try {
+                        exceptions.add(parseDateException(exceptionMap));
+                    } catch (Exception e) {
+                        problems.add("グループ " + name + " の例外日の読み込みに失敗しました: " + e.getMessage());
+                    }
+                }
+            }
+        }
 
-    public String getDenyMessage() {
-        return denyMessage;
+        // 全体の規則はすでに確認済みのため、グループで追加した規則だけを確認する
+        RuleIndex ruleIndex = compileRules(rules, "グループ " + name + " の", today, notices, groupRulesFrom);
+        CompiledSchedule schedule = new CompiledSchedule(
+                ScheduleIndex.compile(entries), ruleIndex, ExceptionIndex.compile(exceptions));
+        return new AccessGroup(name, permission, false, schedule, kickOnClose, warnings);
     }
 
-    public String getMotdOpen() {
-        return motdOpen;
+    /**
+     * 繰り返し規則のエントリをコンパイルし、今後該当する日がない規則を注意として記録する
+     * <p>
+     * UNTIL を過ぎた規則は時間の経過だけで生じるため、問題として再読み込みを拒否することはしない。
+     *
+     * @param label     注意の表示に付ける接頭辞
+     * @param today     設定のタイムゾーンでの今日（ビット列の範囲の基準日）
+     * @param notices   注意の追加先
+     * @param checkFrom この番号以降の規則だけを確認する
+     */
+    private static RuleIndex compileRules(List<ScheduleRule> rules, String label, LocalDate today,
+            List<String> notices, int checkFrom) {
+        RuleIndex index = RuleIndex.compile(rules, today);
+        for (int i = checkFrom; i < rules.size(); i++) {
+            if (index.hasNoUpcomingDays(i)) {
+                notices.add(label + "スケジュールの規則に今後該当する日がありません（期限切れの規則は削除できます）: "
+                        + rules.get(i).rule());
+            }
+        }
+        return index;
     }
 
-    public String getMotdClosed() {
-        return motdClosed;
-    }
+    /**
+     * 繰り返し規則のエントリを読み込む
+     * <p>
+     * {@code rule} で開放する日を、{@code except} で除外する日を {@link RecurrenceRule} の書式で指定する。
+     * {@code start}/{@code end} は省略時は終日で、{@code end} には 48:00 までの値を指定できる。
+     */
+    private ScheduleRule parseScheduleRule(Map<?, ?> map) {
+        RecurrenceRule rule = RecurrenceRule.parse(map.get("rule").toString());
+        Object exceptValue = map.get("except");
+        RecurrenceRule except = exceptValue != null ? RecurrenceRule.parse(exceptValue.toString()) : null;
 
-    public ZoneId getTimezone() {
-        return timezone;
+        Object startValue = map.get("start");
+        Object endValue = map.get("end");
+        int startMinutes = startValue != null ? parseTimeToMinutes(startValue.toString()) : 0;
+        int endMinutes = endValue != null ? parseTimeToMinutes(endValue.toString()) : 24 * 60;
+        return new ScheduleRule(rule, except, startMinutes, endMinutes);
     }
 
-    public List<Integer> getWarningIntervals() {
-        return Collections.unmodifiableList(warningIntervals);
+    /**
+     * 列挙値を名前で読み込む。不正な値の場合は問題として記録し、デフォルト値を返す
+     */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E defaultValue,
+            List<String> problems) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            problems.add("無効な値: " + value + "（" + type.getSimpleName() + "）");
+            return defaultValue;
+        }
     }
 
-    public String getWarningMessage() {
-        return warningMessage;
+    @SuppressWarnings("unchecked")
+    private ScheduleEntry parseScheduleEntry(Map<?, ?> map) {
+        List<String> dayStrings = (List<String>) map.get("days");
+        String startStr = (String) map.get("start");
+        String endStr = (String) map.get("end");
+
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String dayStr : dayStrings) {
+            days.add(DayOfWeek.valueOf(dayStr.toUpperCase()));
+        }
+
+        int startMinutes = parseTimeToMinutes(startStr);
+        int endMinutes = parseTimeToMinutes(endStr);
+
+        return new ScheduleEntry(days, startMinutes, endMinutes);
     }
 }
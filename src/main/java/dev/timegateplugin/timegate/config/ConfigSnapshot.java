@@ -0,0 +1,87 @@
+package dev.timegateplugin.timegate.config;
+
+import dev.timegateplugin.timegate.access.AccessGroup;
+import dev.timegateplugin.timegate.schedule.CompiledSchedule;
+import dev.timegateplugin.timegate.schedule.DateException;
+import dev.timegateplugin.timegate.schedule.ScheduleEntry;
+import dev.timegateplugin.timegate.schedule.ScheduleRule;
+import dev.timegateplugin.timegate.util.MessageTemplate;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * config.yml から読み込んだ設定の不変スナップショット
+ * <p>
+ * reload のたびに新しいインスタンスが作られ、{@link ConfigManager} から丸ごと差し替えられる。
+ * 非同期スレッドからも、ロックなしで一貫した設定を読み取れる。
+ *
+ * @param generation              reload のたびに増える世代番号（キャッシュの無効化判定用）
+ * @param scheduleEntries         開放スケジュール（曜日指定）
+ * @param scheduleRules           開放スケジュール（繰り返し規則）
+ * @param exceptions              日付指定の例外
+ * @param schedule                曜日スケジュールと例外をコンパイルしたもの
+ * @param groups                  アクセスグループ（判定順）
+ * @param kickOnClose             閉鎖時にキックするか
+ * @param kickMessage             キックメッセージ ({player} 使用可)
+ * @param kickDrainPlayersPerTick 閉鎖時キックの 1 tick あたり最大人数
+ * @param kickDrainSpreadSeconds  閉鎖時キックを分散する秒数
+ * @param denyMessage             ログイン拒否メッセージ ({player} 使用可)
+ * @param asyncPreLoginDeny       非同期の事前ログイン段階で拒否するか
+ * @param motdOpen                開放中の MOTD ({next_open} / {minutes_left} 使用可)
+ * @param motdClosed              閉鎖中の MOTD ({next_open} / {minutes_left} 使用可)
+ * @param warningIntervals        閉鎖前告知を行う残り分数
+ * @param warningMessage          閉鎖前告知メッセージ ({minutes} 使用可)
+ * @param timezone                スケジュールのタイムゾーン
+ * @param metricsHttpEnabled      メトリクス HTTP エンドポイントを有効にするか
+ * @param metricsHttpPort         メトリクス HTTP エンドポイントのポート
+ * @param countdown               閉鎖前カウントダウンの設定
+ * @param admission               開放直後の入場制御の設定
+ * @param warmup                  開放前のウォームアップの設定
+ * @param preCloseSave            閉鎖前の保存の設定
+ * @param idle                    閉鎖中の省電力モードの設定
+ * @param playtime                1 日あたりのプレイ時間の上限の設定
+ * @param audit                   監査ログの設定
+ * @param sharedState             複数サーバー間の状態共有の設定
+ * @param autoReload              config.yml の変更を監視して自動でリロードするか
+ * @param autoReloadDebounceMillis 最後の変更からリロードまで待つ時間（ミリ秒）
+ */
+public record ConfigSnapshot(
+        int generation,
+        List<ScheduleEntry> scheduleEntries,
+        List<ScheduleRule> scheduleRules,
+        List<DateException> exceptions,
+        CompiledSchedule schedule,
+        List<AccessGroup> groups,
+        boolean kickOnClose,
+        MessageTemplate kickMessage,
+        int kickDrainPlayersPerTick,
+        int kickDrainSpreadSeconds,
+        MessageTemplate denyMessage,
+        boolean asyncPreLoginDeny,
+        MessageTemplate motdOpen,
+        MessageTemplate motdClosed,
+        List<Integer> warningIntervals,
+        MessageTemplate warningMessage,
+        ZoneId timezone,
+        boolean metricsHttpEnabled,
+        int metricsHttpPort,
+        CountdownSettings countdown,
+        AdmissionSettings admission,
+        WarmupSettings warmup,
+        PreCloseSaveSettings preCloseSave,
+        IdleSettings idle,
+        PlaytimeSettings playtime,
+        AuditSettings audit,
+        SharedStateSettings sharedState,
+        boolean autoReload,
+        int autoReloadDebounceMillis) {
+
+    public ConfigSnapshot {
+        scheduleEntries = List.copyOf(scheduleEntries);
+        scheduleRules = List.copyOf(scheduleRules);
+        exceptions = List.copyOf(exceptions);
+        groups = List.copyOf(groups);
+        warningIntervals = List.copyOf(warningIntervals);
+    }
+}
@@ -0,0 +1,130 @@
+package dev.timegateplugin.timegate.config;
+
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * config.yml の変更を監視し、自動で再読み込みする
+ * <p>
+ * エディタの保存は複数のイベント（書き込み・置き換え）になるため、
+ * 最後のイベントから一定時間変更がなくなってから 1 回だけ再読み込みする。
+ * 再読み込みは {@link ConfigManager#reloadAsync()} で行い、問題があれば現在の設定を維持する。
+ */
+public class ConfigWatcher {
+
+    private final ConfigManager configManager;
+    private final ScheduleManager scheduleManager;
+    private final Logger logger;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(ConfigManager configManager, ScheduleManager scheduleManager, Logger logger) {
+        this.configManager = configManager;
+        this.scheduleManager = scheduleManager;
+        this.logger = logger;
+    }
+
+    /**
+     * 監視を開始する
+     *
+     * @param debounceMillis 最後の変更からこの時間変更がなければ再読み込みする
+     */
+    public void start(long debounceMillis) {
+        Path file = configManager.configPath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.warning("config.yml の監視を開始できませんでした: " + e.getMessage());
+            return;
+        }
+
+        thread = new Thread(() -> watch(file.getFileName(), debounceMillis), "TimeGate-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("config.yml の変更を監視します（変更後 " + debounceMillis + "ms で自動リロード）");
+    }
+
+    /**
+     * 監視を停止する
+     */
+    public void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warning("config.yml の監視を停止できませんでした: " + e.getMessage());
+            }
+            watchService = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * 監視ループ（監視スレッド）
+     */
+    private void watch(Path fileName, long debounceMillis) {
+        WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // 変更を待つ
+                if (!drain(service.take(), fileName)) {
+                    continue;
+                }
+                // 変更が落ち着くまで待つ
+                WatchKey key;
+                while ((key = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key, fileName);
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 停止
+        }
+    }
+
+    /**
+     * キーに溜まったイベントを読み捨てる
+     *
+     * @return config.yml に対するイベントが含まれていた場合は true
+     */
+    private static boolean drain(WatchKey key, Path fileName) {
+        boolean matched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                matched = true;
+            }
+        }
+        key.reset();
+        return matched;
+    }
+
+    private void reload() {
+        configManager.reloadAsync().thenAccept(result -> {
+            if (result.applied()) {
+                scheduleManager.reevaluate();
+                logger.info("config.yml の変更を検知し、設定をリロードしました。");
+            } else {
+                logger.warning("config.yml の変更を検知しましたが、問題があるため現在の設定を維持します:");
+                for (String problem : result.problems()) {
+                    logger.warning("  - " + problem);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package dev.timegateplugin.timegate.config;
+
+import dev.timegateplugin.timegate.util.MessageTemplate;
+import net.kyori.adventure.bossbar.BossBar;
+
+/**
+ * 閉鎖前カウントダウン（BossBar）の設定
+ *
+ * @param enabled カウントダウンを表示するか
+ * @param minutes 閉鎖の何分前から表示するか
+ * @param title   BossBar のタイトル ({time} が残り時間 m:ss に置換される)
+ * @param color   BossBar の色
+ * @param overlay BossBar の区切り表示
+ */
+public record CountdownSettings(
+        boolean enabled,
+        int minutes,
+        MessageTemplate title,
+        BossBar.Color color,
+        BossBar.Overlay overlay) {
+}
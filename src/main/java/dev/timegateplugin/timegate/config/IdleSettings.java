@@ -0,0 +1,31 @@
+package dev.timegateplugin.timegate.config;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 閉鎖中の省電力モードの設定
+ *
+ * @param enabled            閉鎖中、バイパス権限を持つプレイヤーしかいなければ省電力モードにするか
+ * @param viewDistance       省電力モード中の描画距離（0 の場合は変更しない）
+ * @param simulationDistance 省電力モード中のシミュレーション距離（0 の場合は変更しない）
+ * @param unloadChunks       省電力モードに入る際、読み込み中のチャンクのアンロードを要求するか
+ * @param gameRules          省電力モード中に適用するゲームルール（ルール名 → Boolean または Integer）
+ * @param idleCommands       省電力モードに入る際にコンソールから実行するコマンド
+ * @param resumeCommands     省電力モードから戻る際にコンソールから実行するコマンド
+ */
+public record IdleSettings(
+        boolean enabled,
+        int viewDistance,
+        int simulationDistance,
+        boolean unloadChunks,
+        Map<String, Object> gameRules,
+        List<String> idleCommands,
+        List<String> resumeCommands) {
+
+    public IdleSettings {
+        gameRules = Map.copyOf(gameRules);
+        idleCommands = List.copyOf(idleCommands);
+        resumeCommands = List.copyOf(resumeCommands);
+    }
+}
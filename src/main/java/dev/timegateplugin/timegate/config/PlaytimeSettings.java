@@ -0,0 +1,27 @@
+package dev.timegateplugin.timegate.config;
+
+import dev.timegateplugin.timegate.util.MessageTemplate;
+
+/**
+ * プレイヤーごとの 1 日あたりのプレイ時間の上限の設定
+ *
+ * @param enabled              プレイ時間の上限を設けるか
+ * @param dailyMinutes         1 日あたりのプレイ時間の上限（分）
+ * @param flushIntervalSeconds 使用時間をディスクに保存する間隔（秒）
+ * @param warningMessage       残り時間の告知メッセージ ({minutes} 使用可)
+ * @param exhaustedMessage     上限に達した際のキック・ログイン拒否メッセージ ({player} 使用可)
+ */
+public record PlaytimeSettings(
+        boolean enabled,
+        int dailyMinutes,
+        int flushIntervalSeconds,
+        MessageTemplate warningMessage,
+        MessageTemplate exhaustedMessage) {
+
+    /**
+     * 1 日あたりのプレイ時間の上限（ミリ秒）
+     */
+    public long dailyMillis() {
+        return dailyMinutes * 60_000L;
+    }
+}
@@ -0,0 +1,16 @@
+package dev.timegateplugin.timegate.config;
+
+/**
+ * 閉鎖前の保存の設定
+ *
+ * @param enabled            閉鎖前に保存を行うか
+ * @param minutes            閉鎖前告知がない場合に、閉鎖の何分前に開始するか
+ * @param playersPerTick     1 tick あたりに保存するプレイヤーデータの最大数
+ * @param worldIntervalTicks ワールドを 1 つ保存するごとに空ける tick 数
+ */
+public record PreCloseSaveSettings(
+        boolean enabled,
+        int minutes,
+        int playersPerTick,
+        int worldIntervalTicks) {
+}
@@ -0,0 +1,14 @@
+package dev.timegateplugin.timegate.config;
+
+/**
+ * 複数サーバー間の状態共有の設定
+ *
+ * @param enabled            状態共有を有効にするか
+ * @param file               共有ファイルのパス（同一ホスト上の全サーバーで同じパスを指定する。未指定は空文字列）
+ * @param pollIntervalMillis 共有ファイルの変化を確認する間隔（ミリ秒）
+ */
+public record SharedStateSettings(
+        boolean enabled,
+        String file,
+        int pollIntervalMillis) {
+}
@@ -0,0 +1,20 @@
+package dev.timegateplugin.timegate.config;
+
+/**
+ * 開放前のウォームアップの設定
+ *
+ * @param enabled             ウォームアップを行うか
+ * @param minutes             開放の何分前に開始するか
+ * @param world               チャンクを先読みするワールド名（空の場合は最初のワールド）
+ * @param radius              スポーン地点を中心に先読みするチャンクの半径
+ * @param maxConcurrent       同時に読み込み要求するチャンク数の上限
+ * @param releaseAfterSeconds 開放後、先読みしたチャンクの読み込み維持を解除するまでの秒数
+ */
+public record WarmupSettings(
+        boolean enabled,
+        int minutes,
+        String world,
+        int radius,
+        int maxConcurrent,
+        int releaseAfterSeconds) {
+}
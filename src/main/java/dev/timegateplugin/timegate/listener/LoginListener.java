@@ -1,44 +1,193 @@
 package dev.timegateplugin.timegate.listener;
 
-import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.access.AdmissionController;
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.audit.AuditLog;
+import dev.timegateplugin.timegate.audit.AuditType;
+import dev.timegateplugin.timegate.config.AdmissionSettings;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.playtime.PlaytimeTracker;
+import dev.timegateplugin.timegate.schedule.GateSnapshot;
 import dev.timegateplugin.timegate.schedule.GateState;
 import dev.timegateplugin.timegate.schedule.ScheduleManager;
-import dev.timegateplugin.timegate.util.MessageUtil;
+import dev.timegateplugin.timegate.util.Placeholder;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerLoginEvent;
 
+import java.util.UUID;
+
 /**
  * プレイヤーログイン時のアクセス制御リスナー
+ * <p>
+ * 閉鎖中は非同期の事前ログイン段階で拒否し、メインスレッドに到達させない。
+ * 開放直後の入場制御で受け付けなかったプレイヤーにも、同じ段階でパース済みの再試行メッセージを返す。
+ * {@link PlayerLoginEvent} では権限プラグインを含めた最終判定を行い、所属グループのキャッシュを更新する。
+ * 開放中は所属を使わないため判定せず、プレイ時間を使い切ったプレイヤーのバイパス確認にだけ使う
+ * （参加後の所属は {@link dev.timegateplugin.timegate.access.GroupRefresher} が tick を分けて判定する）。
+ * 1 日あたりのプレイ時間を使い切ったプレイヤーも、この段階で拒否する。
+ * 最終的にログインできなかったプレイヤーは退出イベントが来ないため、その場でキャッシュを破棄し、入場制御の枠を返す。
+ * 拒否とバイパスによるログインは監査ログに記録する。
  */
 public class LoginListener implements Listener {
 
-    private static final String BYPASS_PERMISSION = "timegate.bypass";
-
     private final ScheduleManager scheduleManager;
-    private final ConfigManager configManager;
+    private final GroupResolver groupResolver;
+    private final AdmissionController admission;
+    private final PlaytimeTracker playtime;
+    private final GateMetrics metrics;
+    private final AuditLog audit;
 
-    public LoginListener(ScheduleManager scheduleManager, ConfigManager configManager) {
+    public LoginListener(ScheduleManager scheduleManager, GroupResolver groupResolver,
+            AdmissionController admission, PlaytimeTracker playtime, GateMetrics metrics, AuditLog audit) {
         this.scheduleManager = scheduleManager;
-        this.configManager = configManager;
+        this.groupResolver = groupResolver;
+        this.admission = admission;
+        this.playtime = playtime;
+        this.metrics = metrics;
+        this.audit = audit;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        GateSnapshot snapshot = scheduleManager.snapshot();
+
+        // 開放状態なら入場制御のみ
+        if (snapshot.state() == GateState.OPEN) {
+            checkAdmission(event, snapshot);
+            return;
+        }
+        if (!snapshot.config().asyncPreLoginDeny()) {
+            return;
+        }
+
+        // 閉鎖状態: UUID でバイパス判定。権限を確認したことのないプレイヤーは
+        // 権限プラグインで bypass を持っている可能性があるため、メインスレッドでの判定に任せる
+        if (groupResolver.hasBypass(event.getUniqueId()) || !groupResolver.isBypassResolved(event.getUniqueId())) {
+            return;
+        }
+
+        // 所属グループはオンライン中のプレイヤーの分しか持たないため、この段階では分からない。
+        // いずれかのグループが開放中なら、所属を判定できるメインスレッドでの判定に任せる
+        if (snapshot.groupStates().contains(GateState.OPEN)) {
+            return;
+        }
+
+        event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_WHITELIST,
+                snapshot.config().denyMessage().render(Placeholder.PLAYER, event.getName()));
+        recordDenied(event, GateMetrics.DenyReason.GATE_CLOSED_PRE_LOGIN);
+    }
+
+    /**
+     * 開放直後の入場制御。受け付けなければ再試行までの秒数を返して拒否する
+     */
+    private void checkAdmission(AsyncPlayerPreLoginEvent event, GateSnapshot snapshot) {
+        if (!admission.isWindowActive()) {
+            return;
+        }
+        AdmissionSettings settings = snapshot.config().admission();
+        AdmissionController.Decision decision =
+                admission.tryAdmit(settings, event.getUniqueId(), groupResolver.hasBypass(event.getUniqueId()));
+        if (decision.admitted()) {
+            return;
+        }
+
+        event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                settings.retryComponent(decision.retrySeconds()));
+        recordDenied(event, decision.capReached()
+                ? GateMetrics.DenyReason.ADMISSION_CAP
+                : GateMetrics.DenyReason.ADMISSION_RATE);
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerLogin(PlayerLoginEvent event) {
-        // 開放状態なら何もしない
-        if (scheduleManager.getCurrentState() == GateState.OPEN) {
+        GateSnapshot snapshot = scheduleManager.snapshot();
+
+        // 開放状態ならプレイ時間の上限のみ。使い切っている場合だけバイパス権限を確認する
+        if (snapshot.state() == GateState.OPEN) {
+            if (playtime.isExhausted(event.getPlayer().getUniqueId())
+                    && !groupResolver.resolve(event.getPlayer(), snapshot.config()).bypass()) {
+                denyExhausted(event, snapshot);
+                return;
+            }
+            metrics.recordLoginAllowed(false);
             return;
         }
 
-        // 閉鎖状態: バイパス権限チェック
-        if (event.getPlayer().hasPermission(BYPASS_PERMISSION)) {
+        // 閉鎖状態: 権限が変わっている可能性があるため、所属を判定し直す
+        GroupResolver.Resolution resolution = groupResolver.refresh(event.getPlayer(), snapshot.config());
+
+        // 閉鎖状態: バイパス権限、または所属グループが開放中か
+        if (resolution.bypass()) {
+            metrics.recordLoginAllowed(true);
+            audit.record(AuditType.BYPASS_LOGIN, event.getPlayer().getUniqueId(), event.getPlayer().getName(),
+                    event.getAddress(), "bypass");
+            return;
+        }
+        if (snapshot.stateOf(resolution.group()) == GateState.OPEN) {
+            if (playtime.isExhausted(event.getPlayer().getUniqueId())) {
+                denyExhausted(event, snapshot);
+                return;
+            }
+            metrics.recordLoginAllowed(true);
+            audit.record(AuditType.BYPASS_LOGIN, event.getPlayer().getUniqueId(), event.getPlayer().getName(),
+                    event.getAddress(), "group:" + snapshot.config().groups().get(resolution.group()).name());
             return;
         }
 
         // 権限なし → ログイン拒否
-        event.disallow(
-                PlayerLoginEvent.Result.KICK_WHITELIST,
-                MessageUtil.parse(configManager.getDenyMessage()));
+        event.disallow(PlayerLoginEvent.Result.KICK_WHITELIST, snapshot.config().denyMessage()
+                .render(Placeholder.PLAYER, event.getPlayer().getName()));
+        recordDenied(event, GateMetrics.DenyReason.GATE_CLOSED_LOGIN);
+    }
+
+    /**
+     * 当日のプレイ時間を使い切ったプレイヤーのログインを拒否する
+     */
+    private void denyExhausted(PlayerLoginEvent event, GateSnapshot snapshot) {
+        event.disallow(PlayerLoginEvent.Result.KICK_OTHER, snapshot.config().playtime().exhaustedMessage()
+                .render(Placeholder.PLAYER, event.getPlayer().getName()));
+        recordDenied(event, GateMetrics.DenyReason.PLAYTIME_EXHAUSTED);
+    }
+
+    /**
+     * 入場制御で受け付けた後、他のプラグインが事前ログインを拒否した場合に枠を返す
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLoginResult(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            admission.release(event.getUniqueId());
+        }
+    }
+
+    /**
+     * ログインが最終的に拒否された場合（プレイ時間の上限や他のプラグインによる拒否を含む）、
+     * 所属のキャッシュを破棄し、入場制御の枠を返す
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLoginResult(PlayerLoginEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            groupResolver.invalidate(uuid);
+            admission.release(uuid);
+        } else {
+            admission.complete(uuid);
+        }
+    }
+
+    private void recordDenied(AsyncPlayerPreLoginEvent event, GateMetrics.DenyReason reason) {
+        metrics.recordLoginDenied(reason);
+        audit.record(AuditType.LOGIN_DENIED, event.getUniqueId(), event.getName(), event.getAddress(), reason.label());
+    }
+
+    private void recordDenied(PlayerLoginEvent event, GateMetrics.DenyReason reason) {
+        metrics.recordLoginDenied(reason);
+        audit.record(AuditType.LOGIN_DENIED, event.getPlayer().getUniqueId(), event.getPlayer().getName(),
+                event.getAddress(), reason.label());
     }
 }
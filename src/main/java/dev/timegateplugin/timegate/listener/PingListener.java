@@ -1,37 +1,97 @@
 package dev.timegateplugin.timegate.listener;
 
 import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
-import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.schedule.GateSnapshot;
 import dev.timegateplugin.timegate.schedule.GateState;
 import dev.timegateplugin.timegate.schedule.ScheduleManager;
-import dev.timegateplugin.timegate.util.MessageUtil;
+import dev.timegateplugin.timegate.util.MessageTemplate;
+import dev.timegateplugin.timegate.util.Placeholder;
 import net.kyori.adventure.text.Component;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
 /**
  * サーバーリスト表示時の MOTD 切替リスナー
+ * <p>
+ * MOTD の Component は状態・設定世代ごとに 1 回だけ生成してキャッシュする。
+ * {@code {next_open}} / {@code {minutes_left}} を含む MOTD は最大でも 1 分に 1 回だけ再生成する
+ * （同じ値での再生成はテンプレートのキャッシュから返る）。
  */
 public class PingListener implements Listener {
 
+    private static final DateTimeFormatter NEXT_OPEN_FORMAT = DateTimeFormatter.ofPattern("M/d HH:mm");
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    /**
+     * 生成済みの MOTD
+     *
+     * @param state      生成時のゲート状態
+     * @param generation 生成時の設定世代
+     * @param minute     生成時のエポック分（プレースホルダーを含まない場合は -1）
+     * @param motd       生成済み Component
+     */
+    private record CachedMotd(GateState state, int generation, long minute, Component motd) {
+    }
+
     private final ScheduleManager scheduleManager;
-    private final ConfigManager configManager;
+    private final GateMetrics metrics;
 
-    public PingListener(ScheduleManager scheduleManager, ConfigManager configManager) {
+    /** Ping は非同期スレッドからも呼ばれるため volatile で差し替える */
+    private volatile CachedMotd cached;
+
+    public PingListener(ScheduleManager scheduleManager, GateMetrics metrics) {
         this.scheduleManager = scheduleManager;
-        this.configManager = configManager;
+        this.metrics = metrics;
     }
 
     @EventHandler
     public void onServerListPing(PaperServerListPingEvent event) {
-        String motdTemplate;
-        if (scheduleManager.getCurrentState() == GateState.OPEN) {
-            motdTemplate = configManager.getMotdOpen();
-        } else {
-            motdTemplate = configManager.getMotdClosed();
+        long startNanos = System.nanoTime();
+        event.motd(currentMotd());
+        metrics.recordPing(System.nanoTime() - startNanos);
+    }
+
+    private Component currentMotd() {
+        GateSnapshot snapshot = scheduleManager.snapshot();
+        ConfigSnapshot config = snapshot.config();
+        GateState state = snapshot.state();
+        int generation = config.generation();
+        long minute = System.currentTimeMillis() / MILLIS_PER_MINUTE;
+
+        CachedMotd current = cached;
+        if (current != null
+                && current.state() == state
+                && current.generation() == generation
+                && (current.minute() < 0 || current.minute() == minute)) {
+            return current.motd();
         }
 
-        Component motd = MessageUtil.parse(motdTemplate);
-        event.motd(motd);
+        MessageTemplate template = state == GateState.OPEN
+                ? config.motdOpen()
+                : config.motdClosed();
+        boolean dynamic = template.uses(Placeholder.NEXT_OPEN) || template.uses(Placeholder.MINUTES_LEFT);
+
+        Component motd = dynamic ? renderDynamic(template) : template.render();
+        cached = new CachedMotd(state, generation, dynamic ? minute : -1, motd);
+        return motd;
+    }
+
+    private Component renderDynamic(MessageTemplate template) {
+        String nextOpenText = null;
+        if (template.uses(Placeholder.NEXT_OPEN)) {
+            ZonedDateTime nextOpen = scheduleManager.getNextOpenTime();
+            nextOpenText = nextOpen != null ? NEXT_OPEN_FORMAT.format(nextOpen) : "-";
+        }
+        String minutesLeftText = null;
+        if (template.uses(Placeholder.MINUTES_LEFT)) {
+            int minutesLeft = scheduleManager.getMinutesUntilClose();
+            minutesLeftText = minutesLeft >= 0 ? String.valueOf(minutesLeft) : "-";
+        }
+        return template.render(Placeholder.NEXT_OPEN, nextOpenText, Placeholder.MINUTES_LEFT, minutesLeftText);
     }
 }
@@ -0,0 +1,51 @@
+package dev.timegateplugin.timegate.listener;
+
+import dev.timegateplugin.timegate.access.GroupRefresher;
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.playtime.PlaytimeTracker;
+import dev.timegateplugin.timegate.schedule.CountdownBar;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * 参加・退出時の処理リスナー
+ */
+public class PlayerSessionListener implements Listener {
+
+    private final CountdownBar countdownBar;
+    private final ScheduleManager scheduleManager;
+    private final PlaytimeTracker playtime;
+    private final GroupResolver groupResolver;
+    private final GroupRefresher groupRefresher;
+
+    public PlayerSessionListener(CountdownBar countdownBar, ScheduleManager scheduleManager,
+            PlaytimeTracker playtime, GroupResolver groupResolver, GroupRefresher groupRefresher) {
+        this.countdownBar = countdownBar;
+        this.scheduleManager = scheduleManager;
+        this.playtime = playtime;
+        this.groupResolver = groupResolver;
+        this.groupRefresher = groupRefresher;
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // 所属の判定は参加の tick では行わず、次の tick 以降に分散して行う
+        groupRefresher.enqueue(event.getPlayer());
+        // カウントダウン中なら途中参加者にも BossBar を表示
+        countdownBar.showTo(event.getPlayer());
+        scheduleManager.onPlayerJoin(event.getPlayer());
+        playtime.onJoin(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        // バイパス権限を持つプレイヤーだけが残れば閉鎖中の省電力モードに入る
+        scheduleManager.onPlayerQuit(event.getPlayer());
+        playtime.onQuit(event.getPlayer());
+        // 所属のキャッシュはオンライン中のプレイヤーの分だけ持つ
+        groupResolver.invalidate(event.getPlayer().getUniqueId());
+    }
+}
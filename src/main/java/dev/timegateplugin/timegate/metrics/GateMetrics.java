@@ -0,0 +1,279 @@
+package dev.timegateplugin.timegate.metrics;
+
+import dev.timegateplugin.timegate.schedule.GateState;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TimeGate の動作メトリクス
+ * <p>
+ * カウンタは {@link LongAdder}（ストライプ化されたカウンタ）で保持し、
+ * netty スレッド・非同期ログインスレッド・メインスレッドから同時に加算しても競合しない。
+ * 出力は Prometheus テキスト形式。
+ */
+public class GateMetrics {
+
+    /**
+     * ログイン拒否の理由
+     */
+    public enum DenyReason {
+        /** 閉鎖中（非同期の事前ログイン段階で拒否） */
+        GATE_CLOSED_PRE_LOGIN("gate_closed_pre_login"),
+        /** 閉鎖中（ログイン段階で拒否） */
+        GATE_CLOSED_LOGIN("gate_closed_login"),
+        /** 開放直後の入場制御（ログイン数の制限） */
+        ADMISSION_RATE("admission_rate"),
+        /** 開放直後の入場制御（受け付け上限） */
+        ADMISSION_CAP("admission_cap"),
+        /** 1 日あたりのプレイ時間の上限に到達 */
+        PLAYTIME_EXHAUSTED("playtime_exhausted");
+
+        private final String label;
+
+        DenyReason(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final double MILLIS_PER_SECOND = 1_000d;
+
+    private final LongAdder pingsServed = new LongAdder();
+    private final Histogram pingLatency = new Histogram(
+            0.000_001, 0.000_005, 0.000_010, 0.000_050, 0.000_100, 0.000_500, 0.001, 0.005);
+
+    private final LongAdder loginsAllowed = new LongAdder();
+    private final LongAdder bypassLogins = new LongAdder();
+    private final LongAdder[] loginsDenied = new LongAdder[DenyReason.values().length];
+
+    private final LongAdder kicksIssued = new LongAdder();
+    private final LongAdder warningsSent = new LongAdder();
+    private final LongAdder auditDropped = new LongAdder();
+
+    private final LongAdder[] transitions = new LongAdder[GateState.values().length];
+    private final Histogram[] dwellTime = new Histogram[GateState.values().length];
+
+    private volatile GateState currentState = GateState.CLOSED;
+    private volatile long stateSinceMillis = System.currentTimeMillis();
+    private volatile long lastTransitionMillis;
+
+    private volatile long preCloseSaveNanos;
+    private volatile long preCloseSaveMaxTickNanos;
+
+    public GateMetrics() {
+        for (int i = 0; i < loginsDenied.length; i++) {
+            loginsDenied[i] = new LongAdder();
+        }
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = new LongAdder();
+            // 1 分〜1 週間
+            dwellTime[i] = new Histogram(60, 300, 900, 3_600, 4 * 3_600, 12 * 3_600, 86_400, 7 * 86_400);
+        }
+    }
+
+    /**
+     * 起動時の状態を設定する
+     */
+    public void initState(GateState state) {
+        currentState = state;
+        stateSinceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Ping 応答 1 件を記録する
+     *
+     * @param elapsedNanos 処理時間（ナノ秒）
+     */
+    public void recordPing(long elapsedNanos) {
+        pingsServed.increment();
+        pingLatency.observe(elapsedNanos / NANOS_PER_SECOND);
+    }
+
+    public void recordLoginAllowed(boolean bypass) {
+        loginsAllowed.increment();
+        if (bypass) {
+            bypassLogins.increment();
+        }
+    }
+
+    public void recordLoginDenied(DenyReason reason) {
+        loginsDenied[reason.ordinal()].increment();
+    }
+
+    public void recordKick() {
+        kicksIssued.increment();
+    }
+
+    public void recordWarning() {
+        warningsSent.increment();
+    }
+
+    /**
+     * 監査ログのバッファが満杯で記録を破棄した
+     */
+    public void recordAuditDropped() {
+        auditDropped.increment();
+    }
+
+    /**
+     * 閉鎖前の保存 1 回分の処理時間を記録する（メインスレッド）
+     *
+     * @param elapsedNanos 保存の処理時間の合計（ナノ秒）
+     * @param maxTickNanos 1 tick あたりの処理時間の最大値（ナノ秒）
+     */
+    public void recordPreCloseSave(long elapsedNanos, long maxTickNanos) {
+        preCloseSaveNanos = elapsedNanos;
+        preCloseSaveMaxTickNanos = maxTickNanos;
+    }
+
+    /**
+     * 状態遷移を記録し、直前の状態の滞在時間をヒストグラムに加える（メインスレッド）
+     */
+    public void recordTransition(GateState newState) {
+        long now = System.currentTimeMillis();
+        GateState oldState = currentState;
+        dwellTime[oldState.ordinal()].observe((now - stateSinceMillis) / MILLIS_PER_SECOND);
+        transitions[newState.ordinal()].increment();
+        currentState = newState;
+        stateSinceMillis = now;
+        lastTransitionMillis = now;
+    }
+
+    public long getPingsServed() {
+        return pingsServed.sum();
+    }
+
+    public long getLoginsAllowed() {
+        return loginsAllowed.sum();
+    }
+
+    public long getBypassLogins() {
+        return bypassLogins.sum();
+    }
+
+    public long getLoginsDenied() {
+        long total = 0;
+        for (LongAdder adder : loginsDenied) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public long getKicksIssued() {
+        return kicksIssued.sum();
+    }
+
+    public long getWarningsSent() {
+        return warningsSent.sum();
+    }
+
+    public long getAuditDropped() {
+        return auditDropped.sum();
+    }
+
+    public long getTransitions() {
+        long total = 0;
+        for (LongAdder adder : transitions) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Ping 処理時間の平均（マイクロ秒）。記録がなければ 0
+     */
+    public double getAveragePingMicros() {
+        long count = pingLatency.count();
+        return count == 0 ? 0 : pingLatency.sum() / count * 1_000_000d;
+    }
+
+    /**
+     * 直近の閉鎖前の保存の処理時間（ミリ秒）。記録がなければ 0
+     */
+    public long getPreCloseSaveMillis() {
+        return preCloseSaveNanos / 1_000_000;
+    }
+
+    public long getStateSinceMillis() {
+        return stateSinceMillis;
+    }
+
+    /**
+     * すべてのメトリクスを Prometheus テキスト形式で出力する
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "timegate_pings_total", "counter", "Server list pings served.");
+        out.append("timegate_pings_total ").append(pingsServed.sum()).append('\n');
+        header(out, "timegate_ping_duration_seconds", "histogram", "Time spent handling a server list ping.");
+        pingLatency.appendTo(out, "timegate_ping_duration_seconds", "");
+
+        header(out, "timegate_logins_allowed_total", "counter", "Logins allowed through the gate.");
+        out.append("timegate_logins_allowed_total ").append(loginsAllowed.sum()).append('\n');
+        header(out, "timegate_bypass_logins_total", "counter", "Logins allowed by bypass while closed.");
+        out.append("timegate_bypass_logins_total ").append(bypassLogins.sum()).append('\n');
+        header(out, "timegate_logins_denied_total", "counter", "Logins denied, by reason.");
+        for (DenyReason reason : DenyReason.values()) {
+            out.append("timegate_logins_denied_total{reason=\"").append(reason.label()).append("\"} ")
+                    .append(loginsDenied[reason.ordinal()].sum()).append('\n');
+        }
+
+        header(out, "timegate_kicks_total", "counter", "Players kicked on close.");
+        out.append("timegate_kicks_total ").append(kicksIssued.sum()).append('\n');
+        header(out, "timegate_warnings_total", "counter", "Pre-close warnings broadcast.");
+        out.append("timegate_warnings_total ").append(warningsSent.sum()).append('\n');
+
+        header(out, "timegate_audit_dropped_total", "counter", "Audit records dropped because the buffer was full.");
+        out.append("timegate_audit_dropped_total ").append(auditDropped.sum()).append('\n');
+
+        header(out, "timegate_preclose_save_duration_seconds", "gauge",
+                "Main thread time spent by the last pre-close save (0 if none since startup).");
+        out.append("timegate_preclose_save_duration_seconds ")
+                .append(preCloseSaveNanos / NANOS_PER_SECOND).append('\n');
+        header(out, "timegate_preclose_save_max_tick_seconds", "gauge",
+                "Longest single tick of the last pre-close save (0 if none since startup).");
+        out.append("timegate_preclose_save_max_tick_seconds ")
+                .append(preCloseSaveMaxTickNanos / NANOS_PER_SECOND).append('\n');
+
+        header(out, "timegate_transitions_total", "counter", "Gate transitions, by new state.");
+        for (GateState state : GateState.values()) {
+            out.append("timegate_transitions_total{state=\"").append(label(state)).append("\"} ")
+                    .append(transitions[state.ordinal()].sum()).append('\n');
+        }
+        header(out, "timegate_state_dwell_seconds", "histogram", "Time spent in a state before leaving it.");
+        for (GateState state : GateState.values()) {
+            dwellTime[state.ordinal()].appendTo(out, "timegate_state_dwell_seconds",
+                    "state=\"" + label(state) + "\"");
+        }
+
+        header(out, "timegate_state", "gauge", "Current gate state (1 for the active state).");
+        GateState state = currentState;
+        for (GateState s : GateState.values()) {
+            out.append("timegate_state{state=\"").append(label(s)).append("\"} ")
+                    .append(s == state ? 1 : 0).append('\n');
+        }
+        header(out, "timegate_state_since_timestamp_seconds", "gauge", "Unix time the current state began.");
+        out.append("timegate_state_since_timestamp_seconds ")
+                .append(stateSinceMillis / MILLIS_PER_SECOND).append('\n');
+        header(out, "timegate_last_transition_timestamp_seconds", "gauge",
+                "Unix time of the last transition (0 if none since startup).");
+        out.append("timegate_last_transition_timestamp_seconds ")
+                .append(lastTransitionMillis / MILLIS_PER_SECOND).append('\n');
+
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String label(GateState state) {
+        return state == GateState.OPEN ? "open" : "closed";
+    }
+}
@@ -0,0 +1,77 @@
+package dev.timegateplugin.timegate.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定バケットのヒストグラム
+ * <p>
+ * バケットごとに {@link LongAdder} を持つため、複数スレッドから同時に記録しても競合しない。
+ * 値の単位は秒。
+ */
+public class Histogram {
+
+    private final double[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+
+    /**
+     * @param bounds 各バケットの上限（昇順、秒）。+Inf バケットは自動で追加される
+     */
+    public Histogram(double... bounds) {
+        this.bounds = bounds.clone();
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 値を 1 件記録する
+     *
+     * @param seconds 記録する値（秒）
+     */
+    public void observe(double seconds) {
+        int i = 0;
+        while (i < bounds.length && seconds > bounds[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sum.add(seconds);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double sum() {
+        return sum.sum();
+    }
+
+    /**
+     * Prometheus テキスト形式で出力する
+     *
+     * @param out    出力先
+     * @param name   メトリクス名
+     * @param labels 追加のラベル（例: {@code state="open"}）。なければ空文字
+     */
+    void appendTo(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(prefix)
+                    .append("le=\"").append(BigDecimal.valueOf(bounds[i]).toPlainString()).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        cumulative += buckets[bounds.length].sum();
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffix).append(' ').append(sum.sum()).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ').append(cumulative).append('\n');
+    }
+}
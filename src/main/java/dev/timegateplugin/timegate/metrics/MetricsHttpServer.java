@@ -0,0 +1,88 @@
+package dev.timegateplugin.timegate.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * メトリクスを Prometheus テキスト形式で公開する組み込み HTTP サーバー
+ * <p>
+ * ループバックアドレスにのみバインドし、{@code /metrics} への GET に応答する。
+ * 処理は専用の 1 スレッドで行い、メインスレッドには触れない。
+ */
+public class MetricsHttpServer {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final GateMetrics metrics;
+    private final Logger logger;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsHttpServer(GateMetrics metrics, Logger logger) {
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    /**
+     * 指定したポートで待ち受けを開始する
+     *
+     * @param port 待ち受けポート
+     */
+    public void start(int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            logger.warning("メトリクス HTTP サーバーを起動できませんでした (port " + port + "): " + e.getMessage());
+            return;
+        }
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        logger.info("メトリクスを公開しました: http://127.0.0.1:" + port + "/metrics");
+    }
+
+    /**
+     * 待ち受けを停止する
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dev.timegateplugin.timegate.playtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 当日のプレイ時間をディスクに保存するクラス
+ * <p>
+ * メインスレッドでテーブルの内容をプリミティブ配列に写し取り、専用の 1 スレッドで
+ * 一時ファイルに書き出してから置き換える。書き込みは一定間隔でまとめて行い、
+ * メインスレッドはディスク I/O を待たない。
+ * <p>
+ * 形式: マジック (int)、バージョン (int)、日付 (エポック日, long)、件数 (int)、
+ * 続けて 1 件ごとに UUID の上位・下位 (long × 2) と使用時間（ミリ秒, long）。
+ */
+public class PlaytimeStore {
+
+    /** 1 件あたりの long の数（UUID 上位・下位、使用時間） */
+    public static final int RECORD_LONGS = 3;
+
+    private static final int MAGIC = 0x54475054; // "TGPT"
+    private static final int VERSION = 1;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final Path path;
+    private final Logger logger;
+    private ExecutorService writer;
+
+    public PlaytimeStore(Path path, Logger logger) {
+        this.path = path;
+        this.logger = logger;
+    }
+
+    /**
+     * 保存済みのプレイ時間を読み込み、書き込みスレッドを開始する。
+     * 保存された日付が指定した日と異なる場合は読み込まない（日付の切り替えでリセット済みとみなす）
+     *
+     * @param table    読み込み先
+     * @param epochDay 当日（エポック日）
+     * @return 読み込んだ件数
+     */
+    public int open(PlaytimeTable table, long epochDay) {
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-Playtime");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.warning("プレイ時間のファイルの形式が不正なため読み込みません: " + path);
+                return 0;
+            }
+            if (in.readLong() != epochDay) {
+                return 0;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int entry = table.findOrAdd(in.readLong(), in.readLong());
+                table.setUsedMillis(entry, in.readLong());
+            }
+            return count;
+        } catch (EOFException e) {
+            logger.warning("プレイ時間のファイルが途中で途切れています。読み込めた分のみ使用します: " + path);
+            return table.size();
+        } catch (IOException e) {
+            logger.warning("プレイ時間のファイルを読み込めませんでした (" + path + "): " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * プレイ時間を非同期で保存する
+     *
+     * @param epochDay 当日（エポック日）
+     * @param records  {@link #RECORD_LONGS} 個ずつ並べた記録（呼び出し後は変更しないこと）
+     * @param count    件数
+     */
+    public void save(long epochDay, long[] records, int count) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.execute(() -> write(epochDay, records, count));
+        } catch (RejectedExecutionException e) {
+            logger.warning("書き込みスレッドが停止しているため、プレイ時間を保存できませんでした。");
+        }
+    }
+
+    /**
+     * 未処理の書き込みを済ませてから閉じる
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("プレイ時間の書き込みが時間内に終わりませんでした。");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * 一時ファイルに書き出して置き換える（書き込みスレッド）
+     */
+    private void write(long epochDay, long[] records, int count) {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel)));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(epochDay);
+                out.writeInt(count);
+                for (int i = 0; i < count * RECORD_LONGS; i++) {
+                    out.writeLong(records[i]);
+                }
+                out.flush();
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("プレイ時間の保存に失敗しました: " + e.getMessage());
+        }
+    }
+}
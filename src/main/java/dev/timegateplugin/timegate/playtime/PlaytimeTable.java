@@ -0,0 +1,198 @@
+package dev.timegateplugin.timegate.playtime;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * プレイヤーごとのプレイ時間を、UUID をキーとしたプリミティブ配列で保持するテーブル（メインスレッド専用）
+ * <p>
+ * エントリは追加順に密に並べ、UUID の上位・下位 64 ビット、当日の使用時間、
+ * 参加中のセッション開始時刻などを項目ごとの配列に持つ。
+ * UUID からエントリ番号への対応はオープンアドレス法（線形探索）のハッシュ表で引く。
+ * 参照・更新でオブジェクトを生成しないため、数千人を毎秒走査してもボックス化の負荷がかからない。
+ */
+public class PlaytimeTable {
+
+    /** 見つからない場合のエントリ番号 */
+    public static final int NOT_FOUND = -1;
+    /** 参加していないことを表すセッション開始時刻 */
+    public static final long OFFLINE = 0L;
+    /** まだ告知していないことを表す値 */
+    public static final int NOT_WARNED = Integer.MAX_VALUE;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] keyHigh;
+    private long[] keyLow;
+    private long[] usedMillis;
+    private long[] sessionStartMillis;
+    private int[] warnedMinutes;
+    private int size;
+
+    /** ハッシュ表（エントリ番号 + 1、0 は空き）。長さは 2 のべき乗で、エントリ数の 2 倍以上に保つ */
+    private int[] buckets;
+
+    public PlaytimeTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * エントリ数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * UUID のエントリ番号を返す
+     *
+     * @return エントリ番号。なければ {@link #NOT_FOUND}
+     */
+    public int find(UUID uuid) {
+        return find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public int find(long high, long low) {
+        int mask = buckets.length - 1;
+        for (int i = hash(high, low) & mask; ; i = (i + 1) & mask) {
+            int entry = buckets[i] - 1;
+            if (entry < 0) {
+                return NOT_FOUND;
+            }
+            if (keyHigh[entry] == high && keyLow[entry] == low) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * UUID のエントリ番号を返す。なければ使用時間 0 のエントリを追加する
+     */
+    public int findOrAdd(UUID uuid) {
+        return findOrAdd(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public int findOrAdd(long high, long low) {
+        int entry = find(high, low);
+        if (entry != NOT_FOUND) {
+            return entry;
+        }
+        if (size == keyHigh.length) {
+            grow();
+        }
+        entry = size++;
+        keyHigh[entry] = high;
+        keyLow[entry] = low;
+        usedMillis[entry] = 0L;
+        sessionStartMillis[entry] = OFFLINE;
+        warnedMinutes[entry] = NOT_WARNED;
+        insert(entry);
+        return entry;
+    }
+
+    public long keyHigh(int entry) {
+        return keyHigh[entry];
+    }
+
+    public long keyLow(int entry) {
+        return keyLow[entry];
+    }
+
+    /**
+     * 確定済みの当日の使用時間（参加中のセッションは含まない）
+     */
+    public long usedMillis(int entry) {
+        return usedMillis[entry];
+    }
+
+    public void setUsedMillis(int entry, long millis) {
+        usedMillis[entry] = millis;
+    }
+
+    public long sessionStartMillis(int entry) {
+        return sessionStartMillis[entry];
+    }
+
+    public void setSessionStartMillis(int entry, long millis) {
+        sessionStartMillis[entry] = millis;
+    }
+
+    /**
+     * 参加中のセッションを含めた当日の使用時間
+     */
+    public long totalMillis(int entry, long nowMillis) {
+        long start = sessionStartMillis[entry];
+        return usedMillis[entry] + (start == OFFLINE ? 0L : Math.max(0L, nowMillis - start));
+    }
+
+    /**
+     * 参加中のセッションを終え、その分を使用時間に加える
+     */
+    public void endSession(int entry, long nowMillis) {
+        usedMillis[entry] = totalMillis(entry, nowMillis);
+        sessionStartMillis[entry] = OFFLINE;
+    }
+
+    /**
+     * 告知済みのうち最も小さい残り分数
+     */
+    public int warnedMinutes(int entry) {
+        return warnedMinutes[entry];
+    }
+
+    public void setWarnedMinutes(int entry, int minutes) {
+        warnedMinutes[entry] = minutes;
+    }
+
+    /**
+     * 日付の切り替えに合わせて、すべてのエントリの使用時間と告知の記録を消す。
+     * 参加中のセッションは指定時刻から数え直す
+     */
+    public void resetUsage(long nowMillis) {
+        Arrays.fill(usedMillis, 0, size, 0L);
+        Arrays.fill(warnedMinutes, 0, size, NOT_WARNED);
+        for (int i = 0; i < size; i++) {
+            if (sessionStartMillis[i] != OFFLINE) {
+                sessionStartMillis[i] = nowMillis;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = keyHigh.length * 2;
+        keyHigh = Arrays.copyOf(keyHigh, capacity);
+        keyLow = Arrays.copyOf(keyLow, capacity);
+        usedMillis = Arrays.copyOf(usedMillis, capacity);
+        sessionStartMillis = Arrays.copyOf(sessionStartMillis, capacity);
+        warnedMinutes = Arrays.copyOf(warnedMinutes, capacity);
+        buckets = new int[capacity * 2];
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keyHigh = new long[capacity];
+        keyLow = new long[capacity];
+        usedMillis = new long[capacity];
+        sessionStartMillis = new long[capacity];
+        warnedMinutes = new int[capacity];
+        buckets = new int[capacity * 2];
+        size = 0;
+    }
+
+    private void insert(int entry) {
+        int mask = buckets.length - 1;
+        int i = hash(keyHigh[entry], keyLow[entry]) & mask;
+        while (buckets[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        buckets[i] = entry + 1;
+    }
+
+    private static int hash(long high, long low) {
+        // UUID v4 はほぼ乱数だが、偏った UUID（オフラインモードの v3 など）にも備えてかき混ぜる
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
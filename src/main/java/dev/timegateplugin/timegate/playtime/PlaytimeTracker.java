@@ -0,0 +1,237 @@
+package dev.timegateplugin.timegate.playtime;
+
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.audit.AuditLog;
+import dev.timegateplugin.timegate.audit.AuditType;
+import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.config.PlaytimeSettings;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.util.Placeholder;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * プレイヤーごとの 1 日あたりのプレイ時間の上限を管理するクラス（メインスレッド）
+ * <p>
+ * 参加中の時間を {@link PlaytimeTable} に積み上げ、1 秒ごとに参加中のプレイヤーを走査して、
+ * 閉鎖前告知と同じ残り分数で告知し、上限に達したらキックする。
+ * バイパス権限の有無は所属のキャッシュだけで判定し（参加時に権限は判定しない）、
+ * バイパス権限を持つと判明したプレイヤーは集計を止める。未判定のプレイヤーは集計するが、キックはしない。
+ * 使用時間は一定間隔でまとめて {@link PlaytimeStore} に非同期で保存し、
+ * 設定のタイムゾーンで日付が変わった時点でリセットする。
+ */
+public class PlaytimeTracker {
+
+    private static final long CHECK_PERIOD_TICKS = 20L;
+    private static final long TICKS_PER_SECOND = 20L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final GroupResolver groupResolver;
+    private final GateMetrics metrics;
+    private final PlaytimeStore store;
+    private final AuditLog audit;
+    private final Logger logger;
+
+    private final PlaytimeTable table = new PlaytimeTable();
+    /** 集計中の日付（エポック日） */
+    private long currentDay;
+    /** 次に日付が切り替わる時刻（エポックミリ秒） */
+    private long nextResetMillis;
+    private BukkitTask checkTask;
+    private BukkitTask flushTask;
+
+    public PlaytimeTracker(JavaPlugin plugin, ConfigManager configManager, GroupResolver groupResolver,
+            GateMetrics metrics, PlaytimeStore store, AuditLog audit) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.groupResolver = groupResolver;
+        this.metrics = metrics;
+        this.store = store;
+        this.audit = audit;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 保存済みの当日のプレイ時間を読み込み、定期処理を開始する
+     */
+    public void start() {
+        ConfigSnapshot config = configManager.snapshot();
+        scheduleReset(config.timezone(), System.currentTimeMillis());
+        int loaded = store.open(table, currentDay);
+        if (loaded > 0) {
+            logger.info("本日のプレイ時間を読み込みました: " + loaded + " 人");
+        }
+
+        // 起動時（/reload を含む）にすでに参加しているプレイヤー
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            onJoin(player);
+        }
+
+        checkTask = Bukkit.getScheduler().runTaskTimer(plugin, this::check, CHECK_PERIOD_TICKS, CHECK_PERIOD_TICKS);
+        long flushTicks = Math.max(1L, config.playtime().flushIntervalSeconds() * TICKS_PER_SECOND);
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, flushTicks, flushTicks);
+    }
+
+    /**
+     * 定期処理を止め、最新の使用時間を保存してから閉じる
+     */
+    public void stop() {
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
+        }
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+        store.close();
+    }
+
+    /**
+     * 当日の上限に達しているかどうか（ログイン判定用）
+     */
+    public boolean isExhausted(UUID uuid) {
+        PlaytimeSettings settings = configManager.snapshot().playtime();
+        if (!settings.enabled()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        rollOverIfNeeded(now);
+        int entry = table.find(uuid);
+        return entry != PlaytimeTable.NOT_FOUND && table.totalMillis(entry, now) >= settings.dailyMillis();
+    }
+
+    /**
+     * 参加時にセッションを開始する
+     */
+    public void onJoin(Player player) {
+        ConfigSnapshot config = configManager.snapshot();
+        if (!config.playtime().enabled()) {
+            return;
+        }
+        int entry = table.findOrAdd(player.getUniqueId());
+        if (table.sessionStartMillis(entry) == PlaytimeTable.OFFLINE) {
+            table.setSessionStartMillis(entry, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 退出時にセッションを終え、使用時間に加える
+     */
+    public void onQuit(Player player) {
+        int entry = table.find(player.getUniqueId());
+        if (entry != PlaytimeTable.NOT_FOUND) {
+            table.endSession(entry, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 参加中のプレイヤーの残り時間を確認し、告知・キックする（1 秒ごと）
+     */
+    private void check() {
+        ConfigSnapshot config = configManager.snapshot();
+        PlaytimeSettings settings = config.playtime();
+        if (!settings.enabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        rollOverIfNeeded(now);
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            int entry = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (entry == PlaytimeTable.NOT_FOUND || table.sessionStartMillis(entry) == PlaytimeTable.OFFLINE) {
+                continue;
+            }
+            GroupResolver.Resolution resolution = groupResolver.cached(uuid, config);
+            if (resolution != null && resolution.bypass()) {
+                table.endSession(entry, now);
+                continue;
+            }
+
+            long remainingMillis = settings.dailyMillis() - table.totalMillis(entry, now);
+            if (remainingMillis <= 0) {
+                // 所属が未判定のプレイヤーはバイパス権限の可能性があるため、判定されるまで待つ
+                if (resolution != null) {
+                    player.kick(settings.exhaustedMessage()
+                            .render(Placeholder.PLAYER, player.getName()));
+                    metrics.recordKick();
+                    audit.record(AuditType.KICK, player, "playtime_exhausted");
+                }
+                continue;
+            }
+
+            // 告知時刻を過ぎた未告知の間隔をまとめて 1 回の告知にする
+            int minutesRemaining = (int) ((remainingMillis + MILLIS_PER_MINUTE - 1) / MILLIS_PER_MINUTE);
+            int warned = table.warnedMinutes(entry);
+            int due = PlaytimeTable.NOT_WARNED;
+            for (int interval : config.warningIntervals()) {
+                if (minutesRemaining <= interval && interval < warned) {
+                    due = Math.min(due, interval);
+                }
+            }
+            if (due != PlaytimeTable.NOT_WARNED) {
+                table.setWarnedMinutes(entry, due);
+                player.sendMessage(
+                        settings.warningMessage().render(Placeholder.MINUTES, String.valueOf(minutesRemaining)));
+            }
+        }
+    }
+
+    /**
+     * 現在の使用時間を写し取り、非同期で保存する
+     */
+    private void flush() {
+        long now = System.currentTimeMillis();
+        int size = table.size();
+        long[] records = new long[size * PlaytimeStore.RECORD_LONGS];
+        int count = 0;
+        for (int entry = 0; entry < size; entry++) {
+            long total = table.totalMillis(entry, now);
+            if (total == 0) {
+                continue;
+            }
+            int offset = count++ * PlaytimeStore.RECORD_LONGS;
+            records[offset] = table.keyHigh(entry);
+            records[offset + 1] = table.keyLow(entry);
+            records[offset + 2] = total;
+        }
+        store.save(currentDay, records, count);
+    }
+
+    /**
+     * 日付が切り替わっていれば使用時間をリセットする
+     */
+    private void rollOverIfNeeded(long nowMillis) {
+        if (nowMillis < nextResetMillis) {
+            return;
+        }
+        table.resetUsage(nowMillis);
+        scheduleReset(configManager.snapshot().timezone(), nowMillis);
+        logger.info("日付が変わったため、プレイ時間をリセットしました。");
+        flush();
+    }
+
+    /**
+     * 指定時刻の日付と、次に日付が切り替わる時刻を設定のタイムゾーンで求める
+     */
+    private void scheduleReset(ZoneId zone, long nowMillis) {
+        ZonedDateTime now = ZonedDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), zone);
+        LocalDate today = now.toLocalDate();
+        currentDay = today.toEpochDay();
+        nextResetMillis = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,154 @@
+package dev.timegateplugin.timegate.schedule;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+
+/**
+ * 曜日ベースのスケジュール・繰り返し規則のスケジュール・日付指定の例外を組み合わせた、コンパイル済みスケジュール
+ * <p>
+ * 例外の期間中は例外の状態が、それ以外は曜日ベースと繰り返し規則のいずれかで開放中なら開放が適用される。
+ * 時刻はローカル日時（タイムゾーン変換前の壁時計）で扱う。
+ */
+public final class CompiledSchedule {
+
+    /** 次の切り替えを探す際の探索区間数の上限（無限ループ防止） */
+    private static final int MAX_EDGE_SEARCH_STEPS = 100_000;
+
+    /** 1970-01-01 は木曜日のため、月曜 00:00 を 0 とする週内の分へのずれ */
+    private static final int EPOCH_MINUTE_OF_WEEK = 3 * ScheduleIndex.MINUTES_PER_DAY;
+
+    private final ScheduleIndex weekly;
+    private final RuleIndex rules;
+    private final ExceptionIndex exceptions;
+
+    public CompiledSchedule(ScheduleIndex weekly, RuleIndex rules, ExceptionIndex exceptions) {
+        this.weekly = weekly;
+        this.rules = rules;
+        this.exceptions = exceptions;
+    }
+
+    public ScheduleIndex weekly() {
+        return weekly;
+    }
+
+    public RuleIndex rules() {
+        return rules;
+    }
+
+    public ExceptionIndex exceptions() {
+        return exceptions;
+    }
+
+    /**
+     * 指定したローカル日時が開放時間内かどうか
+     */
+    public boolean isOpen(LocalDateTime time) {
+        return isOpen(toLocalMinute(time));
+    }
+
+    /**
+     * 指定したローカル日時より後で、最初に状態が切り替わる日時を返す
+     *
+     * @return 切り替え日時（分単位）。切り替えがなければ null
+     */
+    public LocalDateTime findNextEdge(LocalDateTime time) {
+        long edge = findNextEdge(toLocalMinute(time));
+        return edge == Long.MAX_VALUE ? null : fromLocalMinute(edge);
+    }
+
+    /**
+     * 指定した時刻より後で、最初に状態が切り替わる実時刻を返す
+     * <p>
+     * スケジュールは壁時計基準なので、ローカル日時で求めてから実時刻へ変換する。
+     *
+     * @return 切り替え時刻。常時開放・常時閉鎖で切り替えがなければ null
+     */
+    public Instant findNextEdge(ZonedDateTime now) {
+        LocalDateTime edge = findNextEdge(now.toLocalDateTime());
+        if (edge == null) {
+            return null;
+        }
+        return toInstantAfter(edge, now.getZone(), now.toInstant());
+    }
+
+    /**
+     * ローカル日時を、基準時刻より後の実時刻に変換する（夏時間の切り替えを考慮）
+     * <p>
+     * 時計が進む切り替え（存在しない時刻）の場合は切り替えの瞬間を、
+     * 時計が戻る切り替え（2 回ある時刻）の場合は基準時刻より後の方を返す。
+     */
+    public static Instant toInstantAfter(LocalDateTime local, ZoneId zone, Instant after) {
+        ZoneOffsetTransition transition = zone.getRules().getTransition(local);
+        if (transition != null && transition.isGap()) {
+            return transition.getInstant();
+        }
+
+        ZonedDateTime zoned = local.atZone(zone);
+        if (!zoned.toInstant().isAfter(after)) {
+            zoned = zoned.withLaterOffsetAtOverlap();
+        }
+        return zoned.toInstant();
+    }
+
+    private boolean isOpen(long localMinute) {
+        int segment = exceptions.find(localMinute);
+        if (segment != ExceptionIndex.NONE) {
+            return exceptions.stateOf(segment) == GateState.OPEN;
+        }
+        return weekly.isOpen(minuteOfWeek(localMinute)) || rules.isOpen(localMinute);
+    }
+
+    /**
+     * 例外区間の境界・曜日スケジュールの切り替え点・繰り返し規則の境界を順にたどり、実際に状態が変わる分を探す
+     */
+    private long findNextEdge(long localMinute) {
+        boolean current = isOpen(localMinute);
+        long position = localMinute;
+
+        for (int step = 0; step < MAX_EDGE_SEARCH_STEPS; step++) {
+            long next;
+            int segment = exceptions.find(position);
+            if (segment != ExceptionIndex.NONE) {
+                // 例外区間内: 区間の終わりまで状態は変わらない
+                next = exceptions.endOf(segment);
+            } else {
+                // 曜日スケジュールの次の切り替え・繰り返し規則の次の境界・次の例外区間の開始のうち最も早いもの
+                int untilEdge = weekly.getMinutesUntilEdge(minuteOfWeek(position));
+                long weeklyEdge = untilEdge == ScheduleIndex.NO_EDGE ? Long.MAX_VALUE : position + untilEdge;
+                next = Math.min(Math.min(weeklyEdge, rules.nextBoundaryAfter(position)),
+                        exceptions.nextStartAfter(position));
+            }
+
+            if (next == Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            if (isOpen(next) != current) {
+                return next;
+            }
+            position = next;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * ローカル日時を「エポック分」（1970-01-01 00:00 からの分数、タイムゾーン変換なし）に変換する
+     */
+    public static long toLocalMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * 「エポック分」をローカル日時に戻す
+     */
+    public static LocalDateTime fromLocalMinute(long localMinute) {
+        return LocalDateTime.ofEpochSecond(localMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static int minuteOfWeek(long localMinute) {
+        return (int) Math.floorMod(localMinute + EPOCH_MINUTE_OF_WEEK, (long) ScheduleIndex.MINUTES_PER_WEEK);
+    }
+}
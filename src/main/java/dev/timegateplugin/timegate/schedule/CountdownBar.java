@@ -0,0 +1,103 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.config.CountdownSettings;
+import dev.timegateplugin.timegate.util.MessageTemplate;
+import dev.timegateplugin.timegate.util.Placeholder;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 閉鎖前の残り時間を表示する共有 BossBar
+ * <p>
+ * 全プレイヤーが同じ 1 つの BossBar を閲覧し、更新は 1 秒に 1 回だけサーバー単位で行う。
+ * プレイヤーごとのメッセージ送信はしないため、毎秒の処理量はオンライン人数に依存しない。
+ */
+public class CountdownBar {
+
+    private static final long UPDATE_INTERVAL_TICKS = 20L;
+
+    private final JavaPlugin plugin;
+    private final Clock clock;
+
+    private BossBar bossBar;
+    private BukkitTask updateTask;
+    private Instant closeAt;
+    private long totalSeconds;
+    private MessageTemplate title;
+
+    public CountdownBar(JavaPlugin plugin, Clock clock) {
+        this.plugin = plugin;
+        this.clock = clock;
+    }
+
+    /**
+     * カウントダウンを開始する。同じ閉鎖時刻で表示中であれば何もしない
+     *
+     * @param closeAt  閉鎖時刻
+     * @param settings カウントダウン設定
+     */
+    public void start(Instant closeAt, CountdownSettings settings) {
+        if (isActive() && closeAt.equals(this.closeAt)) {
+            return;
+        }
+        stop();
+
+        this.closeAt = closeAt;
+        this.totalSeconds = Math.max(1L, settings.minutes() * 60L);
+        this.title = settings.title();
+        this.bossBar = BossBar.bossBar(Component.empty(), 1f, settings.color(), settings.overlay());
+        update();
+
+        Bukkit.getServer().showBossBar(bossBar);
+        updateTask = Bukkit.getScheduler().runTaskTimer(plugin, this::update,
+                UPDATE_INTERVAL_TICKS, UPDATE_INTERVAL_TICKS);
+    }
+
+    /**
+     * カウントダウンを終了し、BossBar を非表示にする
+     */
+    public void stop() {
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+        if (bossBar != null) {
+            Bukkit.getServer().hideBossBar(bossBar);
+            bossBar = null;
+        }
+        closeAt = null;
+    }
+
+    public boolean isActive() {
+        return bossBar != null;
+    }
+
+    /**
+     * 途中から参加したプレイヤーにも表示する
+     */
+    public void showTo(Player player) {
+        if (bossBar != null) {
+            player.showBossBar(bossBar);
+        }
+    }
+
+    private void update() {
+        long remaining = Math.max(0L, Duration.between(clock.instant(), closeAt).toSeconds());
+        String time = String.format("%d:%02d", remaining / 60, remaining % 60);
+
+        bossBar.name(title.render(Placeholder.TIME, time));
+        bossBar.progress(Math.min(1f, (float) remaining / totalSeconds));
+
+        if (remaining == 0) {
+            stop();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.timegateplugin.timegate.schedule;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日付指定の例外（祝日・イベント日・メンテナンス日など）を表すレコード
+ * <p>
+ * 期間中は曜日ベースのスケジュールより優先して、指定した状態になる。
+ *
+ * @param start 開始日時（この時刻を含む）
+ * @param end   終了日時（この時刻を含まない）
+ * @param state 期間中の状態
+ */
+public record DateException(LocalDateTime start, LocalDateTime end, GateState state) {
+
+    public DateException {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("終了日時は開始日時より後である必要があります: " + start + " 〜 " + end);
+        }
+    }
+}
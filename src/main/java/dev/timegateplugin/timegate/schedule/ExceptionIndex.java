@@ -0,0 +1,149 @@
+package dev.timegateplugin.timegate.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 日付指定の例外をソート済みの区間配列にまとめたインデックス
+ * <p>
+ * 重なり合う例外は、設定で後に書かれたものを優先して重なりのない区間に分解し、
+ * 同じ状態で隣接する区間は結合する。検索は二分探索のため、1 年分の例外があっても高速に引ける。
+ * 時刻はすべてローカル日時の「エポック分」({@link CompiledSchedule#toLocalMinute}) で扱う。
+ */
+public final class ExceptionIndex {
+
+    /** 区間に該当しない場合の値 */
+    public static final int NONE = -1;
+
+    private static final ExceptionIndex EMPTY = new ExceptionIndex(new long[0], new long[0], new GateState[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final GateState[] states;
+
+    private ExceptionIndex(long[] starts, long[] ends, GateState[] states) {
+        this.starts = starts;
+        this.ends = ends;
+        this.states = states;
+    }
+
+    public static ExceptionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 例外一覧からインデックスを構築する
+     *
+     * @param exceptions 例外一覧（後のものほど優先）
+     * @return コンパイル済みインデックス
+     */
+    public static ExceptionIndex compile(List<DateException> exceptions) {
+        if (exceptions.isEmpty()) {
+            return EMPTY;
+        }
+
+        int n = exceptions.size();
+        long[] exStarts = new long[n];
+        long[] exEnds = new long[n];
+        TreeSet<Long> boundaries = new TreeSet<>();
+        for (int i = 0; i < n; i++) {
+            DateException exception = exceptions.get(i);
+            exStarts[i] = CompiledSchedule.toLocalMinute(exception.start());
+            exEnds[i] = CompiledSchedule.toLocalMinute(exception.end());
+            boundaries.add(exStarts[i]);
+            boundaries.add(exEnds[i]);
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        List<GateState> rangeStates = new ArrayList<>();
+        Long from = null;
+        for (Long to : boundaries) {
+            if (from != null) {
+                // 区間 [from, to) を覆う例外のうち最も後のもの
+                GateState state = null;
+                for (int i = n - 1; i >= 0; i--) {
+                    if (exStarts[i] <= from && from < exEnds[i]) {
+                        state = exceptions.get(i).state();
+                        break;
+                    }
+                }
+
+                if (state != null) {
+                    int last = ranges.size() - 1;
+                    if (last >= 0 && ranges.get(last)[1] == from && rangeStates.get(last) == state) {
+                        ranges.get(last)[1] = to;
+                    } else {
+                        ranges.add(new long[]{from, to});
+                        rangeStates.add(state);
+                    }
+                }
+            }
+            from = to;
+        }
+
+        long[] starts = new long[ranges.size()];
+        long[] ends = new long[ranges.size()];
+        GateState[] states = new GateState[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            starts[i] = ranges.get(i)[0];
+            ends[i] = ranges.get(i)[1];
+            states[i] = rangeStates.get(i);
+        }
+        return new ExceptionIndex(starts, ends, states);
+    }
+
+    /**
+     * 指定した時刻を含む区間の番号を返す
+     *
+     * @return 区間番号。該当なしなら {@link #NONE}
+     */
+    public int find(long localMinute) {
+        int i = lastStartAtOrBefore(localMinute);
+        return i >= 0 && localMinute < ends[i] ? i : NONE;
+    }
+
+    /**
+     * 指定した時刻より後に始まる最初の区間の開始時刻を返す
+     *
+     * @return 開始時刻。なければ {@link Long#MAX_VALUE}
+     */
+    public long nextStartAfter(long localMinute) {
+        int i = lastStartAtOrBefore(localMinute) + 1;
+        return i < starts.length ? starts[i] : Long.MAX_VALUE;
+    }
+
+    public GateState stateOf(int segment) {
+        return states[segment];
+    }
+
+    public long endOf(int segment) {
+        return ends[segment];
+    }
+
+    /**
+     * 区間の数（重なりを分解・結合した後の数）
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * start <= localMinute となる最後の区間番号（なければ -1）
+     */
+    private int lastStartAtOrBefore(long localMinute) {
+        int low = 0;
+        int high = starts.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= localMinute) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+}
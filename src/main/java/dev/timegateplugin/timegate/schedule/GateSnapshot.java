@@ -0,0 +1,36 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * ゲート状態の不変スナップショット
+ * <p>
+ * 状態の判定に使った設定とその結果をひとまとめにしたもの。
+ * {@link ScheduleManager} が遷移・オーバーライド変更・リロードのたびに丸ごと差し替えるため、
+ * Ping やログインの非同期処理からもロックなしで一貫した値を読み取れる。
+ *
+ * @param config            判定に使った設定
+ * @param state             ゲート状態（どのグループにも属さないプレイヤーに対する状態）
+ * @param groupStates       アクセスグループごとの状態（{@link ConfigSnapshot#groups()} と同じ順）
+ * @param override          オーバーライドモード
+ * @param overrideExpiresAt オーバーライドの期限（期限なし、または自動モードの場合は null）
+ */
+public record GateSnapshot(ConfigSnapshot config, GateState state, List<GateState> groupStates,
+        ScheduleManager.OverrideMode override, Instant overrideExpiresAt) {
+
+    public GateSnapshot {
+        groupStates = List.copyOf(groupStates);
+    }
+
+    /**
+     * 指定したグループに対する状態を返す
+     *
+     * @param group グループの番号。どのグループにも属さない場合は負の値
+     */
+    public GateState stateOf(int group) {
+        return group >= 0 && group < groupStates.size() ? groupStates.get(group) : state;
+    }
+}
@@ -0,0 +1,179 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.config.IdleSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.GameRule;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 閉鎖中の省電力モード
+ * <p>
+ * 閉鎖中にバイパス権限を持つプレイヤーしかいない間、各ワールドの描画距離・シミュレーション距離を下げ、
+ * 設定したゲームルールを適用し、読み込み中のチャンクのアンロードを要求する。
+ * あわせて、重い処理を止めるためのコマンドをコンソールから実行する。
+ * 変更前の値はワールドごとに記録しておき、開放時（または一般プレイヤーの参加時）に元に戻す。
+ * <p>
+ * ワールド自体のアンロードは、再読み込みに他のプラグインとの調整が必要になるため行わない。
+ * スポーンチャンクやチケットで維持されているチャンクはサーバー側で読み込みが維持される。
+ */
+public class IdleMode {
+
+    /** 描画距離・シミュレーション距離としてサーバーが受け付ける範囲 */
+    private static final int MIN_DISTANCE = 2;
+    private static final int MAX_DISTANCE = 32;
+
+    /**
+     * 省電力モードに入る前のワールドの設定
+     */
+    private record SavedWorld(int viewDistance, int simulationDistance, Map<GameRule<?>, Object> gameRules) {
+    }
+
+    private final Logger logger;
+
+    /** 省電力モード中に変更したワールド（ワールド名 → 変更前の設定）。省電力モードでなければ null */
+    private Map<String, SavedWorld> saved;
+    private IdleSettings active;
+
+    public IdleMode(JavaPlugin plugin) {
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 省電力モード中かどうか
+     */
+    public boolean isIdle() {
+        return saved != null;
+    }
+
+    /**
+     * 省電力モードに入る（メインスレッド）。同じ設定ですでに省電力モードであれば何もせず、
+     * 設定が変わっていれば元に戻してから適用し直す
+     */
+    public void enter(IdleSettings settings) {
+        if (saved != null) {
+            if (settings.equals(active)) {
+                return;
+            }
+            exit();
+        }
+        saved = new HashMap<>();
+        active = settings;
+
+        int loadedBefore = 0;
+        int unloadRequested = 0;
+        for (World world : Bukkit.getWorlds()) {
+            saved.put(world.getName(), apply(world, settings));
+            Chunk[] chunks = world.getLoadedChunks();
+            loadedBefore += chunks.length;
+            if (settings.unloadChunks()) {
+                unloadRequested += requestUnload(world, chunks);
+            }
+        }
+        dispatch(settings.idleCommands());
+
+        logger.info("閉鎖中のため省電力モードに入りました: ワールド " + saved.size() + " 個, 読み込み中のチャンク "
+                + loadedBefore + " 個のうち " + unloadRequested + " 個のアンロードを要求");
+    }
+
+    /**
+     * 省電力モードを終了し、変更した設定を元に戻す（メインスレッド）。省電力モードでなければ何もしない
+     */
+    public void exit() {
+        if (saved == null) {
+            return;
+        }
+        for (Map.Entry<String, SavedWorld> entry : saved.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world != null) {
+                restore(world, entry.getValue());
+            }
+        }
+        dispatch(active.resumeCommands());
+
+        int loaded = 0;
+        for (World world : Bukkit.getWorlds()) {
+            loaded += world.getLoadedChunks().length;
+        }
+        logger.info("省電力モードを終了しました: 読み込み中のチャンク " + loaded + " 個");
+        saved = null;
+        active = null;
+    }
+
+    /**
+     * ワールドに省電力モードの設定を適用し、変更前の設定を返す
+     */
+    private SavedWorld apply(World world, IdleSettings settings) {
+        SavedWorld before = new SavedWorld(world.getViewDistance(), world.getSimulationDistance(), new HashMap<>());
+        if (settings.viewDistance() > 0) {
+            world.setViewDistance(clampDistance(settings.viewDistance()));
+        }
+        if (settings.simulationDistance() > 0) {
+            world.setSimulationDistance(clampDistance(settings.simulationDistance()));
+        }
+        for (Map.Entry<String, Object> entry : settings.gameRules().entrySet()) {
+            GameRule<?> rule = GameRule.getByName(entry.getKey());
+            if (rule != null) {
+                before.gameRules().put(rule, world.getGameRuleValue(rule));
+                setGameRule(world, rule, entry.getValue());
+            }
+        }
+        return before;
+    }
+
+    private static void restore(World world, SavedWorld before) {
+        world.setViewDistance(before.viewDistance());
+        world.setSimulationDistance(before.simulationDistance());
+        for (Map.Entry<GameRule<?>, Object> entry : before.gameRules().entrySet()) {
+            setGameRule(world, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * プラグインチケットのないチャンクのアンロードを要求する。
+     * プレイヤーの周囲やスポーン周辺など、サーバーが維持しているチャンクは読み込まれたまま残る
+     *
+     * @return アンロードを要求したチャンク数
+     */
+    private static int requestUnload(World world, Chunk[] chunks) {
+        List<Chunk> targets = new ArrayList<>(chunks.length);
+        for (Chunk chunk : chunks) {
+            if (!chunk.isForceLoaded() && chunk.getPluginChunkTickets().isEmpty()) {
+                targets.add(chunk);
+            }
+        }
+        for (Chunk chunk : targets) {
+            world.unloadChunkRequest(chunk.getX(), chunk.getZ());
+        }
+        return targets.size();
+    }
+
+    private void dispatch(List<String> commands) {
+        for (String command : commands) {
+            try {
+                Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+            } catch (RuntimeException e) {
+                logger.warning("コマンドの実行に失敗しました: " + command + " (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    private static int clampDistance(int distance) {
+        return Math.max(MIN_DISTANCE, Math.min(MAX_DISTANCE, distance));
+    }
+
+    /**
+     * 型が検証済みの値でゲームルールを設定する
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void setGameRule(World world, GameRule<T> rule, Object value) {
+        world.setGameRule(rule, (T) value);
+    }
+}
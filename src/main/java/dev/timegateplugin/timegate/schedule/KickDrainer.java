@@ -0,0 +1,129 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.audit.AuditLog;
+import dev.timegateplugin.timegate.audit.AuditType;
+import dev.timegateplugin.timegate.config.ConfigManager;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.util.MessageTemplate;
+import dev.timegateplugin.timegate.util.Placeholder;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * 閉鎖時のキックを複数 tick に分散して行うクラス
+ * <p>
+ * 閉鎖時点でキック対象のプレイヤー（バイパス権限がなく、所属グループも閉鎖中）を列に積み、
+ * 1 tick あたり数人ずつキックする。
+ * 切断・データ保存の負荷が 1 tick に集中するのを防ぐ。
+ */
+public class KickDrainer {
+
+    private static final long TICKS_PER_SECOND = 20L;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final GateMetrics metrics;
+    private final AuditLog audit;
+    private final Logger logger;
+
+    private final Deque<UUID> queue = new ArrayDeque<>();
+    private BukkitTask task;
+    private Predicate<Player> confirm;
+    private MessageTemplate kickMessage;
+    private int batchSize;
+    private int total;
+    private int drained;
+    private long elapsedTicks;
+
+    public KickDrainer(JavaPlugin plugin, ConfigManager configManager, GateMetrics metrics, AuditLog audit) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.metrics = metrics;
+        this.audit = audit;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * キック対象のオンラインプレイヤーのキックを開始する。進行中のキックは対象を選び直す
+     *
+     * @param select  開始時に全員に対して行う、キック対象の選定（キャッシュだけで判定するもの）
+     * @param confirm キックの直前に 1 人ずつ行う判定（権限を判定し直してよいもの）
+     */
+    public void start(Predicate<Player> select, Predicate<Player> confirm) {
+        cancel();
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (select.test(player)) {
+                queue.add(player.getUniqueId());
+            }
+        }
+        if (queue.isEmpty()) {
+            return;
+        }
+        this.confirm = confirm;
+
+        total = queue.size();
+        drained = 0;
+        elapsedTicks = 0;
+        ConfigSnapshot config = configManager.snapshot();
+        kickMessage = config.kickMessage();
+
+        // spread-seconds 以内に終わるペースを基本とし、players-per-tick を上限とする
+        long spreadTicks = Math.max(1L, config.kickDrainSpreadSeconds() * TICKS_PER_SECOND);
+        int perTick = Math.max(1, config.kickDrainPlayersPerTick());
+        batchSize = (int) Math.min(perTick, Math.max(1L, (total + spreadTicks - 1) / spreadTicks));
+
+        logger.info("閉鎖に伴うキックを開始します: 対象 " + total + " 人 (" + batchSize + " 人/tick)");
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::drainBatch, 1L, 1L);
+    }
+
+    /**
+     * 進行中のキックを中止する（開放に戻った場合など）
+     */
+    public void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+            if (!queue.isEmpty()) {
+                logger.info("閉鎖に伴うキックを中止しました: " + drained + "/" + total + " 人");
+            }
+        }
+        queue.clear();
+    }
+
+    private void drainBatch() {
+        elapsedTicks++;
+        int kicked = 0;
+        while (kicked < batchSize && !queue.isEmpty()) {
+            Player player = Bukkit.getPlayer(queue.poll());
+            // 途中で退出した、または開放に戻ったなどで対象外になったプレイヤーはスキップ
+            if (player == null || !confirm.test(player)) {
+                total--;
+                continue;
+            }
+            player.kick(kickMessage.render(Placeholder.PLAYER, player.getName()));
+            metrics.recordKick();
+            audit.record(AuditType.KICK, player, "gate_closed");
+            drained++;
+            kicked++;
+        }
+
+        if (queue.isEmpty()) {
+            logger.info("閉鎖に伴うキックが完了しました: " + drained + " 人 ("
+                    + elapsedTicks + " tick)");
+            task.cancel();
+            task = null;
+        } else if (elapsedTicks % TICKS_PER_SECOND == 0) {
+            logger.info("閉鎖に伴うキック進行中: " + drained + "/" + total + " 人");
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.schedule.ScheduleManager.OverrideMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * オーバーライドモードを再起動・クラッシュ後も保持するための追記型ジャーナル
+ * <p>
+ * 変更のたびに 1 行（{@code <記録時刻> <モード> <期限 or ->}、時刻はエポックミリ秒）を追記し、
+ * 読み込み時は最後の正しい行を採用する。書き込みと fsync は専用の 1 スレッドで行い、
+ * メインスレッドはディスク I/O を待たない。
+ * 一定回数追記するごとに、最新の 1 行だけのファイルへ置き換えて圧縮する。
+ */
+public class OverrideJournal {
+
+    /**
+     * ジャーナルに記録されたオーバーライド
+     *
+     * @param mode      オーバーライドモード
+     * @param expiresAt 期限（期限なしの場合は null）
+     */
+    public record Entry(OverrideMode mode, Instant expiresAt) {
+    }
+
+    /** この回数だけ追記するごとに圧縮する */
+    private static final int COMPACT_THRESHOLD = 64;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final Path path;
+    private final Logger logger;
+
+    private ExecutorService writer;
+
+    // 以下は書き込みスレッドからのみ触る
+    private FileChannel channel;
+    private Entry latest;
+    private int appendsSinceCompact;
+
+    public OverrideJournal(Path path, Logger logger) {
+        this.path = path;
+        this.logger = logger;
+    }
+
+    /**
+     * ジャーナルを読み込み、書き込みスレッドを開始する
+     * <p>
+     * 読み込み後、途中で途切れた行などを取り除くため、最初の書き込みとして圧縮を行う。
+     *
+     * @return 最後に記録されたオーバーライド。記録がなければ null
+     */
+    public Entry open() {
+        Entry restored = replay();
+
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(() -> {
+            latest = restored;
+            compact();
+        });
+        return restored;
+    }
+
+    /**
+     * オーバーライドの変更を追記する（書き込みは非同期）
+     */
+    public void append(OverrideMode mode, Instant expiresAt) {
+        if (writer == null) {
+            return;
+        }
+        Entry entry = new Entry(mode, expiresAt);
+        long recordedAt = System.currentTimeMillis();
+        try {
+            writer.execute(() -> write(entry, recordedAt));
+        } catch (RejectedExecutionException e) {
+            logger.warning("ジャーナルが閉じられているため、オーバーライドを記録できませんでした: " + mode);
+        }
+    }
+
+    /**
+     * 未処理の書き込みを済ませてから閉じる
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.execute(this::closeChannel);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("ジャーナルの書き込みが時間内に終わりませんでした。");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * ジャーナルを読み込み、最後の正しい行を返す
+     */
+    private Entry replay() {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warning("ジャーナルを読み込めませんでした (" + path + "): " + e.getMessage());
+            return null;
+        }
+
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            Entry entry = parse(lines.get(i));
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static Entry parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            OverrideMode mode = OverrideMode.valueOf(parts[1]);
+            Instant expiresAt = parts[2].equals("-") ? null : Instant.ofEpochMilli(Long.parseLong(parts[2]));
+            return new Entry(mode, expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String format(Entry entry, long recordedAt) {
+        String expiresAt = entry.expiresAt() != null ? String.valueOf(entry.expiresAt().toEpochMilli()) : "-";
+        return recordedAt + " " + entry.mode().name() + " " + expiresAt + "\n";
+    }
+
+    /**
+     * 1 行追記して fsync する（書き込みスレッド）
+     */
+    private void write(Entry entry, long recordedAt) {
+        latest = entry;
+        try {
+            if (channel == null) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            channel.write(ByteBuffer.wrap(format(entry, recordedAt).getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        } catch (IOException e) {
+            logger.warning("ジャーナルへの書き込みに失敗しました: " + e.getMessage());
+            closeChannel();
+            return;
+        }
+
+        if (++appendsSinceCompact >= COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * 最新の 1 行だけを一時ファイルに書き出し、ジャーナルと置き換える（書き込みスレッド）
+     */
+    private void compact() {
+        appendsSinceCompact = 0;
+        closeChannel();
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            if (latest == null) {
+                Files.deleteIfExists(path);
+                return;
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.wrap(
+                        format(latest, System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8)));
+                out.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("ジャーナルの圧縮に失敗しました: " + e.getMessage());
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("ジャーナルを閉じられませんでした: " + e.getMessage());
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,137 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.config.PreCloseSaveSettings;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * 閉鎖前に、プレイヤーデータとワールドの保存を複数 tick に分散して済ませておくクラス
+ * <p>
+ * 最後の閉鎖前告知のタイミングで開始し、1 tick あたり数人ずつプレイヤーデータを保存したあと、
+ * 数 tick おきにワールドを 1 つずつ保存する。閉鎖時のキックの時点では書き出しが済んでおり、
+ * 保存の負荷が閉鎖の tick に集中しない。
+ * 完了時に、保存にかかった時間（メインスレッドでの処理時間の合計と 1 tick の最大値）を報告する。
+ */
+public class PreCloseSaver {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final JavaPlugin plugin;
+    private final GateMetrics metrics;
+    private final Logger logger;
+
+    private final Deque<UUID> players = new ArrayDeque<>();
+    private final Deque<String> worlds = new ArrayDeque<>();
+    /** 保存済みの閉鎖予定時刻（同じ閉鎖に対して 2 回行わない） */
+    private Instant savedFor;
+    private BukkitTask task;
+    private int playersPerTick;
+    private int worldIntervalTicks;
+    private int playersSaved;
+    private int worldsSaved;
+    private long elapsedTicks;
+    private long ticksUntilNextWorld;
+    private long busyNanos;
+    private long maxTickNanos;
+
+    public PreCloseSaver(JavaPlugin plugin, GateMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 指定した閉鎖に向けた保存を開始する（メインスレッド）。同じ閉鎖に対しては何もしない
+     */
+    public void start(Instant closeAt, PreCloseSaveSettings settings) {
+        if (closeAt.equals(savedFor)) {
+            return;
+        }
+        cancel();
+        savedFor = closeAt;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            players.add(player.getUniqueId());
+        }
+        for (World world : Bukkit.getWorlds()) {
+            worlds.add(world.getName());
+        }
+        playersPerTick = Math.max(1, settings.playersPerTick());
+        worldIntervalTicks = Math.max(1, settings.worldIntervalTicks());
+        playersSaved = 0;
+        worldsSaved = 0;
+        elapsedTicks = 0;
+        ticksUntilNextWorld = 0;
+        busyNanos = 0;
+        maxTickNanos = 0;
+
+        logger.info("閉鎖前の保存を開始します: プレイヤー " + players.size() + " 人, ワールド "
+                + worlds.size() + " 個 (" + playersPerTick + " 人/tick, ワールドは "
+                + worldIntervalTicks + " tick おき)");
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::saveBatch, 1L, 1L);
+    }
+
+    /**
+     * 進行中の保存を中止する
+     */
+    public void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+            logger.info("閉鎖前の保存を中止しました: プレイヤー " + playersSaved + " 人, ワールド "
+                    + worldsSaved + " 個");
+        }
+        players.clear();
+        worlds.clear();
+        savedFor = null;
+    }
+
+    private void saveBatch() {
+        elapsedTicks++;
+        long startNanos = System.nanoTime();
+
+        if (!players.isEmpty()) {
+            // プレイヤーデータは軽いので先にまとめて済ませる
+            int saved = 0;
+            while (saved < playersPerTick && !players.isEmpty()) {
+                Player player = Bukkit.getPlayer(players.poll());
+                // 途中で退出したプレイヤーは退出時に保存済み
+                if (player != null) {
+                    player.saveData();
+                    playersSaved++;
+                    saved++;
+                }
+            }
+        } else if (!worlds.isEmpty() && --ticksUntilNextWorld <= 0) {
+            World world = Bukkit.getWorld(worlds.poll());
+            if (world != null) {
+                world.save();
+                worldsSaved++;
+            }
+            ticksUntilNextWorld = worldIntervalTicks;
+        }
+
+        long tickNanos = System.nanoTime() - startNanos;
+        busyNanos += tickNanos;
+        maxTickNanos = Math.max(maxTickNanos, tickNanos);
+
+        if (players.isEmpty() && worlds.isEmpty()) {
+            logger.info("閉鎖前の保存が完了しました: プレイヤー " + playersSaved + " 人, ワールド "
+                    + worldsSaved + " 個 (処理時間 " + busyNanos / NANOS_PER_MILLI + "ms, 1 tick の最大 "
+                    + maxTickNanos / NANOS_PER_MILLI + "ms, " + elapsedTicks + " tick)");
+            metrics.recordPreCloseSave(busyNanos, maxTickNanos);
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package dev.timegateplugin.timegate.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 日付の繰り返し規則（iCalendar の RRULE の一部に準じた書式）
+ * <p>
+ * {@code FREQ=MONTHLY;BYDAY=1SA}（毎月第 1 土曜）、{@code FREQ=WEEKLY;INTERVAL=2;BYDAY=FR;DTSTART=2026-01-02}
+ * （隔週金曜）のように、{@code ;} 区切りの {@code 名前=値} で指定する。
+ * <ul>
+ *   <li>{@code FREQ}: DAILY / WEEKLY / MONTHLY / YEARLY（必須）</li>
+ *   <li>{@code INTERVAL}: 何回に 1 回か（省略時 1。2 以上の場合は DTSTART が必要）</li>
+ *   <li>{@code DTSTART} / {@code UNTIL}: 適用する期間（両端を含む。YYYY-MM-DD または YYYYMMDD）</li>
+ *   <li>{@code BYDAY}: 曜日（MO〜SU）。月内の何番目かを前に付けられる（1SA = 第 1 土曜, -1FR = 最終金曜）</li>
+ *   <li>{@code BYMONTHDAY}: 日（負の値は月末から数える。-1 = 月末日）</li>
+ *   <li>{@code BYMONTH}: 月（1〜12）</li>
+ * </ul>
+ * BY で始まる指定はすべて満たす日だけが該当する。WEEKLY・MONTHLY・YEARLY で日付の指定がなければ、
+ * RRULE と同様に DTSTART の曜日・日・月日を使う。
+ * 判定は日付ごとの計算のみで、インデックス化は {@link RuleIndex} が行う。
+ */
+public final class RecurrenceRule {
+
+    /**
+     * 繰り返しの単位
+     */
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final String source;
+    private final Frequency frequency;
+    private final int interval;
+    private final LocalDate start;
+    private final LocalDate until;
+    /** BYDAY の曜日（1〜7）と月内の順番（0 は順番の指定なし） */
+    private final int[] byDayOfWeek;
+    private final int[] byDayOrdinal;
+    private final int[] byMonthDay;
+    private final int[] byMonth;
+
+    private RecurrenceRule(String source, Frequency frequency, int interval, LocalDate start, LocalDate until,
+            int[] byDayOfWeek, int[] byDayOrdinal, int[] byMonthDay, int[] byMonth) {
+        this.source = source;
+        this.frequency = frequency;
+        this.interval = interval;
+        this.start = start;
+        this.until = until;
+        this.byDayOfWeek = byDayOfWeek;
+        this.byDayOrdinal = byDayOrdinal;
+        this.byMonthDay = byMonthDay;
+        this.byMonth = byMonth;
+    }
+
+    /**
+     * 規則の文字列を解釈する
+     *
+     * @throws IllegalArgumentException 書式が不正な場合
+     */
+    public static RecurrenceRule parse(String text) {
+        Frequency frequency = null;
+        int interval = 1;
+        LocalDate start = null;
+        LocalDate until = null;
+        List<int[]> byDay = new ArrayList<>();
+        int[] byMonthDay = new int[0];
+        int[] byMonth = new int[0];
+
+        for (String part : text.trim().split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("規則の項目は 名前=値 で指定してください: " + part);
+            }
+            String name = part.substring(0, eq).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(eq + 1).trim().toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "FREQ" -> {
+                    try {
+                        frequency = Frequency.valueOf(value);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("FREQ には DAILY / WEEKLY / MONTHLY / YEARLY を指定してください: "
+                                + value);
+                    }
+                }
+                case "INTERVAL" -> {
+                    interval = parseInt(name, value);
+                    if (interval < 1) {
+                        throw new IllegalArgumentException("INTERVAL には 1 以上を指定してください: " + value);
+                    }
+                }
+                case "DTSTART" -> start = parseDate(name, value);
+                case "UNTIL" -> until = parseDate(name, value);
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        byDay.add(parseDay(day.trim()));
+                    }
+                }
+                case "BYMONTHDAY" -> byMonthDay = parseList(name, value, -31, 31);
+                case "BYMONTH" -> byMonth = parseList(name, value, 1, 12);
+                default -> throw new IllegalArgumentException("未対応の項目です: " + name);
+            }
+        }
+
+        if (frequency == null) {
+            throw new IllegalArgumentException("FREQ が指定されていません: " + text);
+        }
+        if (interval > 1 && start == null) {
+            throw new IllegalArgumentException("INTERVAL を 2 以上にする場合は DTSTART で起点を指定してください: " + text);
+        }
+        if (start != null && until != null && until.isBefore(start)) {
+            throw new IllegalArgumentException("UNTIL が DTSTART より前です: " + text);
+        }
+
+        int[] byDayOfWeek = new int[byDay.size()];
+        int[] byDayOrdinal = new int[byDay.size()];
+        for (int i = 0; i < byDay.size(); i++) {
+            byDayOfWeek[i] = byDay.get(i)[0];
+            byDayOrdinal[i] = byDay.get(i)[1];
+            if (byDayOrdinal[i] != 0 && (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY)) {
+                throw new IllegalArgumentException("月内の順番付きの BYDAY は MONTHLY / YEARLY でのみ使えます: " + text);
+            }
+        }
+
+        // 日付の指定がなければ DTSTART から補う
+        boolean noDate = byDay.isEmpty() && byMonthDay.length == 0;
+        if (frequency != Frequency.DAILY && noDate && (frequency != Frequency.YEARLY || byMonth.length == 0)) {
+            if (start == null) {
+                throw new IllegalArgumentException("BYDAY / BYMONTHDAY を指定するか、DTSTART で起点を指定してください: "
+                        + text);
+            }
+            switch (frequency) {
+                case WEEKLY -> {
+                    byDayOfWeek = new int[] {start.getDayOfWeek().getValue()};
+                    byDayOrdinal = new int[] {0};
+                }
+                case MONTHLY -> byMonthDay = new int[] {start.getDayOfMonth()};
+                case YEARLY -> {
+                    byMonthDay = new int[] {start.getDayOfMonth()};
+                    byMonth = new int[] {start.getMonthValue()};
+                }
+                default -> {
+                }
+            }
+        }
+        return new RecurrenceRule(text.trim(), frequency, interval, start, until, byDayOfWeek, byDayOrdinal,
+                byMonthDay, byMonth);
+    }
+
+    /**
+     * 元の文字列
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * 適用期間の最終日（指定がなければ null）
+     */
+    public LocalDate until() {
+        return until;
+    }
+
+    /**
+     * 指定した日付が規則に該当するか
+     */
+    public boolean matches(LocalDate date) {
+        if (start != null && date.isBefore(start)) {
+            return false;
+        }
+        if (until != null && date.isAfter(until)) {
+            return false;
+        }
+        if (interval > 1 && periodsSinceStart(date) % interval != 0) {
+            return false;
+        }
+        if (byMonth.length > 0 && !contains(byMonth, date.getMonthValue())) {
+            return false;
+        }
+        if (byMonthDay.length > 0 && !matchesMonthDay(date)) {
+            return false;
+        }
+        return byDayOfWeek.length == 0 || matchesDay(date);
+    }
+
+    /**
+     * DTSTART から数えて何周期目か（INTERVAL の判定用）
+     */
+    private long periodsSinceStart(LocalDate date) {
+        return switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(start, date);
+            case WEEKLY -> ChronoUnit.DAYS.between(mondayOf(start), mondayOf(date)) / 7;
+            case MONTHLY -> (date.getYear() - start.getYear()) * 12L + date.getMonthValue() - start.getMonthValue();
+            case YEARLY -> date.getYear() - start.getYear();
+        };
+    }
+
+    private boolean matchesMonthDay(LocalDate date) {
+        int day = date.getDayOfMonth();
+        int fromEnd = day - date.lengthOfMonth() - 1;
+        for (int value : byMonthDay) {
+            if (value == day || value == fromEnd) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesDay(LocalDate date) {
+        int dayOfWeek = date.getDayOfWeek().getValue();
+        int ordinal = (date.getDayOfMonth() - 1) / 7 + 1;
+        int ordinalFromEnd = -((date.lengthOfMonth() - date.getDayOfMonth()) / 7 + 1);
+        for (int i = 0; i < byDayOfWeek.length; i++) {
+            if (byDayOfWeek[i] == dayOfWeek
+                    && (byDayOrdinal[i] == 0 || byDayOrdinal[i] == ordinal || byDayOrdinal[i] == ordinalFromEnd)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDate mondayOf(LocalDate date) {
+        return date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * BYDAY の 1 項目（例: SA, 1SA, -1FR）を {曜日, 順番} に変換する
+     */
+    private static int[] parseDay(String value) {
+        if (value.length() < 2) {
+            throw new IllegalArgumentException("BYDAY の値が不正です: " + value);
+        }
+        String code = value.substring(value.length() - 2);
+        int dayOfWeek = -1;
+        for (int i = 0; i < DAY_CODES.length; i++) {
+            if (DAY_CODES[i].equals(code)) {
+                dayOfWeek = i + 1;
+            }
+        }
+        if (dayOfWeek < 0) {
+            throw new IllegalArgumentException("BYDAY の曜日は MO〜SU で指定してください: " + value);
+        }
+        int ordinal = 0;
+        String prefix = value.substring(0, value.length() - 2);
+        if (!prefix.isEmpty()) {
+            ordinal = parseInt("BYDAY", prefix.startsWith("+") ? prefix.substring(1) : prefix);
+            if (ordinal == 0 || ordinal < -5 || ordinal > 5) {
+                throw new IllegalArgumentException("BYDAY の順番は 1〜5 または -1〜-5 で指定してください: " + value);
+            }
+        }
+        return new int[] {dayOfWeek, ordinal};
+    }
+
+    private static int[] parseList(String name, String value, int min, int max) {
+        String[] parts = value.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = parseInt(name, parts[i].trim());
+            if (values[i] == 0 || values[i] < min || values[i] > max) {
+                throw new IllegalArgumentException(name + " の値が範囲外です: " + parts[i].trim());
+            }
+        }
+        return values;
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " には整数を指定してください: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        String text = value.length() == 8 && value.indexOf('-') < 0
+                ? value.substring(0, 4) + "-" + value.substring(4, 6) + "-" + value.substring(6)
+                : value;
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " は YYYY-MM-DD 形式で指定してください: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
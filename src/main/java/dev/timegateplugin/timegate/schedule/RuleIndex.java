@@ -0,0 +1,178 @@
+package dev.timegateplugin.timegate.schedule;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 繰り返し規則のスケジュールを、日ごとのビット列にコンパイルしたインデックス
+ * <p>
+ * 読み込み時に、前後およそ 10 年分の各日が規則（と除外規則）に該当するかを 1 ビットずつ求めておく。
+ * 「開放中か」は該当日と前日のビットを見るだけで、「次の境界」は {@link BitSet#nextSetBit} で
+ * 次の該当日を引くだけで求まるため、分単位で時刻を進める必要がない。
+ * 範囲外の日付は規則を直接評価する。
+ * 時刻はすべてローカル日時の「エポック分」({@link CompiledSchedule#toLocalMinute}) で扱う。
+ */
+public final class RuleIndex {
+
+    /** コンパイル日より前に持つ日数 */
+    private static final int DAYS_BEFORE = 366;
+    /** コンパイル日以降に持つ日数 */
+    private static final int DAYS_AFTER = 10 * 366;
+    /** 範囲外で次の該当日を探す日数の上限 */
+    private static final int MAX_SCAN_DAYS = 10 * 366;
+
+    private static final long NO_DAY = Long.MAX_VALUE;
+    private static final RuleIndex EMPTY = new RuleIndex(List.of(), 0, new BitSet[0]);
+
+    private final ScheduleRule[] rules;
+    private final long firstDay;
+    /** 規則ごとの該当日（ビット番号 = エポック日 - firstDay） */
+    private final BitSet[] days;
+
+    private RuleIndex(List<ScheduleRule> rules, long firstDay, BitSet[] days) {
+        this.rules = rules.toArray(new ScheduleRule[0]);
+        this.firstDay = firstDay;
+        this.days = days;
+    }
+
+    public static RuleIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 規則の一覧からインデックスを構築する
+     *
+     * @param rules   規則の一覧
+     * @param baseDay ビット列の範囲の基準日（通常は今日。範囲外も正しく判定されるため、速度にのみ影響する）
+     */
+    public static RuleIndex compile(List<ScheduleRule> rules, LocalDate baseDay) {
+        if (rules.isEmpty()) {
+            return EMPTY;
+        }
+        long firstDay = baseDay.toEpochDay() - DAYS_BEFORE;
+        BitSet[] days = new BitSet[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            ScheduleRule rule = rules.get(i);
+            BitSet bits = new BitSet(DAYS_BEFORE + DAYS_AFTER);
+            for (int offset = 0; offset < DAYS_BEFORE + DAYS_AFTER; offset++) {
+                if (matchesDirect(rule, firstDay + offset)) {
+                    bits.set(offset);
+                }
+            }
+            days[i] = bits;
+        }
+        return new RuleIndex(rules, firstDay, days);
+    }
+
+    /**
+     * 規則の数
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * 基準日以降、インデックスの範囲内に該当日が 1 日もないかどうか（設定の検証用）
+     *
+     * @param index 規則の番号
+     */
+    public boolean hasNoUpcomingDays(int index) {
+        return days[index].nextSetBit(DAYS_BEFORE) < 0;
+    }
+
+    /**
+     * いずれかの規則の開放時間内かどうか
+     */
+    public boolean isOpen(long localMinute) {
+        long day = Math.floorDiv(localMinute, (long) ScheduleIndex.MINUTES_PER_DAY);
+        int minute = (int) (localMinute - day * ScheduleIndex.MINUTES_PER_DAY);
+        for (int i = 0; i < rules.length; i++) {
+            ScheduleRule rule = rules[i];
+            if (minute >= rule.startMinutes() && minute < rule.endMinutes() && matches(i, day)) {
+                return true;
+            }
+            // 前日から日をまたいでいる開放時間
+            if (minute + ScheduleIndex.MINUTES_PER_DAY < rule.endMinutes() && matches(i, day - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指定した分より後で、いずれかの規則の開放時間が始まる・終わる最初の分を返す
+     * <p>
+     * 規則同士や曜日スケジュールと重なっている場合は、実際には状態が変わらない点も含まれる。
+     *
+     * @return 境界の分。なければ {@link Long#MAX_VALUE}
+     */
+    public long nextBoundaryAfter(long localMinute) {
+        long day = Math.floorDiv(localMinute, (long) ScheduleIndex.MINUTES_PER_DAY);
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < rules.length; i++) {
+            ScheduleRule rule = rules[i];
+            // 前日・当日に始まった開放時間の境界
+            for (long d = day - 1; d <= day; d++) {
+                if (!matches(i, d)) {
+                    continue;
+                }
+                long base = d * ScheduleIndex.MINUTES_PER_DAY;
+                if (base + rule.startMinutes() > localMinute) {
+                    next = Math.min(next, base + rule.startMinutes());
+                } else if (base + rule.endMinutes() > localMinute) {
+                    next = Math.min(next, base + rule.endMinutes());
+                }
+            }
+            // 翌日以降の最初の該当日の開始
+            long nextDay = nextMatchingDay(i, day + 1);
+            if (nextDay != NO_DAY) {
+                next = Math.min(next, nextDay * ScheduleIndex.MINUTES_PER_DAY + rule.startMinutes());
+            }
+        }
+        return next;
+    }
+
+    private boolean matches(int index, long day) {
+        long offset = day - firstDay;
+        if (offset >= 0 && offset < DAYS_BEFORE + DAYS_AFTER) {
+            return days[index].get((int) offset);
+        }
+        return matchesDirect(rules[index], day);
+    }
+
+    /**
+     * 指定した日以降で最初の該当日を返す
+     */
+    private long nextMatchingDay(int index, long fromDay) {
+        long lastDay = firstDay + DAYS_BEFORE + DAYS_AFTER;
+        LocalDate until = rules[index].rule().until();
+        long untilDay = until != null ? until.toEpochDay() : Long.MAX_VALUE;
+
+        long day = fromDay;
+        // 範囲より前（過去のシミュレーションなど）は直接評価する
+        for (int scanned = 0; day < firstDay && scanned < MAX_SCAN_DAYS; scanned++, day++) {
+            if (matchesDirect(rules[index], day)) {
+                return day;
+            }
+        }
+        if (day >= firstDay && day < lastDay) {
+            int bit = days[index].nextSetBit((int) (day - firstDay));
+            if (bit >= 0) {
+                return firstDay + bit;
+            }
+            day = lastDay;
+        }
+        for (int scanned = 0; scanned < MAX_SCAN_DAYS && day <= untilDay; scanned++, day++) {
+            if (matchesDirect(rules[index], day)) {
+                return day;
+            }
+        }
+        return NO_DAY;
+    }
+
+    private static boolean matchesDirect(ScheduleRule rule, long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return rule.rule().matches(date) && (rule.except() == null || !rule.except().matches(date));
+    }
+}
@@ -0,0 +1,166 @@
+package dev.timegateplugin.timegate.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * スケジュールを 1 週間分の分単位ビットマップに事前コンパイルしたインデックス
+ * <p>
+ * 月曜 00:00 を 0 とする「週内の分」(0〜10079) ごとに開放/閉鎖を 1 ビットで保持し、
+ * あわせて「次に状態が切り替わるまでの分数」をテーブル化する。
+ * エントリ数に関係なく、状態判定はビット演算 1 回、残り時間の取得は配列参照 1 回で済む。
+ */
+public final class ScheduleIndex {
+
+    public static final int MINUTES_PER_DAY = 24 * 60; // 1440
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY; // 10080
+
+    /** 状態が一度も切り替わらない（常時開放・常時閉鎖）場合の値 */
+    public static final int NO_EDGE = -1;
+
+    private static final ScheduleIndex EMPTY = compile(List.of());
+
+    /** 週内の分ごとの開放ビット */
+    private final long[] openBits;
+    /** 週内の分ごとの、次に状態が切り替わるまでの分数 */
+    private final int[] minutesUntilEdge;
+
+    private ScheduleIndex(long[] openBits, int[] minutesUntilEdge) {
+        this.openBits = openBits;
+        this.minutesUntilEdge = minutesUntilEdge;
+    }
+
+    /**
+     * エントリ一覧からインデックスを構築する
+     * <p>
+     * 判定規則は {@link ScheduleEntry#isWithin} と同一:
+     * 開始曜日の start〜min(end, 24:00) と、end が 24:00 を超える場合は
+     * 翌日の 00:00〜(end - 24:00)（最大で翌日いっぱい）が開放となる。
+     * 日曜から月曜へのまたぎは週の先頭へ折り返す。
+     *
+     * @param entries スケジュールエントリ一覧
+     * @return コンパイル済みインデックス
+     */
+    public static ScheduleIndex compile(List<ScheduleEntry> entries) {
+        long[] bits = new long[(MINUTES_PER_WEEK + 63) / 64];
+
+        for (ScheduleEntry entry : entries) {
+            int start = Math.max(0, entry.startMinutes());
+            int end = entry.endMinutes();
+            for (DayOfWeek day : entry.days()) {
+                int dayOffset = dayOffset(day);
+                // 当日分
+                setRange(bits, dayOffset + start, dayOffset + Math.min(end, MINUTES_PER_DAY));
+                // 翌日へのはみ出し分
+                if (end > MINUTES_PER_DAY) {
+                    int nextDayOffset = (dayOffset + MINUTES_PER_DAY) % MINUTES_PER_WEEK;
+                    int overflow = Math.min(end - MINUTES_PER_DAY, MINUTES_PER_DAY);
+                    setRange(bits, nextDayOffset, nextDayOffset + overflow);
+                }
+            }
+        }
+
+        return new ScheduleIndex(bits, buildEdgeTable(bits));
+    }
+
+    /**
+     * スケジュールが 1 つもない場合のインデックス（常時閉鎖）
+     */
+    public static ScheduleIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 曜日・時刻を週内の分（月曜 00:00 = 0）に変換する
+     */
+    public static int minuteOfWeek(DayOfWeek day, LocalTime time) {
+        return dayOffset(day) + time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * 指定した週内の分が開放時間内かどうか
+     */
+    public boolean isOpen(int minuteOfWeek) {
+        return (openBits[minuteOfWeek >>> 6] & (1L << minuteOfWeek)) != 0;
+    }
+
+    /**
+     * 指定された曜日・時刻が開放時間内かどうか
+     */
+    public boolean isOpen(DayOfWeek day, LocalTime time) {
+        return isOpen(minuteOfWeek(day, time));
+    }
+
+    /**
+     * 指定した週内の分から、次に状態が切り替わるまでの分数を返す。
+     * 状態が一度も切り替わらない場合は {@link #NO_EDGE} を返す。
+     */
+    public int getMinutesUntilEdge(int minuteOfWeek) {
+        return minutesUntilEdge[minuteOfWeek];
+    }
+
+    /**
+     * 開放中であれば閉鎖までの残り分数を返す。
+     * 閉鎖中、または閉鎖が来ない（常時開放）場合は -1 を返す。
+     * <p>
+     * 隣接・重複するエントリは 1 つの開放時間として扱うため、
+     * 残り分数は「実際にゲートが閉じるまで」の値になる。
+     */
+    public int getMinutesUntilEnd(DayOfWeek day, LocalTime time) {
+        int minute = minuteOfWeek(day, time);
+        if (!isOpen(minute)) {
+            return -1;
+        }
+        return minutesUntilEdge[minute];
+    }
+
+    private static int dayOffset(DayOfWeek day) {
+        return (day.getValue() - 1) * MINUTES_PER_DAY;
+    }
+
+    /**
+     * [from, to) の範囲のビットを立てる（to は週をまたがない前提）
+     */
+    private static void setRange(long[] bits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    private static boolean bit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * 各分から次の状態切り替えまでの分数を、週を循環しながら後ろ向きに計算する
+     */
+    private static int[] buildEdgeTable(long[] bits) {
+        int[] table = new int[MINUTES_PER_WEEK];
+
+        // 切り替わり点（直前の分と状態が異なる分）を 1 つ探す
+        int edge = -1;
+        for (int i = 0; i < MINUTES_PER_WEEK; i++) {
+            int prev = (i + MINUTES_PER_WEEK - 1) % MINUTES_PER_WEEK;
+            if (bit(bits, i) != bit(bits, prev)) {
+                edge = i;
+                break;
+            }
+        }
+
+        if (edge < 0) {
+            Arrays.fill(table, NO_EDGE);
+            return table;
+        }
+
+        // edge の直前から 1 周分さかのぼって埋める
+        int next = edge;
+        for (int step = 0; step < MINUTES_PER_WEEK; step++) {
+            int i = (next + MINUTES_PER_WEEK - 1) % MINUTES_PER_WEEK;
+            table[i] = bit(bits, i) != bit(bits, next) ? 1 : table[next] + 1;
+            next = i;
+        }
+        return table;
+    }
+}
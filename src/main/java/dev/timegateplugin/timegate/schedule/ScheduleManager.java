@@ -1,23 +1,55 @@
 package dev.timegateplugin.timegate.schedule;
 
+import dev.timegateplugin.timegate.access.AccessGroup;
+import dev.timegateplugin.timegate.access.AdmissionController;
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.api.GateTransition;
+import dev.timegateplugin.timegate.audit.AuditLog;
+import dev.timegateplugin.timegate.audit.AuditType;
+import dev.timegateplugin.timegate.api.event.GateStateChangeEvent;
+import dev.timegateplugin.timegate.api.event.GateWarningEvent;
 import dev.timegateplugin.timegate.config.ConfigManager;
-import dev.timegateplugin.timegate.util.MessageUtil;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import dev.timegateplugin.timegate.config.CountdownSettings;
+import dev.timegateplugin.timegate.config.IdleSettings;
+import dev.timegateplugin.timegate.config.PreCloseSaveSettings;
+import dev.timegateplugin.timegate.config.WarmupSettings;
+import dev.timegateplugin.timegate.metrics.GateMetrics;
+import dev.timegateplugin.timegate.sync.SharedStateSync;
+import dev.timegateplugin.timegate.util.Placeholder;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 
-import java.time.DayOfWeek;
-import java.time.LocalTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
  * スケジュールに基づく開閉状態の管理クラス
+ * <p>
+ * 定期ポーリングは行わず、スケジュールから次の開閉切り替え・告知の時刻を算出し、
+ * その時刻に 1 回だけ発火するタイマーを仕掛ける。発火後・オーバーライド変更後・
+ * リロード後にはタイマーを仕掛け直す。
+ * <p>
+ * 状態は {@link GateSnapshot} として {@link AtomicReference} で公開し、
+ * 非同期スレッドからもロックなしで読み取れるようにする。
  */
 public class ScheduleManager {
 
@@ -33,191 +65,814 @@ public class ScheduleManager {
         FORCE_CLOSED
     }
 
-    private static final String BYPASS_PERMISSION = "timegate.bypass";
-    private static final long CHECK_INTERVAL_TICKS = 20L * 60; // 60秒
+    /** システム時刻の変更などに備え、切り替えがなくても最低この間隔で再評価する */
+    private static final Duration MAX_ARM_DELAY = Duration.ofHours(1);
+    /** {@link #getUpcomingTransitions} が返す切り替えの最大件数 */
+    private static final int MAX_TIMELINE_ENTRIES = 1000;
 
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final Logger logger;
+    private final GateMetrics metrics;
+    private final GroupResolver groupResolver;
+    private final AdmissionController admission;
+    private final KickDrainer kickDrainer;
+    private final CountdownBar countdownBar;
+    private final ServerWarmup warmup;
+    private final PreCloseSaver preCloseSaver;
+    private final IdleMode idleMode;
+    private final OverrideJournal journal;
+    private final AuditLog audit;
+    /** 現在時刻の取得元（シミュレーションや検証では差し替えられる） */
+    private final Clock clock;
 
-    private OverrideMode overrideMode = OverrideMode.NONE;
-    private GateState currentState;
-    private BukkitTask checkTask;
+    /** 状態の変更はメインスレッドのみ、読み取りは任意のスレッドから */
+    private final AtomicReference<GateSnapshot> snapshot;
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> pendingCheck;
+    /** 他サーバーとの状態共有（無効時は null） */
+    private SharedStateSync sharedState;
 
-    /** すでに送信済みの告知（分数）を記録し、重複送信を防ぐ */
-    private final Set<Integer> sentWarnings = new HashSet<>();
+    /** グループ（全体は {@link GroupResolver#DEFAULT_GROUP}）ごとに送信済みの告知（分数）を記録し、重複送信を防ぐ */
+    private final Map<Integer, Set<Integer>> sentWarnings = new HashMap<>();
 
-    public ScheduleManager(JavaPlugin plugin, ConfigManager configManager) {
+    public ScheduleManager(JavaPlugin plugin, ConfigManager configManager, GroupResolver groupResolver,
+            AdmissionController admission, GateMetrics metrics, CountdownBar countdownBar,
+            OverrideJournal journal, AuditLog audit, Clock clock) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.logger = plugin.getLogger();
+        this.metrics = metrics;
+        this.groupResolver = groupResolver;
+        this.admission = admission;
+        this.kickDrainer = new KickDrainer(plugin, configManager, metrics, audit);
+        this.warmup = new ServerWarmup(plugin);
+        this.preCloseSaver = new PreCloseSaver(plugin, metrics);
+        this.idleMode = new IdleMode(plugin);
+        this.countdownBar = countdownBar;
+        this.journal = journal;
+        this.audit = audit;
+        this.clock = clock;
+
+        // 前回のオーバーライドを復元（期限切れのものは捨てる）
+        OverrideMode mode = OverrideMode.NONE;
+        Instant expiresAt = null;
+        OverrideJournal.Entry restored = journal.open();
+        if (restored != null && restored.mode() != OverrideMode.NONE) {
+            if (restored.expiresAt() == null || clock.instant().isBefore(restored.expiresAt())) {
+                mode = restored.mode();
+                expiresAt = restored.expiresAt();
+                logger.info("前回のオーバーライドを復元しました: " + mode
+                        + (expiresAt != null ? " (期限 " + expiresAt + ")" : ""));
+            } else {
+                journal.append(OverrideMode.NONE, null);
+            }
+        }
+
         // 初期状態を判定
-        this.currentState = evaluateState();
+        ConfigSnapshot config = configManager.snapshot();
+        this.snapshot = new AtomicReference<>(new GateSnapshot(
+                config, evaluateState(mode, config), evaluateGroupStates(mode, config), mode, expiresAt));
+        metrics.initState(snapshot.get().state());
     }
 
     /**
-     * 定期チェックタイマーを開始する
+     * 切り替えタイマーを開始する
      */
     public void start() {
-        logger.info("スケジュールマネージャーを開始します。現在の状態: " + currentState);
-        checkTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, CHECK_INTERVAL_TICKS, CHECK_INTERVAL_TICKS);
+        logger.info("スケジュールマネージャーを開始します。現在の状態: " + getCurrentState());
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        armNextCheck();
     }
 
     /**
      * タイマーを停止する
      */
     public void stop() {
-        if (checkTask != null) {
-            checkTask.cancel();
-            checkTask = null;
+        cancelPendingCheck();
+        kickDrainer.cancel();
+        countdownBar.stop();
+        warmup.cancel();
+        preCloseSaver.cancel();
+        idleMode.exit();
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+        journal.close();
+    }
+
+    /**
+     * 他サーバーとの状態共有を設定する（null で無効）
+     */
+    public void setSharedStateSync(SharedStateSync sharedState) {
+        this.sharedState = sharedState;
+    }
+
+    /**
+     * タイマー発火時の処理（メインスレッド）
+     */
+    private void runScheduledCheck() {
+        GateSnapshot current = snapshot.get();
+        runCheck(current.override(), current.overrideExpiresAt(), true);
+    }
+
+    /**
+     * 状態を再評価し、告知・カウントダウン・次のタイマーを更新する
+     *
+     * @param mode      適用するオーバーライドモード
+     * @param expiresAt オーバーライドの期限（期限なしの場合は null）
+     * @param publish   変化を他サーバーへ共有するかどうか
+     */
+    private void runCheck(OverrideMode mode, Instant expiresAt, boolean publish) {
+        GateSnapshot current = updateState(mode, expiresAt, publish, null);
+
+        // オーバーライドがなければ、開放中のグループの閉鎖前告知をチェック
+        if (current.override() == OverrideMode.NONE) {
+            checkWarnings(current);
         }
+
+        syncCountdown(current);
+        syncWarmup(current);
+        syncPreCloseSave(current);
+        armNextCheck();
     }
 
     /**
-     * 定期チェック処理
+     * スケジュール上の閉鎖が最後の閉鎖前告知の時刻を過ぎていれば、閉鎖前の保存を開始する
      */
-    private void tick() {
-        GateState newState = evaluateState();
-        if (newState != currentState) {
-            GateState oldState = currentState;
-            currentState = newState;
-            onStateChanged(oldState, newState);
+    private void syncPreCloseSave(GateSnapshot current) {
+        PreCloseSaveSettings settings = current.config().preCloseSave();
+        if (!settings.enabled()
+                || current.state() != GateState.OPEN
+                || current.override() != OverrideMode.NONE) {
+            return;
+        }
+
+        ZonedDateTime now = now(current.config());
+        Instant closeAt = findNextEdge(now, current.config());
+        if (closeAt != null
+                && !now.toInstant().isBefore(closeAt.minus(Duration.ofMinutes(preCloseSaveLead(current.config()))))) {
+            preCloseSaver.start(closeAt, settings);
         }
+    }
 
-        // 開放中の場合、閉鎖前の告知をチェック
-        if (currentState == GateState.OPEN && overrideMode == OverrideMode.NONE) {
-            checkWarnings();
+    /**
+     * 閉鎖前の保存を閉鎖の何分前に開始するか。
+     * 最後（残り分数が最小）の閉鎖前告知に合わせ、告知がなければ設定の分数とする
+     */
+    private static int preCloseSaveLead(ConfigSnapshot config) {
+        int lead = Integer.MAX_VALUE;
+        for (int interval : config.warningIntervals()) {
+            lead = Math.min(lead, interval);
         }
+        return lead == Integer.MAX_VALUE ? config.preCloseSave().minutes() : lead;
     }
 
     /**
-     * 閉鎖前の告知チェック
+     * スケジュール上の開放が近づいていれば、開放前のウォームアップを開始する
      */
-    private void checkWarnings() {
-        ZonedDateTime now = ZonedDateTime.now(configManager.getTimezone());
-        DayOfWeek day = now.getDayOfWeek();
-        LocalTime time = now.toLocalTime();
+    private void syncWarmup(GateSnapshot current) {
+        WarmupSettings settings = current.config().warmup();
+        if (!settings.enabled()
+                || current.state() != GateState.CLOSED
+                || current.override() != OverrideMode.NONE) {
+            return;
+        }
 
-        // 現在のスケジュールの残り分数を取得
-        int minutesRemaining = -1;
-        List<ScheduleEntry> entries = configManager.getScheduleEntries();
-        for (ScheduleEntry entry : entries) {
-            int remaining = entry.getMinutesUntilEnd(day, time);
-            if (remaining >= 0) {
-                minutesRemaining = remaining;
-                break;
+        ZonedDateTime now = now(current.config());
+        Instant openAt = findNextEdge(now, current.config());
+        if (openAt != null && !now.toInstant().isBefore(openAt.minus(Duration.ofMinutes(settings.minutes())))) {
+            warmup.start(openAt, settings);
+        }
+    }
+
+    /**
+     * 閉鎖前カウントダウンの表示状態を現在の状態に合わせる
+     */
+    private void syncCountdown(GateSnapshot current) {
+        CountdownSettings settings = current.config().countdown();
+        if (!settings.enabled()
+                || current.state() != GateState.OPEN
+                || current.override() != OverrideMode.NONE) {
+            countdownBar.stop();
+            return;
+        }
+
+        ZonedDateTime now = now(current.config());
+        Instant closeAt = findNextEdge(now, current.config());
+        if (closeAt == null
+                || now.toInstant().isBefore(closeAt.minus(Duration.ofMinutes(settings.minutes())))) {
+            countdownBar.stop();
+            return;
+        }
+        countdownBar.start(closeAt, settings);
+    }
+
+    /**
+     * 最新の設定とオーバーライドで状態を判定し、スナップショットを差し替える。
+     * 状態が変化していれば遷移処理を行う。
+     * 期限を過ぎたオーバーライドは自動モードに戻し、オーバーライドの変化はジャーナルに記録する
+     *
+     * @param expiresAt オーバーライドの期限（期限なしの場合は null）
+     * @param publish 状態・オーバーライドが変化した場合に他サーバーへ共有するかどうか。
+     *                他サーバーから受け取った変化を適用する場合は、送り返さないよう false にする
+     * @param actor   オーバーライドを変更したコマンドの実行者名（監査ログ用。コマンド以外は null）
+     * @return 差し替え後のスナップショット
+     */
+    private GateSnapshot updateState(OverrideMode mode, Instant expiresAt, boolean publish, String actor) {
+        String cause = actor != null ? "command" : publish ? "manual" : "shared_state";
+        if (mode == OverrideMode.NONE) {
+            expiresAt = null;
+        } else if (expiresAt != null && !clock.instant().isBefore(expiresAt)) {
+            logger.info("オーバーライド (" + mode + ") の期限が来たため、自動モードに戻します。");
+            mode = OverrideMode.NONE;
+            expiresAt = null;
+            cause = "expired";
+        }
+
+        ConfigSnapshot config = configManager.snapshot();
+        GateSnapshot old = snapshot.get();
+        GateState newState = evaluateState(mode, config);
+        List<GateState> newGroupStates = evaluateGroupStates(mode, config);
+
+        GateSnapshot updated = new GateSnapshot(config, newState, newGroupStates, mode, expiresAt);
+        snapshot.set(updated);
+
+        // 閉鎖に切り替わった対象のうち、キックする設定のものがあればキックを開始する
+        boolean kick = false;
+        if (newState != old.state()) {
+            onStateChanged(old.state(), newState, config);
+            kick = newState == GateState.CLOSED && config.kickOnClose();
+        }
+        List<AccessGroup> groups = config.groups();
+        for (int i = 0; i < groups.size(); i++) {
+            GateState oldGroupState = old.stateOf(i);
+            GateState newGroupState = newGroupStates.get(i);
+            if (newGroupState != oldGroupState) {
+                logger.info("グループ " + groups.get(i).name() + " の状態が変化しました: "
+                        + oldGroupState + " -> " + newGroupState);
+                sentWarnings.remove(i);
+                kick |= newGroupState == GateState.CLOSED && groups.get(i).kickOnClose();
+            }
+        }
+        if (kick) {
+            kickDrainer.start(this::isKickCandidate, this::shouldKick);
+        } else if (newState == GateState.OPEN && old.state() == GateState.CLOSED) {
+            kickDrainer.cancel();
+        }
+
+        boolean overrideChanged = mode != old.override() || !Objects.equals(expiresAt, old.overrideExpiresAt());
+        if (overrideChanged) {
+            journal.append(mode, expiresAt);
+            audit.recordEvent(AuditType.OVERRIDE, actor,
+                    mode + (expiresAt != null ? " until " + expiresAt : "") + " (" + cause + ")");
+        }
+        if (publish && sharedState != null && (newState != old.state() || overrideChanged)) {
+            sharedState.publish(updated);
+        }
+        return updated;
+    }
+
+    /**
+     * 次の切り替え・告知時刻に 1 回だけ発火するタイマーを仕掛け直す
+     */
+    private void armNextCheck() {
+        cancelPendingCheck();
+        GateSnapshot current = snapshot.get();
+        if (timer == null) {
+            return;
+        }
+
+        ConfigSnapshot config = current.config();
+        ZonedDateTime now = now(config);
+        Instant nextCheck;
+        if (current.override() == OverrideMode.NONE) {
+            nextCheck = findNextCheck(now, current);
+        } else if (current.overrideExpiresAt() != null) {
+            // オーバーライド中はスケジュールによる変化がないため、期限だけを待つ
+            nextCheck = current.overrideExpiresAt();
+        } else {
+            return;
+        }
+        Instant limit = now.toInstant().plus(MAX_ARM_DELAY);
+        if (nextCheck == null || nextCheck.isAfter(limit)) {
+            nextCheck = limit;
+        }
+
+        long delayMillis = Math.max(0L, Duration.between(now.toInstant(), nextCheck).toMillis());
+        pendingCheck = timer.schedule(() -> {
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, this::runScheduledCheck);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPendingCheck() {
+        if (pendingCheck != null) {
+            pendingCheck.cancel(false);
+            pendingCheck = null;
+        }
+    }
+
+    /**
+     * 次に処理が必要な時刻（全体・各グループの開閉の切り替え、または未送信の告知）を求める
+     *
+     * @return 次のチェック時刻。スケジュール上の変化がなければ null
+     */
+    private Instant findNextCheck(ZonedDateTime now, GateSnapshot current) {
+        ConfigSnapshot config = current.config();
+        Instant next = findNextCheck(now, config.schedule(), current.state(), true,
+                GroupResolver.DEFAULT_GROUP, config);
+
+        Instant edge = findNextEdge(now, config);
+        CountdownSettings countdown = config.countdown();
+        if (edge != null && current.state() == GateState.OPEN && countdown.enabled()) {
+            next = earlierFuture(now, next, edge.minus(Duration.ofMinutes(countdown.minutes())));
+        }
+        if (edge != null && current.state() == GateState.OPEN && config.preCloseSave().enabled()) {
+            next = earlierFuture(now, next, edge.minus(Duration.ofMinutes(preCloseSaveLead(config))));
+        }
+        WarmupSettings warmupSettings = config.warmup();
+        if (edge != null && current.state() == GateState.CLOSED && warmupSettings.enabled()) {
+            next = earlierFuture(now, next, edge.minus(Duration.ofMinutes(warmupSettings.minutes())));
+        }
+
+        List<AccessGroup> groups = config.groups();
+        for (int i = 0; i < groups.size(); i++) {
+            AccessGroup group = groups.get(i);
+            if (!group.always()) {
+                next = earlierFuture(now, next,
+                        findNextCheck(now, group.schedule(), current.stateOf(i), group.warnings(), i, config));
             }
         }
+        return next;
+    }
 
-        if (minutesRemaining < 0) {
+    /**
+     * 1 つのスケジュールについて、次の切り替え、または未送信の告知の時刻を求める
+     *
+     * @param group 告知済みの記録に使うグループ番号
+     * @return 次のチェック時刻。スケジュール上の変化がなければ null
+     */
+    private Instant findNextCheck(ZonedDateTime now, CompiledSchedule schedule, GateState state,
+            boolean warnings, int group, ConfigSnapshot config) {
+        Instant edge = findNextEdge(now, schedule);
+        if (edge == null) {
+            return null;
+        }
+
+        Instant next = edge;
+        if (state == GateState.OPEN && warnings) {
+            Set<Integer> sent = sentWarnings.getOrDefault(group, Set.of());
+            for (int interval : config.warningIntervals()) {
+                if (!sent.contains(interval)) {
+                    next = earlierFuture(now, next, edge.minus(Duration.ofMinutes(interval)));
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * 現在より後の時刻のうち早い方を返す（null は「なし」として扱う）
+     */
+    private static Instant earlierFuture(ZonedDateTime now, Instant current, Instant candidate) {
+        if (candidate == null || !candidate.isAfter(now.toInstant())) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    /**
+     * 全体のスケジュール上で次に開閉が切り替わる時刻を求める
+     *
+     * @return 切り替え時刻。常時開放・常時閉鎖で切り替えがなければ null
+     */
+    private Instant findNextEdge(ZonedDateTime now, ConfigSnapshot config) {
+        return findNextEdge(now, config.schedule());
+    }
+
+    /**
+     * スケジュール上で次に開閉が切り替わる時刻を求める
+     *
+     * @return 切り替え時刻。常時開放・常時閉鎖で切り替えがなければ null
+     */
+    private Instant findNextEdge(ZonedDateTime now, CompiledSchedule schedule) {
+        return schedule.findNextEdge(now);
+    }
+
+    /**
+     * 閉鎖前の告知チェック（全体と、告知する設定の各グループ）
+     */
+    private void checkWarnings(GateSnapshot current) {
+        ConfigSnapshot config = current.config();
+        ZonedDateTime now = now(config);
+        if (current.state() == GateState.OPEN) {
+            checkWarnings(now, config.schedule(), GroupResolver.DEFAULT_GROUP, config);
+        }
+
+        List<AccessGroup> groups = config.groups();
+        for (int i = 0; i < groups.size(); i++) {
+            AccessGroup group = groups.get(i);
+            if (!group.always() && group.warnings() && current.stateOf(i) == GateState.OPEN) {
+                checkWarnings(now, group.schedule(), i, config);
+            }
+        }
+    }
+
+    /**
+     * 1 つのスケジュールについて閉鎖前の告知をチェックし、対象のプレイヤーに送信する
+     */
+    private void checkWarnings(ZonedDateTime now, CompiledSchedule schedule, int group, ConfigSnapshot config) {
+        Instant closeAt = findNextEdge(now, schedule);
+        if (closeAt == null) {
             return;
         }
 
-        // 設定された告知間隔とマッチするか確認
-        List<Integer> intervals = configManager.getWarningIntervals();
-        for (int interval : intervals) {
-            if (minutesRemaining <= interval && !sentWarnings.contains(interval)) {
-                sentWarnings.add(interval);
-                broadcastWarning(minutesRemaining);
-                break; // 1 tick で 1 つだけ告知
+        // 閉鎖までの残り分数（端数は切り上げ）
+        long secondsRemaining = Duration.between(now.toInstant(), closeAt).toSeconds();
+        int minutesRemaining = (int) ((secondsRemaining + 59) / 60);
+
+        // 告知時刻を過ぎた未送信の間隔をまとめて送信済みにし、告知は 1 回にまとめる
+        boolean due = false;
+        Set<Integer> sent = sentWarnings.computeIfAbsent(group, key -> new HashSet<>());
+        for (int interval : config.warningIntervals()) {
+            if (minutesRemaining <= interval && sent.add(interval)) {
+                due = true;
             }
         }
+
+        if (due) {
+            broadcastWarning(minutesRemaining, closeAt, group, config);
+        }
     }
 
     /**
-     * 全プレイヤーに閉鎖前告知を送信する
+     * 閉鎖前告知を送信する
+     * <p>
+     * 全体の告知はグループに属さないプレイヤー（バイパス権限を持つプレイヤーを含む）に、
+     * グループの告知はそのグループのプレイヤーに送る。
      */
-    private void broadcastWarning(int minutesRemaining) {
-        String messageTemplate = configManager.getWarningMessage();
-        String message = messageTemplate.replace("{minutes}", String.valueOf(minutesRemaining));
-        Component component = MessageUtil.parse(message);
+    private void broadcastWarning(int minutesRemaining, Instant closeAt, int group, ConfigSnapshot config) {
+        GateWarningEvent event = new GateWarningEvent(minutesRemaining, closeAt,
+                group >= 0 ? config.groups().get(group).name() : null);
+        Bukkit.getPluginManager().callEvent(event);
+        if (event.isCancelled()) {
+            return;
+        }
+
+        Component component = config.warningMessage().render(Placeholder.MINUTES, String.valueOf(minutesRemaining));
 
         for (Player player : Bukkit.getOnlinePlayers()) {
-            player.sendMessage(component);
+            if (groupResolver.cachedOrDefault(player.getUniqueId(), config).group() == group) {
+                player.sendMessage(component);
+            }
         }
 
-        logger.info("閉鎖前告知を送信しました: 残り " + minutesRemaining + " 分");
+        metrics.recordWarning();
+        logger.info("閉鎖前告知を送信しました: 残り " + minutesRemaining + " 分"
+                + (group >= 0 ? " (グループ " + config.groups().get(group).name() + ")" : ""));
     }
 
     /**
      * 状態が変化した際の処理
      */
-    private void onStateChanged(GateState oldState, GateState newState) {
+    private void onStateChanged(GateState oldState, GateState newState, ConfigSnapshot config) {
         logger.info("ゲート状態が変化しました: " + oldState + " -> " + newState);
+        audit.recordEvent(AuditType.STATE_CHANGE, null, oldState + " -> " + newState);
+        metrics.recordTransition(newState);
 
         // 状態が変わったら告知済みセットをリセット
-        sentWarnings.clear();
+        sentWarnings.remove(GroupResolver.DEFAULT_GROUP);
 
-        if (newState == GateState.CLOSED && configManager.isKickOnClose()) {
-            kickNonBypassPlayers();
+        // 開放直後のログイン集中に備えて入場制御を開始する
+        if (newState == GateState.OPEN) {
+            idleMode.exit();
+            admission.startWindow(config.admission());
+            warmup.onOpened(config.warmup());
+        } else {
+            admission.endWindow();
+            // キック対象のプレイヤーが残っている場合は、最後の 1 人が退出した時点で省電力モードに入る
+            syncIdle(config, null);
         }
+
+        Bukkit.getPluginManager().callEvent(new GateStateChangeEvent(oldState, newState, snapshot.get().override()));
     }
 
     /**
-     * バイパス権限のないオンラインプレイヤーをキックする
+     * 閉鎖中にバイパス権限を持つプレイヤーしかいなければ省電力モードに入り、そうでなければ元に戻す
+     *
+     * @param leaving 退出処理中のプレイヤー（まだオンライン一覧に含まれるため除外する）。なければ null
      */
-    private void kickNonBypassPlayers() {
+    private void syncIdle(ConfigSnapshot config, Player leaving) {
+        IdleSettings settings = config.idle();
+        if (!settings.enabled() || snapshot.get().state() != GateState.CLOSED) {
+            idleMode.exit();
+            return;
+        }
         for (Player player : Bukkit.getOnlinePlayers()) {
-            if (!player.hasPermission(BYPASS_PERMISSION)) {
-                player.kick(MessageUtil.parse(configManager.getKickMessage()));
+            if (player != leaving && !groupResolver.cachedOrDefault(player.getUniqueId(), config).bypass()) {
+                idleMode.exit();
+                return;
             }
         }
+        idleMode.enter(settings);
+    }
+
+    /**
+     * プレイヤーの参加時の処理（メインスレッド）。
+     * 閉鎖中でもアクセスグループのプレイヤーは参加できるため、省電力モードを解除する必要があるか判定する
+     */
+    public void onPlayerJoin(Player player) {
+        if (idleMode.isIdle()) {
+            syncIdle(snapshot.get().config(), null);
+        }
+    }
+
+    /**
+     * プレイヤーの退出時の処理（メインスレッド）。バイパス権限を持つプレイヤーだけが残れば省電力モードに入る
+     */
+    public void onPlayerQuit(Player player) {
+        if (!idleMode.isIdle() && snapshot.get().state() == GateState.CLOSED) {
+            syncIdle(snapshot.get().config(), player);
+        }
+    }
+
+    /**
+     * 省電力モード中かどうか
+     */
+    public boolean isIdle() {
+        return idleMode.isIdle();
+    }
+
+    /**
+     * 閉鎖時のキック対象の候補かどうか（所属はキャッシュから判定し、権限は判定しない）
+     * <p>
+     * 未判定のプレイヤーはグループなしとして候補にし、キックの直前の {@link #shouldKick} で判定する。
+     */
+    private boolean isKickCandidate(Player player) {
+        GateSnapshot current = snapshot.get();
+        return shouldKick(current, groupResolver.cachedOrDefault(player.getUniqueId(), current.config()));
+    }
+
+    /**
+     * 閉鎖時にキックするかどうか。キックの直前に 1 人ずつ呼ばれるため、権限を判定し直して昇格・降格を反映する
+     */
+    private boolean shouldKick(Player player) {
+        GateSnapshot current = snapshot.get();
+        return shouldKick(current, groupResolver.refresh(player, current.config()));
+    }
+
+    private static boolean shouldKick(GateSnapshot current, GroupResolver.Resolution resolution) {
+        ConfigSnapshot config = current.config();
+        if (resolution.bypass() || current.stateOf(resolution.group()) == GateState.OPEN) {
+            return false;
+        }
+        int group = resolution.group();
+        return group >= 0 ? config.groups().get(group).kickOnClose() : config.kickOnClose();
+    }
+
+    /**
+     * アクセスグループごとの状態を評価する（オーバーライド考慮）
+     * <p>
+     * 常時ログイン可能なグループは強制閉鎖中も開放として扱う。
+     */
+    private List<GateState> evaluateGroupStates(OverrideMode mode, ConfigSnapshot config) {
+        List<AccessGroup> groups = config.groups();
+        if (groups.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = now(config).toLocalDateTime();
+        List<GateState> states = new ArrayList<>(groups.size());
+        for (AccessGroup group : groups) {
+            GateState state;
+            if (group.always()) {
+                state = GateState.OPEN;
+            } else {
+                state = switch (mode) {
+                    case FORCE_OPEN -> GateState.OPEN;
+                    case FORCE_CLOSED -> GateState.CLOSED;
+                    case NONE -> group.schedule().isOpen(now) ? GateState.OPEN : GateState.CLOSED;
+                };
+            }
+            states.add(state);
+        }
+        return states;
     }
 
     /**
      * 現在の状態を評価する（オーバーライド考慮）
      */
-    private GateState evaluateState() {
-        return switch (overrideMode) {
+    private GateState evaluateState(OverrideMode mode, ConfigSnapshot config) {
+        return switch (mode) {
             case FORCE_OPEN -> GateState.OPEN;
             case FORCE_CLOSED -> GateState.CLOSED;
-            case NONE -> evaluateSchedule();
+            case NONE -> evaluateSchedule(config);
         };
     }
 
     /**
      * スケジュールに基づき現在の状態を判定する
      */
-    private GateState evaluateSchedule() {
-        ZonedDateTime now = ZonedDateTime.now(configManager.getTimezone());
-        DayOfWeek day = now.getDayOfWeek();
-        LocalTime time = now.toLocalTime();
+    private GateState evaluateSchedule(ConfigSnapshot config) {
+        return scheduleStateAt(now(config), config);
+    }
 
-        List<ScheduleEntry> entries = configManager.getScheduleEntries();
-        for (ScheduleEntry entry : entries) {
-            if (entry.isWithin(day, time)) {
-                return GateState.OPEN;
-            }
-        }
-        return GateState.CLOSED;
+    /**
+     * スケジュールに基づき指定時刻の状態を判定する
+     */
+    private static GateState scheduleStateAt(ZonedDateTime time, ConfigSnapshot config) {
+        return config.schedule().isOpen(time.toLocalDateTime())
+                ? GateState.OPEN
+                : GateState.CLOSED;
+    }
+
+    private ZonedDateTime now(ConfigSnapshot config) {
+        return ZonedDateTime.ofInstant(clock.instant(), config.timezone());
+    }
+
+    /**
+     * スケジュールの判定に使う時計
+     */
+    public Clock clock() {
+        return clock;
+    }
+
+    /**
+     * 現在のゲート状態のスナップショットを取得する（任意のスレッドから呼び出し可能）
+     */
+    public GateSnapshot snapshot() {
+        return snapshot.get();
     }
 
     /**
      * 現在のゲート状態を取得する
      */
     public GateState getCurrentState() {
-        return currentState;
+        return snapshot.get().state();
+    }
+
+    /**
+     * スケジュール上の閉鎖までの残り分数を取得する（表示用）
+     * 開放時間外、閉鎖予定がない、またはオーバーライド中の場合は -1 を返す
+     */
+    public int getMinutesUntilClose() {
+        GateSnapshot current = snapshot.get();
+        if (current.override() != OverrideMode.NONE) {
+            return -1;
+        }
+        CompiledSchedule schedule = current.config().schedule();
+        LocalDateTime now = now(current.config()).toLocalDateTime();
+        if (!schedule.isOpen(now)) {
+            return -1;
+        }
+        LocalDateTime closeAt = schedule.findNextEdge(now);
+        if (closeAt == null) {
+            return -1;
+        }
+        return (int) (CompiledSchedule.toLocalMinute(closeAt) - CompiledSchedule.toLocalMinute(now));
+    }
+
+    /**
+     * スケジュール上の次の開放時刻を取得する（表示用）
+     * 開放時間内、開放予定がない、またはオーバーライド中の場合は null を返す
+     */
+    public ZonedDateTime getNextOpenTime() {
+        GateSnapshot current = snapshot.get();
+        if (current.override() != OverrideMode.NONE) {
+            return null;
+        }
+        ConfigSnapshot config = current.config();
+        ZonedDateTime now = now(config);
+        if (config.schedule().isOpen(now.toLocalDateTime())) {
+            return null;
+        }
+        Instant edge = findNextEdge(now, config);
+        return edge != null ? edge.atZone(now.getZone()) : null;
+    }
+
+    /**
+     * 次に状態が切り替わる時刻を取得する（任意のスレッドから呼び出し可能）。
+     * オーバーライド中は期限切れによる切り替えを返す
+     *
+     * @return 切り替え時刻。切り替えが予定されていなければ null
+     */
+    public Instant getNextTransition() {
+        List<GateTransition> next = upcomingTransitions(null, 1);
+        return next.isEmpty() ? null : next.get(0).at();
+    }
+
+    /**
+     * 指定した期間内に予定されている切り替えを時刻順に取得する（任意のスレッドから呼び出し可能）
+     *
+     * @param horizon 現在から先読みする期間
+     */
+    public List<GateTransition> getUpcomingTransitions(Duration horizon) {
+        return upcomingTransitions(horizon, MAX_TIMELINE_ENTRIES);
+    }
+
+    /**
+     * 現在のスナップショットから、予定されている切り替えを求める
+     * <p>
+     * 期限付きのオーバーライド中は、期限の時点でスケジュールの状態に戻る切り替えから数える。
+     * 期限のないオーバーライド中は切り替えが予定されていないものとする。
+     *
+     * @param horizon 先読みする期間（null の場合は件数のみで打ち切る）
+     */
+    private List<GateTransition> upcomingTransitions(Duration horizon, int limit) {
+        GateSnapshot current = snapshot.get();
+        ConfigSnapshot config = current.config();
+        ZonedDateTime cursor = now(config);
+        Instant end = horizon != null ? cursor.toInstant().plus(horizon) : null;
+        List<GateTransition> transitions = new ArrayList<>();
+
+        if (current.override() != OverrideMode.NONE) {
+            Instant expiresAt = current.overrideExpiresAt();
+            if (expiresAt == null || (end != null && expiresAt.isAfter(end))) {
+                return transitions;
+            }
+            cursor = expiresAt.atZone(cursor.getZone());
+            GateState resumed = scheduleStateAt(cursor, config);
+            if (resumed != current.state()) {
+                transitions.add(new GateTransition(expiresAt, resumed));
+            }
+        }
+        // 以降はスケジュール上の状態から数える
+        GateState state = scheduleStateAt(cursor, config);
+
+        while (transitions.size() < limit) {
+            Instant edge = findNextEdge(cursor, config);
+            if (edge == null || (end != null && edge.isAfter(end))) {
+                break;
+            }
+            // スケジュール上の切り替えは必ず状態が変わる点なので、交互に並ぶ
+            state = state == GateState.OPEN ? GateState.CLOSED : GateState.OPEN;
+            transitions.add(new GateTransition(edge, state));
+            cursor = edge.atZone(cursor.getZone());
+        }
+        return transitions;
     }
 
     /**
      * オーバーライドモードを取得する
      */
     public OverrideMode getOverrideMode() {
-        return overrideMode;
+        return snapshot.get().override();
     }
 
     /**
-     * オーバーライドモードを設定する
-     * 設定後すぐに状態を再評価し、変化があればイベント処理を行う
+     * オーバーライドの期限を取得する（期限なし、または自動モードの場合は null）
+     */
+    public Instant getOverrideExpiresAt() {
+        return snapshot.get().overrideExpiresAt();
+    }
+
+    /**
+     * オーバーライドモードを期限なしで設定する
      */
     public void setOverrideMode(OverrideMode mode) {
-        this.overrideMode = mode;
-        GateState newState = evaluateState();
-        if (newState != currentState) {
-            GateState oldState = currentState;
-            currentState = newState;
-            onStateChanged(oldState, newState);
-        }
+        setOverrideMode(mode, null);
+    }
+
+    /**
+     * オーバーライドモードを設定する
+     * 設定後すぐに状態を再評価し、変化があればイベント処理を行う。
+     * 期限を過ぎると自動モードに戻る
+     *
+     * @param expiresAt 期限（期限なしの場合は null）
+     */
+    public void setOverrideMode(OverrideMode mode, Instant expiresAt) {
+        setOverrideMode(mode, expiresAt, null);
+    }
+
+    /**
+     * オーバーライドモードを設定し、変更を実行者名とともに監査ログに記録する
+     *
+     * @param expiresAt 期限（期限なしの場合は null）
+     * @param actor     コマンドの実行者名
+     */
+    public void setOverrideMode(OverrideMode mode, Instant expiresAt, String actor) {
+        GateSnapshot current = updateState(mode, expiresAt, true, actor);
+        syncCountdown(current);
+        syncWarmup(current);
+        syncPreCloseSave(current);
+        armNextCheck();
+    }
+
+    /**
+     * 他サーバーが共有した状態を適用する（メインスレッド）
+     * <p>
+     * オーバーライドを取り込んだうえで、自サーバーのスケジュールでも即座に再評価する。
+     * 他サーバーが先に切り替え時刻を迎えた場合も、ここで自サーバーの切り替えが追いつく。
+     * 適用した結果は共有し直さない。
+     */
+    public void applySharedState(OverrideMode mode, Instant expiresAt) {
+        runCheck(mode, expiresAt, false);
     }
 
     /**
@@ -225,11 +880,13 @@ public class ScheduleManager {
      */
     public void reevaluate() {
         sentWarnings.clear();
-        GateState newState = evaluateState();
-        if (newState != currentState) {
-            GateState oldState = currentState;
-            currentState = newState;
-            onStateChanged(oldState, newState);
-        }
+        GateSnapshot current = snapshot.get();
+        GateSnapshot updated = updateState(current.override(), current.overrideExpiresAt(), true, null);
+        // 省電力モードの設定が変わっていれば適用し直す
+        syncIdle(updated.config(), null);
+        syncCountdown(updated);
+        syncWarmup(updated);
+        syncPreCloseSave(updated);
+        armNextCheck();
     }
 }
@@ -0,0 +1,27 @@
+package dev.timegateplugin.timegate.schedule;
+
+/**
+ * 繰り返し規則で日付を選ぶ開放スケジュール
+ * <p>
+ * 規則に該当し、除外規則に該当しない日の {@code startMinutes}〜{@code endMinutes} が開放時間になる。
+ * 時刻は {@link ScheduleEntry} と同じく「分」で管理し、24:00 を超える値は翌日を表す。
+ *
+ * @param rule         開放する日を選ぶ規則
+ * @param except       除外する日を選ぶ規則（なければ null）
+ * @param startMinutes 開放開始時刻（0時からの分数、24:00 未満）
+ * @param endMinutes   開放終了時刻（0時からの分数、48:00 まで）
+ */
+public record ScheduleRule(RecurrenceRule rule, RecurrenceRule except, int startMinutes, int endMinutes) {
+
+    /** 終了時刻の上限（翌日 24:00） */
+    public static final int MAX_END_MINUTES = 2 * ScheduleIndex.MINUTES_PER_DAY;
+
+    public ScheduleRule {
+        if (startMinutes < 0 || startMinutes >= ScheduleIndex.MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("規則の開始時刻は 0:00〜23:59 で指定してください: " + rule);
+        }
+        if (endMinutes <= startMinutes || endMinutes > MAX_END_MINUTES) {
+            throw new IllegalArgumentException("規則の終了時刻は開始時刻より後、48:00 までで指定してください: " + rule);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.access.AccessGroup;
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * 設定のスケジュールを実時間を待たずに再生するシミュレーター
+ * <p>
+ * 設定スナップショットだけを使い、指定期間の開閉の切り替えと閉鎖前告知を、
+ * コンパイル済みスケジュールの切り替え点を順にたどって求める（1 分ずつ進めることはしない）。
+ * 切り替え点はタイムゾーンで実時刻に変換するため、夏時間の切り替えで長さが変わる・消えてしまう
+ * 開放時間も検出できる。重なり合うスケジュール・例外の設定もあわせて報告する。
+ * <p>
+ * オーバーライドは考慮しない。Bukkit に依存しないため、任意のスレッドから呼び出し可能。
+ */
+public final class ScheduleSimulator {
+
+    /** 1 つのスケジュールについてたどる切り替え点の上限（無限ループ防止） */
+    private static final int MAX_EDGES = 100_000;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("M/d(E) HH:mm", Locale.JAPANESE);
+    private static final DateTimeFormatter LOCAL_FORMAT = DateTimeFormatter.ofPattern("M/d HH:mm");
+
+    /**
+     * 出来事の種類
+     */
+    public enum EventType {
+        /** 開放 */
+        OPEN,
+        /** 閉鎖 */
+        CLOSE,
+        /** 閉鎖前告知 */
+        WARNING
+    }
+
+    /**
+     * シミュレーション中の出来事
+     *
+     * @param at      発生時刻
+     * @param group   グループ番号（全体は {@link GroupResolver#DEFAULT_GROUP}）
+     * @param type    種類
+     * @param minutes 閉鎖前告知の残り分数（告知以外は 0）
+     */
+    public record Event(Instant at, int group, EventType type, int minutes) {
+    }
+
+    /**
+     * シミュレーション結果
+     *
+     * @param from         開始時刻
+     * @param until        終了時刻
+     * @param events       出来事（時刻順）
+     * @param findings     確認が必要な点（重なり・長さ 0 の開放時間・夏時間の影響。表示用）
+     * @param elapsedNanos シミュレーションにかかった時間（ナノ秒）
+     */
+    public record Result(Instant from, Instant until, List<Event> events, List<String> findings,
+            long elapsedNanos) {
+
+        public Result {
+            events = List.copyOf(events);
+            findings = List.copyOf(findings);
+        }
+
+        /**
+         * 指定した種類の出来事の件数
+         */
+        public int count(EventType type) {
+            int count = 0;
+            for (Event event : events) {
+                if (event.type() == type) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private ScheduleSimulator() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 指定した時刻から一定期間、スケジュールを再生する
+     *
+     * @param config 再生する設定
+     * @param from   開始時刻
+     * @param span   再生する期間
+     */
+    public static Result simulate(ConfigSnapshot config, Instant from, Duration span) {
+        long startNanos = System.nanoTime();
+        Instant until = from.plus(span);
+        List<Event> events = new ArrayList<>();
+        List<String> findings = new ArrayList<>();
+
+        checkEntries(config.scheduleEntries(), findings);
+        checkExceptions(config.exceptions(), findings);
+
+        replay(config.schedule(), GroupResolver.DEFAULT_GROUP, "", true, config, from, until, events, findings);
+        List<AccessGroup> groups = config.groups();
+        for (int i = 0; i < groups.size(); i++) {
+            AccessGroup group = groups.get(i);
+            if (!group.always()) {
+                replay(group.schedule(), i, " [" + group.name() + "]", group.warnings(), config, from, until,
+                        events, findings);
+            }
+        }
+
+        // 同時刻の出来事は全体 → グループの順を保つ（安定ソート）
+        events.sort(Comparator.comparing(Event::at));
+        return new Result(from, until, events, findings, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 1 つのスケジュールの切り替え点を実時刻に変換しながらたどる
+     * <p>
+     * ローカル日時上の状態と、実時刻に変換した切り替え点での状態を別々に追い、
+     * 食い違う（夏時間で時計が進み、開放・閉鎖が実時刻上なくなる）点を報告する。
+     */
+    private static void replay(CompiledSchedule schedule, int group, String label, boolean warnings,
+            ConfigSnapshot config, Instant from, Instant until, List<Event> events, List<String> findings) {
+        ZoneId zone = config.timezone();
+        LocalDateTime local = from.atZone(zone).toLocalDateTime();
+        boolean localOpen = schedule.isOpen(local);
+        boolean open = localOpen;
+        Instant openedAt = open ? from : null;
+        LocalDateTime openedLocal = open ? local : null;
+        Instant previous = from;
+
+        for (int step = 0; step < MAX_EDGES; step++) {
+            LocalDateTime edgeLocal = schedule.findNextEdge(local);
+            if (edgeLocal == null) {
+                break;
+            }
+            Instant edge = CompiledSchedule.toInstantAfter(edgeLocal, zone, previous);
+            if (edge.isAfter(until)) {
+                // 期間の終わりをまたぐ開放時間も、期間内の告知は数える
+                if (open && warnings) {
+                    addWarnings(openedAt, edge, group, config, from, until, events);
+                }
+                break;
+            }
+            local = edgeLocal;
+            localOpen = !localOpen;
+            boolean realOpen = schedule.isOpen(edge.atZone(zone).toLocalDateTime());
+
+            if (zone.getRules().getValidOffsets(edgeLocal).size() > 1) {
+                findings.add(format(edge, zone) + label + ": 時計が戻る切り替えのため "
+                        + LOCAL_FORMAT.format(edgeLocal) + " が 2 回あります（"
+                        + (localOpen ? "開放" : "閉鎖") + "は 1 回目に行われます）");
+            }
+            if (realOpen != localOpen) {
+                findings.add(format(edge, zone) + label + ": 夏時間の切り替えにより "
+                        + LOCAL_FORMAT.format(edgeLocal) + " の" + (localOpen ? "開放" : "閉鎖")
+                        + "が実時刻上なくなります（長さ 0 の" + (localOpen ? "開放" : "閉鎖") + "時間）");
+            }
+            if (realOpen == open) {
+                previous = edge;
+                continue;
+            }
+
+            if (realOpen) {
+                openedAt = edge;
+                openedLocal = edgeLocal;
+            } else {
+                if (warnings) {
+                    addWarnings(openedAt, edge, group, config, from, until, events);
+                }
+                checkWindowLength(openedAt, openedLocal, edge, edgeLocal, from, label, zone, findings);
+            }
+            events.add(new Event(edge, group, realOpen ? EventType.OPEN : EventType.CLOSE, 0));
+            open = realOpen;
+            previous = edge;
+        }
+    }
+
+    /**
+     * 閉鎖前告知を {@link ScheduleManager} と同じ規則で並べる。
+     * 開放時点ですでに過ぎている告知は、開放時点の 1 回にまとめる
+     */
+    private static void addWarnings(Instant openedAt, Instant closeAt, int group, ConfigSnapshot config,
+            Instant from, Instant until, List<Event> events) {
+        TreeSet<Integer> intervals = new TreeSet<>(Comparator.reverseOrder());
+        for (int interval : config.warningIntervals()) {
+            if (interval > 0) {
+                intervals.add(interval);
+            }
+        }
+
+        boolean merged = false;
+        for (int interval : intervals) {
+            Instant warnAt = closeAt.minus(Duration.ofMinutes(interval));
+            if (warnAt.isAfter(openedAt)) {
+                if (warnAt.isAfter(from) && !warnAt.isAfter(until)) {
+                    events.add(new Event(warnAt, group, EventType.WARNING, interval));
+                }
+            } else if (!merged && openedAt.isAfter(from)) {
+                long seconds = Duration.between(openedAt, closeAt).toSeconds();
+                events.add(new Event(openedAt, group, EventType.WARNING, (int) ((seconds + 59) / 60)));
+                merged = true;
+            }
+        }
+    }
+
+    /**
+     * 実時刻での開放時間の長さが、設定上（ローカル日時上）の長さと異なれば報告する
+     */
+    private static void checkWindowLength(Instant openedAt, LocalDateTime openedLocal, Instant closeAt,
+            LocalDateTime closeLocal, Instant from, String label, ZoneId zone, List<String> findings) {
+        if (openedAt.equals(from)) {
+            // 開始時点ですでに開放中だった時間帯は、始まりが分からないため比べない
+            return;
+        }
+        long realMinutes = Duration.between(openedAt, closeAt).toMinutes();
+        long localMinutes = CompiledSchedule.toLocalMinute(closeLocal) - CompiledSchedule.toLocalMinute(openedLocal);
+        if (realMinutes <= 0) {
+            findings.add(format(openedAt, zone) + label + ": 開放時間の長さが 0 分です");
+        } else if (realMinutes != localMinutes) {
+            findings.add(format(openedAt, zone) + label + ": 夏時間の切り替えにより、開放時間が "
+                    + localMinutes + " 分ではなく " + realMinutes + " 分になります");
+        }
+    }
+
+    /**
+     * 曜日スケジュール同士の重なりと、長さのない開放時間を報告する
+     */
+    private static void checkEntries(List<ScheduleEntry> entries, List<String> findings) {
+        List<List<int[]>> ranges = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            ScheduleEntry entry = entries.get(i);
+            if (entry.endMinutes() <= entry.startMinutes()) {
+                findings.add("スケジュール #" + (i + 1) + ": 終了時刻が開始時刻以前のため、開放時間の長さが 0 です ("
+                        + entry.formatTime(entry.startMinutes()) + "〜" + entry.formatTime(entry.endMinutes()) + ")");
+            }
+            ranges.add(weekRanges(entry));
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            for (int j = i + 1; j < entries.size(); j++) {
+                int[] overlap = firstOverlap(ranges.get(i), ranges.get(j));
+                if (overlap != null) {
+                    findings.add("スケジュール #" + (i + 1) + " と #" + (j + 1) + " の開放時間が重なっています ("
+                            + formatMinuteOfWeek(overlap[0]) + "〜" + formatMinuteOfWeek(overlap[1]) + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * 曜日スケジュールを週内の分の区間 [開始, 終了) に展開する（週をまたぐ区間は 2 つに分ける）
+     */
+    private static List<int[]> weekRanges(ScheduleEntry entry) {
+        List<int[]> ranges = new ArrayList<>();
+        if (entry.endMinutes() <= entry.startMinutes()) {
+            return ranges;
+        }
+        for (DayOfWeek day : entry.days()) {
+            int start = (day.getValue() - 1) * ScheduleIndex.MINUTES_PER_DAY + entry.startMinutes();
+            int end = (day.getValue() - 1) * ScheduleIndex.MINUTES_PER_DAY + entry.endMinutes();
+            if (end > ScheduleIndex.MINUTES_PER_WEEK) {
+                ranges.add(new int[] {start, ScheduleIndex.MINUTES_PER_WEEK});
+                ranges.add(new int[] {0, end - ScheduleIndex.MINUTES_PER_WEEK});
+            } else {
+                ranges.add(new int[] {start, end});
+            }
+        }
+        return ranges;
+    }
+
+    private static int[] firstOverlap(List<int[]> a, List<int[]> b) {
+        int[] first = null;
+        for (int[] x : a) {
+            for (int[] y : b) {
+                int start = Math.max(x[0], y[0]);
+                int end = Math.min(x[1], y[1]);
+                if (start < end && (first == null || start < first[0])) {
+                    first = new int[] {start, end};
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * 日付指定の例外同士の重なりを報告する（重なった部分は後に書かれた例外が優先される）
+     */
+    private static void checkExceptions(List<DateException> exceptions, List<String> findings) {
+        for (int i = 0; i < exceptions.size(); i++) {
+            DateException a = exceptions.get(i);
+            for (int j = i + 1; j < exceptions.size(); j++) {
+                DateException b = exceptions.get(j);
+                if (a.start().isBefore(b.end()) && b.start().isBefore(a.end())) {
+                    LocalDateTime start = a.start().isAfter(b.start()) ? a.start() : b.start();
+                    LocalDateTime end = a.end().isBefore(b.end()) ? a.end() : b.end();
+                    findings.add("例外 #" + (i + 1) + " と #" + (j + 1) + " の期間が重なっています ("
+                            + LOCAL_FORMAT.format(start) + "〜" + LOCAL_FORMAT.format(end) + "、#" + (j + 1)
+                            + " が優先されます)");
+                }
+            }
+        }
+    }
+
+    private static String formatMinuteOfWeek(int minuteOfWeek) {
+        int day = minuteOfWeek / ScheduleIndex.MINUTES_PER_DAY % 7;
+        int minutes = minuteOfWeek % ScheduleIndex.MINUTES_PER_DAY;
+        if (minuteOfWeek == ScheduleIndex.MINUTES_PER_WEEK) {
+            // 週の終わり（日曜 24:00）
+            day = 6;
+            minutes = ScheduleIndex.MINUTES_PER_DAY;
+        }
+        return DayOfWeek.of(day + 1).getDisplayName(TextStyle.SHORT, Locale.JAPANESE)
+                + " " + String.format("%d:%02d", minutes / 60, minutes % 60);
+    }
+
+    /**
+     * 表示用に実時刻をタイムゾーンの日時に整形する
+     */
+    public static String format(Instant instant, ZoneId zone) {
+        return TIME_FORMAT.format(instant.atZone(zone));
+    }
+}
@@ -0,0 +1,168 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.api.event.GateWarmupEvent;
+import dev.timegateplugin.timegate.config.WarmupSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * スケジュール上の開放前に、サーバーを温めておくクラス
+ * <p>
+ * 開放の数分前に {@link GateWarmupEvent} を呼び、スポーン周辺のチャンクを
+ * {@link World#getChunkAtAsync} で近い順に先読みしてプラグインチケットで読み込みを維持する。
+ * 開放直後のログインが冷えたチャンク読み込みに当たらないようにする。
+ * チケットは開放から一定時間後に解除する。
+ */
+public class ServerWarmup {
+
+    private static final long TICKS_PER_SECOND = 20L;
+
+    private final JavaPlugin plugin;
+    private final Logger logger;
+
+    /** ウォームアップ済みの開放予定時刻（同じ開放に対して 2 回行わない） */
+    private Instant warmedFor;
+    /** 進行中の先読みの世代（中止すると増え、古い読み込みの完了を無視する） */
+    private int generation;
+    private World world;
+    private List<int[]> pending;
+    private int nextIndex;
+    private int inFlight;
+    private int loaded;
+    private long startedAtNanos;
+    private BukkitTask releaseTask;
+
+    public ServerWarmup(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 指定した開放に向けたウォームアップを開始する（メインスレッド）。同じ開放に対しては何もしない
+     */
+    public void start(Instant openAt, WarmupSettings settings) {
+        if (openAt.equals(warmedFor)) {
+            return;
+        }
+        cancel();
+        warmedFor = openAt;
+
+        GateWarmupEvent event = new GateWarmupEvent(openAt);
+        Bukkit.getPluginManager().callEvent(event);
+        if (event.isCancelled()) {
+            logger.info("ウォームアップのチャンク先読みは他のプラグインによりキャンセルされました。");
+            return;
+        }
+
+        world = resolveWorld(settings.world());
+        if (world == null) {
+            logger.warning("ウォームアップ対象のワールドが見つかりません: " + settings.world());
+            return;
+        }
+
+        Location spawn = world.getSpawnLocation();
+        pending = spiral(spawn.getBlockX() >> 4, spawn.getBlockZ() >> 4, Math.max(0, settings.radius()));
+        nextIndex = 0;
+        inFlight = 0;
+        loaded = 0;
+        startedAtNanos = System.nanoTime();
+        logger.info("開放前のウォームアップを開始します: " + world.getName() + " のスポーン周辺 "
+                + pending.size() + " チャンク");
+
+        int myGeneration = generation;
+        for (int i = 0; i < Math.max(1, settings.maxConcurrent()); i++) {
+            requestNext(myGeneration);
+        }
+    }
+
+    /**
+     * ゲートが開いたら、一定時間後にチャンクの読み込み維持を解除する（メインスレッド）
+     */
+    public void onOpened(WarmupSettings settings) {
+        if (world == null || releaseTask != null) {
+            return;
+        }
+        releaseTask = Bukkit.getScheduler().runTaskLater(plugin, this::release,
+                Math.max(0, settings.releaseAfterSeconds()) * TICKS_PER_SECOND);
+    }
+
+    /**
+     * 進行中の先読みを中止し、チャンクの読み込み維持を解除する
+     */
+    public void cancel() {
+        generation++;
+        pending = null;
+        release();
+    }
+
+    private void requestNext(int myGeneration) {
+        if (myGeneration != generation || pending == null || nextIndex >= pending.size()) {
+            return;
+        }
+        int[] coords = pending.get(nextIndex++);
+        inFlight++;
+        // getChunkAtAsync の完了はメインスレッドで通知される
+        world.getChunkAtAsync(coords[0], coords[1]).whenComplete((chunk, error) -> {
+            if (myGeneration != generation) {
+                return;
+            }
+            inFlight--;
+            if (chunk != null) {
+                onChunkLoaded(chunk);
+            }
+            requestNext(myGeneration);
+            if (inFlight == 0 && nextIndex >= pending.size()) {
+                long elapsedMillis = (System.nanoTime() - startedAtNanos) / 1_000_000;
+                logger.info("ウォームアップが完了しました: " + loaded + " チャンク (" + elapsedMillis + "ms)");
+            }
+        });
+    }
+
+    private void onChunkLoaded(Chunk chunk) {
+        chunk.addPluginChunkTicket(plugin);
+        loaded++;
+    }
+
+    private void release() {
+        if (releaseTask != null) {
+            releaseTask.cancel();
+            releaseTask = null;
+        }
+        if (world != null) {
+            world.removePluginChunkTickets(plugin);
+            world = null;
+        }
+    }
+
+    private static World resolveWorld(String name) {
+        if (name == null || name.isEmpty()) {
+            List<World> worlds = Bukkit.getWorlds();
+            return worlds.isEmpty() ? null : worlds.get(0);
+        }
+        return Bukkit.getWorld(name);
+    }
+
+    /**
+     * 中心から近い順に並べた、半径 radius の正方形内のチャンク座標
+     */
+    private static List<int[]> spiral(int centerX, int centerZ, int radius) {
+        List<int[]> coords = new ArrayList<>((2 * radius + 1) * (2 * radius + 1));
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                coords.add(new int[]{centerX + dx, centerZ + dz, dx * dx + dz * dz});
+            }
+        }
+        coords.sort(Comparator.comparingInt(c -> c[2]));
+        return coords;
+    }
+}
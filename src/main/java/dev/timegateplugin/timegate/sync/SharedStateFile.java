@@ -0,0 +1,243 @@
+package dev.timegateplugin.timegate.sync;
+
+import dev.timegateplugin.timegate.schedule.GateState;
+import dev.timegateplugin.timegate.schedule.ScheduleManager.OverrideMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.nio.file.attribute.UserPrincipalNotFoundException;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * 同一ホスト上の複数サーバーでゲート状態を共有するための、メモリマップドファイル上のレコード
+ * <p>
+ * レイアウト（ネイティブバイトオーダー、64 バイト）:
+ * <pre>
+ *  0: int  マジック "TGSS"
+ *  4: int  バージョン
+ *  8: long シーケンス番号（奇数 = 書き込み中）
+ * 16: int  オーバーライドモード
+ * 20: int  ゲート状態
+ * 24: long 更新時刻（エポックミリ秒）
+ * 32: long 書き込んだインスタンスの ID
+ * 40: long オーバーライドの期限（エポックミリ秒、期限なしは 0）
+ * </pre>
+ * 読み取りはシーケンスロック方式でロックを取らない。監視側はシーケンス番号 1 つを読むだけで変化を検知できる。
+ * 書き込みはプロセス間でファイルロックを取って直列化する（プロセスが落ちてもロックは OS が解放する）。
+ * <p>
+ * 内容は他サーバーのゲート状態として信用されるため、POSIX のファイルシステムでは所有者だけが読み書きできる
+ * 権限で作成し、他のユーザーが所有する・グループや他人が書き込めるファイルは開かない。
+ */
+public final class SharedStateFile implements Closeable {
+
+    /**
+     * 共有レコードの内容
+     */
+    public record Record(long sequence, OverrideMode override, Instant overrideExpiresAt, GateState state,
+            long updatedAtMillis, long writerId) {
+    }
+
+    private static final int SIZE = 64;
+    private static final int MAGIC = 0x54475353; // "TGSS"
+    private static final int VERSION = 1;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_SEQUENCE = 8;
+    private static final int OFFSET_OVERRIDE = 16;
+    private static final int OFFSET_STATE = 20;
+    private static final int OFFSET_UPDATED_AT = 24;
+    private static final int OFFSET_WRITER = 32;
+    private static final int OFFSET_EXPIRES_AT = 40;
+
+    private static final int MAX_READ_ATTEMPTS = 16;
+
+    /** 作成するファイル・ディレクトリの権限（所有者のみ） */
+    private static final Set<PosixFilePermission> FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+    private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private SharedStateFile(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 共有ファイルを開く。存在しなければ所有者のみ読み書きできる権限で作成して初期化する
+     *
+     * @throws IOException 開けない場合や、ファイルの所有者・権限が安全でない場合
+     */
+    public static SharedStateFile open(Path path) throws IOException {
+        boolean posix = Files.getFileStore(existingAncestor(path))
+                .supportsFileAttributeView(PosixFileAttributeView.class);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null && !Files.isDirectory(parent)) {
+            if (posix) {
+                Files.createDirectories(parent, PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+            } else {
+                Files.createDirectories(parent);
+            }
+        }
+        if (posix) {
+            try {
+                Files.createFile(path, PosixFilePermissions.asFileAttribute(FILE_PERMISSIONS));
+            } catch (FileAlreadyExistsException e) {
+                // 既存のファイル（他サーバーが作成済み）は下で権限を確かめる
+            }
+            checkPermissions(path);
+        }
+
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            MappedByteBuffer buffer;
+            try (FileLock ignored = channel.lock()) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+                buffer.order(ByteOrder.nativeOrder());
+                if (buffer.getInt(OFFSET_MAGIC) != MAGIC || buffer.getInt(OFFSET_VERSION) != VERSION) {
+                    for (int i = 0; i < SIZE; i += Long.BYTES) {
+                        buffer.putLong(i, 0L);
+                    }
+                    buffer.putInt(OFFSET_VERSION, VERSION);
+                    buffer.putInt(OFFSET_MAGIC, MAGIC);
+                }
+            }
+            return new SharedStateFile(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * ファイルがこのプロセスのユーザーの所有で、グループ・他人から書き込めないことを確かめる
+     */
+    private static void checkPermissions(Path path) throws IOException {
+        PosixFileAttributes attributes = Files.readAttributes(path, PosixFileAttributes.class);
+        UserPrincipal self;
+        try {
+            self = path.getFileSystem().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+        } catch (UserPrincipalNotFoundException e) {
+            // 実行ユーザーを名前で引けない環境（コンテナなど）では所有者の確認を省く
+            self = null;
+        }
+        if (self != null && !attributes.owner().equals(self)) {
+            throw new IOException("共有ファイルの所有者 (" + attributes.owner().getName()
+                    + ") がサーバーの実行ユーザーと異なります");
+        }
+        Set<PosixFilePermission> permissions = attributes.permissions();
+        if (permissions.contains(PosixFilePermission.GROUP_WRITE)
+                || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+            throw new IOException("共有ファイルがグループ・他のユーザーから書き込める権限 ("
+                    + PosixFilePermissions.toString(permissions) + ") になっています。chmod 600 などで制限してください");
+        }
+    }
+
+    /**
+     * ファイルシステムを調べるため、パスの祖先のうち存在する最も近いものを返す
+     */
+    private static Path existingAncestor(Path path) {
+        Path current = path.toAbsolutePath();
+        while (current.getParent() != null && !Files.exists(current)) {
+            current = current.getParent();
+        }
+        return current;
+    }
+
+    /**
+     * 現在のシーケンス番号を返す（変化の検知用、任意のスレッドから呼び出し可能）
+     */
+    public long sequence() {
+        return (long) LONG_VIEW.getAcquire(buffer, OFFSET_SEQUENCE);
+    }
+
+    /**
+     * レコードを一貫した状態で読み取る
+     *
+     * @return レコード。まだ書き込まれていない、または書き込み中で読み取れなかった場合は null
+     */
+    public Record read() {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long before = sequence();
+            if (before == 0) {
+                return null;
+            }
+            if ((before & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int override = buffer.getInt(OFFSET_OVERRIDE);
+            int state = buffer.getInt(OFFSET_STATE);
+            long updatedAt = buffer.getLong(OFFSET_UPDATED_AT);
+            long writer = buffer.getLong(OFFSET_WRITER);
+            long expiresAt = buffer.getLong(OFFSET_EXPIRES_AT);
+
+            VarHandle.loadLoadFence();
+            if (sequence() != before) {
+                continue;
+            }
+            if (override < 0 || override >= OverrideMode.values().length
+                    || state < 0 || state >= GateState.values().length) {
+                return null;
+            }
+            return new Record(before, OverrideMode.values()[override],
+                    expiresAt != 0 ? Instant.ofEpochMilli(expiresAt) : null,
+                    GateState.values()[state], updatedAt, writer);
+        }
+        return null;
+    }
+
+    /**
+     * レコードを書き込む
+     *
+     * @return 書き込み後のシーケンス番号
+     */
+    public long write(OverrideMode override, Instant overrideExpiresAt, GateState state, long writerId)
+            throws IOException {
+        try (FileLock ignored = channel.lock()) {
+            long sequence = (long) LONG_VIEW.get(buffer, OFFSET_SEQUENCE);
+            // 前回の書き込みが途中で止まっていた場合も偶数から始める
+            long start = (sequence | 1L);
+            LONG_VIEW.setRelease(buffer, OFFSET_SEQUENCE, start);
+            VarHandle.storeStoreFence();
+
+            buffer.putInt(OFFSET_OVERRIDE, override.ordinal());
+            buffer.putInt(OFFSET_STATE, state.ordinal());
+            buffer.putLong(OFFSET_UPDATED_AT, System.currentTimeMillis());
+            buffer.putLong(OFFSET_WRITER, writerId);
+            buffer.putLong(OFFSET_EXPIRES_AT, overrideExpiresAt != null ? overrideExpiresAt.toEpochMilli() : 0L);
+
+            long finished = start + 1;
+            LONG_VIEW.setRelease(buffer, OFFSET_SEQUENCE, finished);
+            return finished;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
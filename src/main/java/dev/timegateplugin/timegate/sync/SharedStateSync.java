@@ -0,0 +1,159 @@
+package dev.timegateplugin.timegate.sync;
+
+import dev.timegateplugin.timegate.config.SharedStateSettings;
+import dev.timegateplugin.timegate.schedule.GateSnapshot;
+import dev.timegateplugin.timegate.schedule.ScheduleManager;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 同一ホスト上の複数サーバー（プロキシ配下のバックエンドなど）でゲート状態を共有する
+ * <p>
+ * オーバーライド（期限を含む）と実際のゲート状態を {@link SharedStateFile} に書き込み、
+ * 他サーバーの書き込みは専用スレッドでシーケンス番号を監視して検知する。
+ * 監視はシーケンス番号 1 つの読み取りのみで、変化があったときだけレコードを読み、
+ * メインスレッドで {@link ScheduleManager#applySharedState} に渡す。
+ * 受け取った変化は共有し直さないため、サーバー間で書き込みが往復することはない。
+ */
+public class SharedStateSync {
+
+    private final JavaPlugin plugin;
+    private final ScheduleManager scheduleManager;
+    private final Logger logger;
+    /** 自サーバーの書き込みを見分けるためのインスタンス ID */
+    private final long instanceId = ThreadLocalRandom.current().nextLong();
+
+    private SharedStateFile file;
+    private ScheduledExecutorService poller;
+    /** 最後に確認（または自分で書き込み）したシーケンス番号 */
+    private volatile long lastSequence;
+
+    public SharedStateSync(JavaPlugin plugin, ScheduleManager scheduleManager) {
+        this.plugin = plugin;
+        this.scheduleManager = scheduleManager;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 共有ファイルを開き、監視を開始する（メインスレッド）
+     * <p>
+     * 他サーバーがすでに状態を共有していればそれに合わせ、まだなければ自サーバーの状態を書き込む。
+     *
+     * @return 開始できた場合は true
+     */
+    public boolean start(SharedStateSettings settings) {
+        if (settings.file().isEmpty()) {
+            logger.warning("shared-state.file が指定されていないため、状態共有を開始しません");
+            return false;
+        }
+        Path path = Path.of(settings.file());
+        try {
+            file = SharedStateFile.open(path);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("共有状態ファイルを開けませんでした (" + path + "): " + e.getMessage());
+            return false;
+        }
+
+        SharedStateFile.Record record = file.read();
+        if (record != null) {
+            lastSequence = record.sequence();
+            scheduleManager.applySharedState(record.override(), record.overrideExpiresAt());
+        } else {
+            publish(scheduleManager.snapshot());
+        }
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeGate-SharedState");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, settings.pollIntervalMillis());
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+
+        logger.info("共有状態ファイルによる状態共有を開始しました: " + path.toAbsolutePath()
+                + " (監視間隔 " + interval + "ms)");
+        return true;
+    }
+
+    /**
+     * 監視を停止し、共有ファイルを閉じる
+     */
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.warning("共有状態ファイルを閉じられませんでした: " + e.getMessage());
+            }
+            file = null;
+        }
+    }
+
+    /**
+     * 自サーバーの状態を共有する（メインスレッド）
+     * <p>
+     * 共有ファイルの内容がすでに同じであれば書き込まない。
+     */
+    public void publish(GateSnapshot snapshot) {
+        SharedStateFile current = file;
+        if (current == null) {
+            return;
+        }
+
+        SharedStateFile.Record record = current.read();
+        if (record != null
+                && record.override() == snapshot.override()
+                && Objects.equals(record.overrideExpiresAt(), snapshot.overrideExpiresAt())
+                && record.state() == snapshot.state()) {
+            return;
+        }
+
+        try {
+            lastSequence = current.write(snapshot.override(), snapshot.overrideExpiresAt(), snapshot.state(),
+                    instanceId);
+        } catch (IOException e) {
+            logger.warning("共有状態ファイルへの書き込みに失敗しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * シーケンス番号の変化を確認する（監視スレッド）
+     */
+    private void poll() {
+        SharedStateFile current = file;
+        if (current == null) {
+            return;
+        }
+        long sequence = current.sequence();
+        if (sequence == lastSequence || (sequence & 1L) != 0) {
+            return;
+        }
+
+        SharedStateFile.Record record = current.read();
+        if (record == null) {
+            return;
+        }
+        lastSequence = record.sequence();
+        if (record.writerId() == instanceId) {
+            return;
+        }
+
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin,
+                    () -> scheduleManager.applySharedState(record.override(), record.overrideExpiresAt()));
+        }
+    }
+}
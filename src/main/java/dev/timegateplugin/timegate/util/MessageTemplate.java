@@ -0,0 +1,180 @@
+package dev.timegateplugin.timegate.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * コンパイル済みのメッセージテンプレート
+ * <p>
+ * {@link MessageUtil#compile(String)} で設定の読み込み時に 1 回だけ、MiniMessage 文字列を固定部分と {@link Placeholder} の差し込み位置に分解する。
+ * プレースホルダーを含まないテンプレートはその場でパースした Component を返すだけになる。
+ * 含むテンプレートは差し込み位置を埋めた文字列をパースし、同じ結果を小さな LRU キャッシュで再利用する
+ * （告知の残り分数のように、同じ値で繰り返し表示されるメッセージはパースが 1 回で済む）。
+ * <p>
+ * 未知の {@code {名前}} はそのまま文字列として残す。差し込む値は MiniMessage としてそのまま埋め込む。
+ * ただしプレイヤー名のように {@link Placeholder#escaped()} なものは目印の文字列のままパースし、
+ * パース後に値をプレーンテキストの Component として差し替える。値ごとにキャッシュのキーが変わらないため、
+ * 名前が毎回異なるキック・拒否メッセージでもパースはテンプレートあたり 1 回で済む。
+ * 任意のスレッドから呼び出し可能。
+ */
+public final class MessageTemplate {
+
+    /** 1 テンプレートあたりに保持するパース結果の数 */
+    private static final int CACHE_SIZE = 32;
+    /** エスケープするプレースホルダーの目印を囲む文字（私用領域なので設定やプレイヤー名には現れない） */
+    private static final char SENTINEL_MARK = '\uE000';
+
+    private final String source;
+    /** 固定部分（差し込み位置の数 + 1 個） */
+    private final String[] literals;
+    /** 差し込み位置ごとのプレースホルダー */
+    private final Placeholder[] slots;
+    private final Set<Placeholder> used;
+    /** プレースホルダーを含まない場合のパース済み Component */
+    private final Component fixed;
+    private final Map<String, Component> cache;
+
+    private MessageTemplate(String source, List<String> literals, List<Placeholder> slots) {
+        this.source = source;
+        this.literals = literals.toArray(new String[0]);
+        this.slots = slots.toArray(new Placeholder[0]);
+        this.used = slots.isEmpty() ? EnumSet.noneOf(Placeholder.class) : EnumSet.copyOf(slots);
+        this.fixed = slots.isEmpty() ? MessageUtil.parse(source) : null;
+        this.cache = slots.isEmpty() ? null : new LinkedHashMap<>(CACHE_SIZE * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * MiniMessage 文字列をテンプレートにコンパイルする
+     *
+     * @param source MiniMessage 形式の文字列（null は空文字列として扱う）
+     */
+    static MessageTemplate compile(String source) {
+        String text = source != null ? source : "";
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int index = 0;
+        while (index < text.length()) {
+            int open = text.indexOf('{', index);
+            int close = open < 0 ? -1 : text.indexOf('}', open + 1);
+            Placeholder placeholder = close < 0 ? null : Placeholder.byKey(text.substring(open + 1, close));
+            if (placeholder == null) {
+                // 未知の {名前} や閉じていない { は固定部分として扱う
+                int end = open < 0 ? text.length() : open + 1;
+                literal.append(text, index, end);
+                index = end;
+                continue;
+            }
+            literal.append(text, index, open);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(placeholder);
+            index = close + 1;
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(text, literals, slots);
+    }
+
+    /**
+     * 元の MiniMessage 文字列
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * 指定したプレースホルダーを含むかどうか
+     */
+    public boolean uses(Placeholder placeholder) {
+        return used.contains(placeholder);
+    }
+
+    /**
+     * プレースホルダーを空文字列で埋めて表示する（プレースホルダーを含まないテンプレート向け）
+     */
+    public Component render() {
+        return fixed != null ? fixed : render(null, null, null, null);
+    }
+
+    /**
+     * 1 種類のプレースホルダーを埋めて表示する
+     */
+    public Component render(Placeholder placeholder, String value) {
+        return fixed != null ? fixed : render(placeholder, value, null, null);
+    }
+
+    /**
+     * 2 種類のプレースホルダーを埋めて表示する。指定のないプレースホルダーは空文字列になる
+     */
+    public Component render(Placeholder first, String firstValue, Placeholder second, String secondValue) {
+        if (fixed != null) {
+            return fixed;
+        }
+        StringBuilder text = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < slots.length; i++) {
+            text.append(literals[i]);
+            Placeholder slot = slots[i];
+            if (slot == first) {
+                appendValue(text, slot, firstValue);
+            } else if (slot == second) {
+                appendValue(text, slot, secondValue);
+            }
+        }
+        text.append(literals[slots.length]);
+
+        Component component = parseCached(text.toString());
+        component = insertPlain(component, first, firstValue);
+        return insertPlain(component, second, secondValue);
+    }
+
+    private Component parseCached(String key) {
+        synchronized (cache) {
+            Component cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Component component = MessageUtil.parse(key);
+        synchronized (cache) {
+            cache.put(key, component);
+        }
+        return component;
+    }
+
+    /**
+     * エスケープするプレースホルダーの目印を、値そのままのテキスト Component に差し替える
+     */
+    private Component insertPlain(Component component, Placeholder placeholder, String value) {
+        if (placeholder == null || !placeholder.escaped() || value == null || !used.contains(placeholder)) {
+            return component;
+        }
+        return component.replaceText(TextReplacementConfig.builder()
+                .matchLiteral(sentinel(placeholder))
+                .replacement(Component.text(value))
+                .build());
+    }
+
+    private static void appendValue(StringBuilder text, Placeholder slot, String value) {
+        if (value == null) {
+            return;
+        }
+        // エスケープする値は目印だけを埋め、パース後に差し替える
+        text.append(slot.escaped() ? sentinel(slot) : value);
+    }
+
+    private static String sentinel(Placeholder slot) {
+        return SENTINEL_MARK + slot.key() + SENTINEL_MARK;
+    }
+}
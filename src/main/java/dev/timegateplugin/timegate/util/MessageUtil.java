@@ -26,4 +26,24 @@ public final class MessageUtil {
         }
         return MINI_MESSAGE.deserialize(miniMessageString);
     }
+
+    /**
+     * MiniMessage 形式の文字列を、プレースホルダーを差し込めるテンプレートにコンパイルする
+     *
+     * @param miniMessageString MiniMessage 形式の文字列（{@link Placeholder} を含められる）
+     * @return コンパイル済みのテンプレート
+     */
+    public static MessageTemplate compile(String miniMessageString) {
+        return MessageTemplate.compile(miniMessageString);
+    }
+
+    /**
+     * 文字列中の MiniMessage タグをエスケープする（任意の文字列をそのまま表示する場合に使用）
+     *
+     * @param text エスケープする文字列
+     * @return エスケープ後の文字列
+     */
+    public static String escape(String text) {
+        return MINI_MESSAGE.escapeTags(text);
+    }
 }
@@ -0,0 +1,57 @@
+package dev.timegateplugin.timegate.util;
+
+/**
+ * メッセージテンプレートで使えるプレースホルダー（{@code {名前}} の形で記述する）
+ */
+public enum Placeholder {
+    /** 残り分数（閉鎖前告知・プレイ時間の告知） */
+    MINUTES("minutes", false),
+    /** 待ち秒数（入場制御の再試行メッセージ） */
+    SECONDS("seconds", false),
+    /** 残り時間 m:ss（カウントダウン） */
+    TIME("time", false),
+    /** 次の開放日時（MOTD） */
+    NEXT_OPEN("next_open", false),
+    /** 閉鎖までの残り分数（MOTD） */
+    MINUTES_LEFT("minutes_left", false),
+    /** プレイヤー名（キック・ログイン拒否メッセージ） */
+    PLAYER("player", true);
+
+    private static final Placeholder[] VALUES = values();
+
+    private final String key;
+    private final boolean escaped;
+
+    Placeholder(String key, boolean escaped) {
+        this.key = key;
+        this.escaped = escaped;
+    }
+
+    /**
+     * テンプレート中の名前（波括弧を除く）
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * 差し込む値の MiniMessage タグをエスケープするか（外部から来る文字列）
+     */
+    public boolean escaped() {
+        return escaped;
+    }
+
+    /**
+     * 名前からプレースホルダーを引く
+     *
+     * @return 該当するものがなければ null
+     */
+    static Placeholder byKey(String key) {
+        for (Placeholder placeholder : VALUES) {
+            if (placeholder.key.equals(key)) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+}
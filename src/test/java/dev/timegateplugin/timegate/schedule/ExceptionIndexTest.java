@@ -0,0 +1,196 @@
+package dev.timegateplugin.timegate.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ExceptionIndex} と、例外を含む {@link CompiledSchedule} の判定が、例外を 1 分ずつ直接評価した結果
+ * （重なる場合は後の例外を優先）と一致することを、期間内の全分について確認する
+ */
+class ExceptionIndexTest {
+
+    private static final int MINUTES_PER_DAY = ScheduleIndex.MINUTES_PER_DAY;
+
+    private static final LocalDate FROM = LocalDate.of(2026, 2, 25);
+    private static final LocalDate TO = LocalDate.of(2026, 3, 25);
+
+    /** 曜日スケジュール（デフォルト設定と同じ） */
+    private static final List<ScheduleEntry> WEEKLY = List.of(
+            new ScheduleEntry(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY),
+                    toMinutes("10:00"), toMinutes("25:00")),
+            new ScheduleEntry(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                    toMinutes("18:00"), toMinutes("23:00")));
+
+    @Test
+    void emptyIndexHasNoSegments() {
+        assertEquivalent(List.of());
+        assertEquals(0, ExceptionIndex.compile(List.of()).size());
+    }
+
+    @Test
+    void singleDayPastMidnight() {
+        assertEquivalent(List.of(exception("2026-03-06", "2026-03-06", "20:00", "26:00", GateState.OPEN)));
+    }
+
+    @Test
+    void multiDayRangeEndingPastMidnight() {
+        // 初日 18:00 から最終日の翌 3:00 まで
+        assertEquivalent(List.of(exception("2026-03-02", "2026-03-05", "18:00", "27:00", GateState.CLOSED)));
+        assertEquivalent(List.of(exception("2026-03-10", "2026-03-12", "00:00", "48:00", GateState.OPEN)));
+    }
+
+    @Test
+    void laterExceptionWinsOnOverlap() {
+        List<DateException> exceptions = List.of(
+                exception("2026-03-01", "2026-03-08", "00:00", "24:00", GateState.CLOSED),
+                exception("2026-03-04", "2026-03-04", "20:00", "26:00", GateState.OPEN),
+                exception("2026-03-04", "2026-03-04", "22:00", "23:00", GateState.CLOSED));
+        assertEquivalent(exceptions);
+
+        // 閉鎖の中に開放が 2 つに分かれて挟まる
+        assertEquals(5, ExceptionIndex.compile(exceptions).size());
+    }
+
+    @Test
+    void earlierExceptionIsHiddenByLaterOne() {
+        assertEquivalent(List.of(
+                exception("2026-03-04", "2026-03-04", "20:00", "26:00", GateState.OPEN),
+                exception("2026-03-01", "2026-03-08", "00:00", "24:00", GateState.CLOSED)));
+        assertEquals(1, ExceptionIndex.compile(List.of(
+                exception("2026-03-04", "2026-03-04", "20:00", "26:00", GateState.OPEN),
+                exception("2026-03-01", "2026-03-08", "00:00", "24:00", GateState.CLOSED))).size());
+    }
+
+    @Test
+    void adjacentSameStateSegmentsMerge() {
+        List<DateException> exceptions = List.of(
+                exception("2026-03-03", "2026-03-03", "10:00", "26:00", GateState.CLOSED),
+                exception("2026-03-04", "2026-03-05", "02:00", "12:00", GateState.CLOSED),
+                exception("2026-03-05", "2026-03-05", "12:00", "13:00", GateState.OPEN));
+        assertEquivalent(exceptions);
+        assertEquals(2, ExceptionIndex.compile(exceptions).size());
+    }
+
+    @Test
+    void randomOverlappingExceptions() {
+        Random random = new Random(20260101L);
+        for (int round = 0; round < 100; round++) {
+            int count = 1 + random.nextInt(6);
+            List<DateException> exceptions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                LocalDate from = FROM.plusDays(1 + random.nextInt(20));
+                LocalDate to = from.plusDays(random.nextInt(4));
+                int start = random.nextInt(MINUTES_PER_DAY);
+                int end = 1 + random.nextInt(2 * MINUTES_PER_DAY);
+                if (from.equals(to) && end <= start) {
+                    end = start + 1 + random.nextInt(2 * MINUTES_PER_DAY - start);
+                }
+                GateState state = random.nextBoolean() ? GateState.OPEN : GateState.CLOSED;
+                exceptions.add(new DateException(from.atStartOfDay().plusMinutes(start),
+                        to.atStartOfDay().plusMinutes(end), state));
+            }
+            assertEquivalent(exceptions);
+        }
+    }
+
+    /**
+     * 検証期間の全分について、例外の区間・状態・区間の終わり・次の区間の開始と、
+     * 曜日スケジュールと組み合わせた開放状態・次の切り替えを、直接評価した結果と比べる
+     */
+    private static void assertEquivalent(List<DateException> exceptions) {
+        ExceptionIndex index = ExceptionIndex.compile(exceptions);
+        CompiledSchedule schedule = new CompiledSchedule(ScheduleIndex.compile(WEEKLY), RuleIndex.empty(), index);
+
+        long from = dayStart(FROM);
+        long to = dayStart(TO);
+        int length = (int) (to - from);
+        // 例外の状態（なければ null）と、曜日スケジュールを含めた開放状態
+        GateState[] states = new GateState[length];
+        boolean[] open = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            LocalDateTime time = CompiledSchedule.fromLocalMinute(from + i);
+            for (DateException exception : exceptions) {
+                if (!time.isBefore(exception.start()) && time.isBefore(exception.end())) {
+                    states[i] = exception.state();
+                }
+            }
+            open[i] = states[i] != null ? states[i] == GateState.OPEN : isWithinAny(time);
+        }
+
+        // 後ろから、区間の終わり・次の区間の開始・次の切り替えを求める（期間内になければ -1）
+        long[] segmentEnd = new long[length];
+        long[] nextStart = new long[length];
+        long[] nextEdge = new long[length];
+        segmentEnd[length - 1] = -1;
+        nextStart[length - 1] = -1;
+        nextEdge[length - 1] = -1;
+        for (int i = length - 2; i >= 0; i--) {
+            segmentEnd[i] = states[i + 1] != states[i] ? from + i + 1 : segmentEnd[i + 1];
+            boolean startsSegment = states[i + 1] != null && states[i + 1] != states[i];
+            nextStart[i] = startsSegment ? from + i + 1 : nextStart[i + 1];
+            nextEdge[i] = open[i + 1] != open[i] ? from + i + 1 : nextEdge[i + 1];
+        }
+
+        for (int i = 0; i < length - 1; i++) {
+            long minute = from + i;
+            int segment = index.find(minute);
+            assertEquals(states[i] == null, segment == ExceptionIndex.NONE, () -> describe(exceptions, minute));
+            if (states[i] != null) {
+                assertEquals(states[i], index.stateOf(segment), () -> describe(exceptions, minute));
+                assertEquals(segmentEnd[i], index.endOf(segment), () -> describe(exceptions, minute));
+            }
+            long expectedStart = nextStart[i] >= 0 ? nextStart[i] : Long.MAX_VALUE;
+            assertEquals(expectedStart, index.nextStartAfter(minute), () -> describe(exceptions, minute));
+
+            LocalDateTime time = CompiledSchedule.fromLocalMinute(minute);
+            assertEquals(open[i], schedule.isOpen(time), () -> describe(exceptions, minute));
+            LocalDateTime edge = schedule.findNextEdge(time);
+            if (nextEdge[i] >= 0) {
+                assertEquals(CompiledSchedule.fromLocalMinute(nextEdge[i]), edge, () -> describe(exceptions, minute));
+            } else {
+                assertTrue(edge == null || !edge.isBefore(CompiledSchedule.fromLocalMinute(to)),
+                        describe(exceptions, minute));
+            }
+        }
+    }
+
+    private static boolean isWithinAny(LocalDateTime time) {
+        for (ScheduleEntry entry : WEEKLY) {
+            if (entry.isWithin(time.getDayOfWeek(), time.toLocalTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(List<DateException> exceptions, long minute) {
+        return exceptions + " @ " + CompiledSchedule.fromLocalMinute(minute);
+    }
+
+    private static long dayStart(LocalDate date) {
+        return date.toEpochDay() * MINUTES_PER_DAY;
+    }
+
+    /**
+     * 設定の {@code from}/{@code to}/{@code start}/{@code end} と同じ形で例外を作る
+     */
+    private static DateException exception(String from, String to, String start, String end, GateState state) {
+        return new DateException(LocalDate.parse(from).atStartOfDay().plusMinutes(toMinutes(start)),
+                LocalDate.parse(to).atStartOfDay().plusMinutes(toMinutes(end)), state);
+    }
+
+    private static int toMinutes(String time) {
+        String[] parts = time.split(":");
+        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    }
+}
@@ -0,0 +1,162 @@
+package dev.timegateplugin.timegate.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link RecurrenceRule#matches} が、規則の意味をそのまま書き下した判定と一致することを、数年分の全日付について確認する
+ */
+class RecurrenceRuleTest {
+
+    private static final LocalDate FROM = LocalDate.of(2023, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2029, 1, 1);
+
+    @Test
+    void firstSaturdayOfMonth() {
+        assertMatches("FREQ=MONTHLY;BYDAY=1SA",
+                date -> date.getDayOfWeek() == DayOfWeek.SATURDAY && date.getDayOfMonth() <= 7);
+    }
+
+    @Test
+    void lastFridayOfMonth() {
+        assertMatches("FREQ=MONTHLY;BYDAY=-1FR",
+                date -> date.getDayOfWeek() == DayOfWeek.FRIDAY && date.getDayOfMonth() + 7 > date.lengthOfMonth());
+    }
+
+    @Test
+    void secondAndSecondToLastSunday() {
+        assertMatches("FREQ=MONTHLY;BYDAY=2SU,-2SU",
+                date -> date.getDayOfWeek() == DayOfWeek.SUNDAY
+                        && (ordinal(date) == 2 || ordinalFromEnd(date) == 2));
+    }
+
+    @Test
+    void fifthWeekdayOnlyInLongMonths() {
+        assertMatches("FREQ=MONTHLY;BYDAY=5TH",
+                date -> date.getDayOfWeek() == DayOfWeek.THURSDAY && date.getDayOfMonth() > 28);
+    }
+
+    @Test
+    void yearlyOrdinalRestrictedByMonth() {
+        // 11 月の第 4 木曜
+        assertMatches("FREQ=YEARLY;BYMONTH=11;BYDAY=4TH",
+                date -> date.getMonthValue() == 11 && date.getDayOfWeek() == DayOfWeek.THURSDAY
+                        && ordinal(date) == 4);
+    }
+
+    @Test
+    void negativeMonthDayCountsFromMonthEnd() {
+        assertMatches("FREQ=MONTHLY;BYMONTHDAY=-1",
+                date -> date.getDayOfMonth() == date.lengthOfMonth());
+        assertMatches("FREQ=MONTHLY;BYMONTHDAY=-3,15",
+                date -> date.getDayOfMonth() == date.lengthOfMonth() - 2 || date.getDayOfMonth() == 15);
+        // 30 日のない 2 月は該当しない
+        assertMatches("FREQ=MONTHLY;BYMONTHDAY=30,-31",
+                date -> date.getDayOfMonth() == 30 || (date.getDayOfMonth() == 1 && date.lengthOfMonth() == 31));
+    }
+
+    @Test
+    void monthDayAndDayOfWeekMustBothMatch() {
+        // 13 日の金曜
+        assertMatches("FREQ=MONTHLY;BYMONTHDAY=13;BYDAY=FR",
+                date -> date.getDayOfMonth() == 13 && date.getDayOfWeek() == DayOfWeek.FRIDAY);
+    }
+
+    @Test
+    void weeklyIntervalAnchoredOnStartWeek() {
+        LocalDate start = LocalDate.of(2026, 1, 2);
+        assertMatches("FREQ=WEEKLY;INTERVAL=2;BYDAY=FR;DTSTART=2026-01-02",
+                date -> !date.isBefore(start) && date.getDayOfWeek() == DayOfWeek.FRIDAY
+                        && ChronoUnit.WEEKS.between(start, date) % 2 == 0);
+        // 起点の週の月曜から数えるため、DTSTART より前の曜日も同じ週なら対象外、翌々週からは該当する
+        LocalDate wednesday = LocalDate.of(2026, 1, 7);
+        assertMatches("FREQ=WEEKLY;INTERVAL=3;BYDAY=MO,SA;DTSTART=2026-01-07",
+                date -> !date.isBefore(wednesday)
+                        && (date.getDayOfWeek() == DayOfWeek.MONDAY || date.getDayOfWeek() == DayOfWeek.SATURDAY)
+                        && ChronoUnit.DAYS.between(LocalDate.of(2026, 1, 5), date) / 7 % 3 == 0);
+    }
+
+    @Test
+    void dailyAndMonthlyIntervals() {
+        LocalDate start = LocalDate.of(2025, 2, 10);
+        assertMatches("FREQ=DAILY;INTERVAL=3;DTSTART=2025-02-10",
+                date -> !date.isBefore(start) && ChronoUnit.DAYS.between(start, date) % 3 == 0);
+        assertMatches("FREQ=MONTHLY;INTERVAL=3;DTSTART=2025-02-10",
+                date -> !date.isBefore(start) && date.getDayOfMonth() == 10
+                        && (date.getMonthValue() - 2 + 12 * (date.getYear() - 2025)) % 3 == 0);
+        assertMatches("FREQ=MONTHLY;INTERVAL=2;BYDAY=-1SU;DTSTART=2025-02-10",
+                date -> !date.isBefore(start) && date.getDayOfWeek() == DayOfWeek.SUNDAY
+                        && ordinalFromEnd(date) == 1
+                        && (date.getMonthValue() + 12 * date.getYear()) % 2 == 0);
+    }
+
+    @Test
+    void datesDefaultFromStart() {
+        assertMatches("FREQ=WEEKLY;DTSTART=2024-05-15",
+                date -> !date.isBefore(LocalDate.of(2024, 5, 15)) && date.getDayOfWeek() == DayOfWeek.WEDNESDAY);
+        assertMatches("FREQ=YEARLY;DTSTART=2024-02-29",
+                date -> !date.isBefore(LocalDate.of(2024, 2, 29))
+                        && date.getMonthValue() == 2 && date.getDayOfMonth() == 29);
+        assertMatches("FREQ=YEARLY;BYMONTH=12",
+                date -> date.getMonthValue() == 12);
+    }
+
+    @Test
+    void startAndUntilAreInclusive() {
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        LocalDate until = LocalDate.of(2026, 3, 10);
+        assertMatches("FREQ=DAILY;DTSTART=20260301;UNTIL=2026-03-10",
+                date -> !date.isBefore(start) && !date.isAfter(until));
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("BYDAY=MO"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=1MO"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=32"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RecurrenceRule.parse("FREQ=DAILY;DTSTART=2026-02-01;UNTIL=2026-01-31"));
+    }
+
+    /**
+     * 期間内の全日付について、規則の判定と期待する判定を比べる
+     */
+    private static void assertMatches(String text, Predicate<LocalDate> expected) {
+        RecurrenceRule rule = RecurrenceRule.parse(text);
+        for (LocalDate date = FROM; date.isBefore(TO); date = date.plusDays(1)) {
+            LocalDate at = date;
+            assertEquals(expected.test(date), rule.matches(date), () -> text + " @ " + at);
+        }
+    }
+
+    /**
+     * 月内で何回目の曜日か（1 始まり）
+     */
+    private static int ordinal(LocalDate date) {
+        int count = 0;
+        for (LocalDate day = date; day.getMonth() == date.getMonth(); day = day.minusWeeks(1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 月末から数えて何回目の曜日か（1 始まり）
+     */
+    private static int ordinalFromEnd(LocalDate date) {
+        int count = 0;
+        for (LocalDate day = date; day.getMonth() == date.getMonth(); day = day.plusWeeks(1)) {
+            count++;
+        }
+        return count;
+    }
+}
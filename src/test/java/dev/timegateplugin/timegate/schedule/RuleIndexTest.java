@@ -0,0 +1,229 @@
+package dev.timegateplugin.timegate.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link RuleIndex} と {@link CompiledSchedule} の判定が、規則を日ごとに直接評価して開放時間を塗った結果と一致することを、
+ * 期間内の全分について確認する
+ */
+class RuleIndexTest {
+
+    private static final int MINUTES_PER_DAY = ScheduleIndex.MINUTES_PER_DAY;
+    /** 期待値の次の境界・切り替えを探す日数（これより先はインデックスの結果が範囲外であることだけを確認する） */
+    private static final int HORIZON_DAYS = 1500;
+
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 20);
+    private static final LocalDate TO = LocalDate.of(2026, 4, 10);
+
+    @Test
+    void emptyIndexIsAlwaysClosed() {
+        RuleIndex index = RuleIndex.compile(List.of(), FROM);
+        long minute = dayStart(FROM);
+        assertFalse(index.isOpen(minute));
+        assertEquals(Long.MAX_VALUE, index.nextBoundaryAfter(minute));
+    }
+
+    @Test
+    void ordinalDaysOfMonth() {
+        assertEquivalent(List.of(
+                rule("FREQ=MONTHLY;BYDAY=1SA", null, "10:00", "25:00"),
+                rule("FREQ=MONTHLY;BYDAY=-1FR", null, "20:00", "48:00")));
+    }
+
+    @Test
+    void negativeMonthDays() {
+        assertEquivalent(List.of(
+                rule("FREQ=MONTHLY;BYMONTHDAY=-1", null, "22:00", "26:00"),
+                rule("FREQ=MONTHLY;BYMONTHDAY=-2,15", null, "00:00", "24:00")));
+    }
+
+    @Test
+    void intervalsAnchoredOnStart() {
+        assertEquivalent(List.of(
+                rule("FREQ=WEEKLY;INTERVAL=2;BYDAY=FR;DTSTART=2026-01-02", null, "18:00", "24:00"),
+                rule("FREQ=DAILY;INTERVAL=3;DTSTART=2026-02-10", null, "12:00", "13:00")));
+    }
+
+    @Test
+    void exceptRuleRemovesDays() {
+        // 土日の開放時間は翌日に食い込み、連続する日の開放時間と重なる
+        assertEquivalent(List.of(
+                rule("FREQ=WEEKLY;BYDAY=SA,SU", "FREQ=MONTHLY;BYDAY=1SA,1SU", "09:00", "33:00")));
+    }
+
+    @Test
+    void windowsPastMidnightUpToFortyEightHours() {
+        assertEquivalent(List.of(
+                rule("FREQ=DAILY;DTSTART=2026-03-01;UNTIL=2026-03-10", null, "23:00", "47:59"),
+                rule("FREQ=WEEKLY;BYDAY=WE", null, "00:00", "48:00")));
+    }
+
+    @Test
+    void ruleWithoutUpcomingDays() {
+        List<ScheduleRule> rules = List.of(
+                rule("FREQ=DAILY;DTSTART=2025-01-01;UNTIL=2025-01-31", null, "10:00", "11:00"));
+        assertEquivalent(rules);
+        assertTrue(RuleIndex.compile(rules, FROM).hasNoUpcomingDays(0));
+    }
+
+    @Test
+    void fallsBackOutsideIndexedRange() {
+        List<ScheduleRule> rules = List.of(
+                rule("FREQ=MONTHLY;BYDAY=1SA", null, "10:00", "25:00"),
+                rule("FREQ=MONTHLY;BYMONTHDAY=-1", "FREQ=YEARLY;BYMONTH=2", "22:00", "26:00"),
+                rule("FREQ=WEEKLY;INTERVAL=2;BYDAY=FR;DTSTART=2026-01-02", null, "18:00", "30:00"));
+        // 範囲が検証期間より前・後にある場合と、範囲の端が検証期間の途中にある場合
+        assertEquivalent(rules, LocalDate.of(2000, 1, 1));
+        assertEquivalent(rules, LocalDate.of(2040, 1, 1));
+        assertEquivalent(rules, FROM.minusDays(10 * 366 - 30));
+        assertEquivalent(rules, FROM.plusDays(366 + 30));
+    }
+
+    @Test
+    void randomRulesMatchDirectEvaluation() {
+        String[] rules = {
+                "FREQ=DAILY",
+                "FREQ=WEEKLY;BYDAY=MO,TH",
+                "FREQ=WEEKLY;INTERVAL=2;BYDAY=SA;DTSTART=2026-01-10",
+                "FREQ=MONTHLY;BYDAY=2TU,-1SU",
+                "FREQ=MONTHLY;BYMONTHDAY=1,-1",
+                "FREQ=MONTHLY;BYMONTHDAY=-7;BYDAY=MO,FR",
+                "FREQ=DAILY;INTERVAL=5;DTSTART=2026-02-03;UNTIL=2026-03-20",
+                "FREQ=YEARLY;BYMONTH=3;BYDAY=SU",
+        };
+        String[] excepts = {null, null, "FREQ=WEEKLY;BYDAY=SU", "FREQ=MONTHLY;BYMONTHDAY=-1"};
+        Random random = new Random(20260101L);
+        for (int round = 0; round < 20; round++) {
+            int count = 1 + random.nextInt(3);
+            List<ScheduleRule> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int start = random.nextInt(MINUTES_PER_DAY);
+                int end = start + 1 + random.nextInt(2 * MINUTES_PER_DAY - start);
+                String except = excepts[random.nextInt(excepts.length)];
+                list.add(new ScheduleRule(RecurrenceRule.parse(rules[random.nextInt(rules.length)]),
+                        except != null ? RecurrenceRule.parse(except) : null, start, end));
+            }
+            assertEquivalent(list);
+        }
+    }
+
+    @Test
+    void combinesWithWeeklySchedule() {
+        // 曜日スケジュールと隣接・重複する規則の境界では状態が変わらないため、切り替えとして扱わない
+        ScheduleIndex weekly = ScheduleIndex.compile(List.of(
+                new ScheduleEntry(EnumSet.of(DayOfWeek.SATURDAY), toMinutes("18:00"), toMinutes("22:00"))));
+        RuleIndex rules = RuleIndex.compile(List.of(rule("FREQ=MONTHLY;BYDAY=1SA", null, "22:00", "26:00")), FROM);
+        CompiledSchedule schedule = new CompiledSchedule(weekly, rules, ExceptionIndex.empty());
+
+        LocalDateTime firstSaturday = LocalDateTime.of(2026, 2, 7, 18, 0);
+        assertEquals(firstSaturday.plusHours(8), schedule.findNextEdge(firstSaturday));
+        LocalDateTime secondSaturday = LocalDateTime.of(2026, 2, 14, 18, 0);
+        assertEquals(secondSaturday.plusHours(4), schedule.findNextEdge(secondSaturday));
+        assertNull(new CompiledSchedule(ScheduleIndex.empty(), RuleIndex.empty(), ExceptionIndex.empty())
+                .findNextEdge(firstSaturday));
+    }
+
+    private static void assertEquivalent(List<ScheduleRule> rules) {
+        assertEquivalent(rules, FROM);
+    }
+
+    /**
+     * 検証期間の全分について、開放状態・次の境界・次の切り替えを、規則を直接評価した結果と比べる
+     */
+    private static void assertEquivalent(List<ScheduleRule> rules, LocalDate baseDay) {
+        RuleIndex index = RuleIndex.compile(rules, baseDay);
+        CompiledSchedule schedule = new CompiledSchedule(ScheduleIndex.empty(), index, ExceptionIndex.empty());
+
+        long from = dayStart(FROM);
+        long to = dayStart(TO);
+        long horizon = dayStart(TO.plusDays(HORIZON_DAYS));
+        // 前々日からの開放時間が検証期間に食い込むことがある
+        long paintFrom = from - 2 * MINUTES_PER_DAY;
+        boolean[] open = new boolean[(int) (horizon - paintFrom)];
+        TreeSet<Long> boundaries = new TreeSet<>();
+        for (long day = paintFrom / MINUTES_PER_DAY; day * MINUTES_PER_DAY < horizon; day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            for (ScheduleRule rule : rules) {
+                if (!rule.rule().matches(date) || (rule.except() != null && rule.except().matches(date))) {
+                    continue;
+                }
+                long start = day * MINUTES_PER_DAY + rule.startMinutes();
+                long end = day * MINUTES_PER_DAY + rule.endMinutes();
+                boundaries.add(start);
+                boundaries.add(end);
+                for (long minute = start; minute < Math.min(end, horizon); minute++) {
+                    open[(int) (minute - paintFrom)] = true;
+                }
+            }
+        }
+
+        // 後ろから、各分より後で最初に状態が変わる分を求める（探索範囲内になければ -1）
+        long[] nextEdge = new long[open.length];
+        nextEdge[open.length - 1] = -1;
+        for (int i = open.length - 2; i >= 0; i--) {
+            nextEdge[i] = open[i + 1] != open[i] ? paintFrom + i + 1 : nextEdge[i + 1];
+        }
+
+        for (long minute = from; minute < to; minute++) {
+            int i = (int) (minute - paintFrom);
+            long at = minute;
+            assertEquals(open[i], index.isOpen(minute), () -> describe(rules, at));
+
+            Long boundary = boundaries.higher(minute);
+            long actualBoundary = index.nextBoundaryAfter(minute);
+            if (boundary != null && boundary < horizon) {
+                assertEquals((long) boundary, actualBoundary, () -> describe(rules, at));
+            } else {
+                assertTrue(actualBoundary >= horizon, describe(rules, at));
+            }
+
+            LocalDateTime time = CompiledSchedule.fromLocalMinute(minute);
+            assertEquals(open[i], schedule.isOpen(time), () -> describe(rules, at));
+            if (nextEdge[i] >= 0) {
+                assertEquals(CompiledSchedule.fromLocalMinute(nextEdge[i]), schedule.findNextEdge(time),
+                        () -> describe(rules, at));
+            } else if (minute % MINUTES_PER_DAY == 0) {
+                // 切り替えのない状態が続く場合は探索が上限まで進むため、1 日 1 回だけ確認する
+                LocalDateTime edge = schedule.findNextEdge(time);
+                assertTrue(edge == null || CompiledSchedule.toLocalMinute(edge) >= horizon, describe(rules, at));
+            }
+        }
+    }
+
+    private static String describe(List<ScheduleRule> rules, long minute) {
+        StringBuilder text = new StringBuilder();
+        for (ScheduleRule rule : rules) {
+            text.append(rule.rule().source()).append(" except ").append(rule.except())
+                    .append(' ').append(rule.startMinutes()).append('-').append(rule.endMinutes()).append("; ");
+        }
+        return text.append("@ ").append(CompiledSchedule.fromLocalMinute(minute)).toString();
+    }
+
+    private static long dayStart(LocalDate date) {
+        return date.toEpochDay() * MINUTES_PER_DAY;
+    }
+
+    private static ScheduleRule rule(String rule, String except, String start, String end) {
+        return new ScheduleRule(RecurrenceRule.parse(rule), except != null ? RecurrenceRule.parse(except) : null,
+                toMinutes(start), toMinutes(end));
+    }
+
+    private static int toMinutes(String time) {
+        String[] parts = time.split(":");
+        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    }
+}
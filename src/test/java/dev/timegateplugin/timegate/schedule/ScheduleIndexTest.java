@@ -0,0 +1,210 @@
+package dev.timegateplugin.timegate.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ScheduleIndex} が {@link ScheduleEntry} を直接評価した結果と一致することを、週内の全分について確認する
+ */
+class ScheduleIndexTest {
+
+    private static final int MINUTES_PER_DAY = ScheduleIndex.MINUTES_PER_DAY;
+    private static final int MINUTES_PER_WEEK = ScheduleIndex.MINUTES_PER_WEEK;
+
+    @Test
+    void emptyScheduleIsAlwaysClosed() {
+        ScheduleIndex index = ScheduleIndex.compile(List.of());
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            assertFalse(index.isOpen(minute));
+            assertEquals(ScheduleIndex.NO_EDGE, index.getMinutesUntilEdge(minute));
+        }
+    }
+
+    @Test
+    void matchesDefaultSchedule() {
+        assertEquivalent(List.of(
+                entry(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), "10:00", "25:00"),
+                entry(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), "18:00", "23:00")));
+    }
+
+    @Test
+    void overnightWindowSpillsIntoNextDay() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.FRIDAY), "22:00", "25:00"));
+        assertEquivalent(entries);
+
+        ScheduleIndex index = ScheduleIndex.compile(entries);
+        assertTrue(index.isOpen(DayOfWeek.SATURDAY, LocalTime.of(0, 59)));
+        assertFalse(index.isOpen(DayOfWeek.SATURDAY, LocalTime.of(1, 0)));
+        assertEquals(180, index.getMinutesUntilEnd(DayOfWeek.FRIDAY, LocalTime.of(22, 0)));
+    }
+
+    @Test
+    void sundayOvernightWrapsToMonday() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.SUNDAY), "20:00", "26:30"));
+        assertEquivalent(entries);
+
+        ScheduleIndex index = ScheduleIndex.compile(entries);
+        assertTrue(index.isOpen(DayOfWeek.MONDAY, LocalTime.of(2, 29)));
+        assertFalse(index.isOpen(DayOfWeek.MONDAY, LocalTime.of(2, 30)));
+    }
+
+    @Test
+    void fullOvernightDayUpTo48Hours() {
+        assertEquivalent(List.of(entry(EnumSet.of(DayOfWeek.WEDNESDAY), "12:00", "48:00")));
+    }
+
+    @Test
+    void adjacentWindowsMergeIntoOne() {
+        List<ScheduleEntry> entries = List.of(
+                entry(EnumSet.of(DayOfWeek.MONDAY), "10:00", "12:00"),
+                entry(EnumSet.of(DayOfWeek.MONDAY), "12:00", "14:00"));
+        assertEquivalent(entries);
+
+        // 隣接するエントリは 1 つの開放時間として扱う
+        ScheduleIndex index = ScheduleIndex.compile(entries);
+        assertEquals(240, index.getMinutesUntilEnd(DayOfWeek.MONDAY, LocalTime.of(10, 0)));
+        assertEquals(1, index.getMinutesUntilEdge(ScheduleIndex.minuteOfWeek(DayOfWeek.MONDAY, LocalTime.of(13, 59))));
+    }
+
+    @Test
+    void overnightWindowAdjacentToNextDayWindowMerges() {
+        List<ScheduleEntry> entries = List.of(
+                entry(EnumSet.of(DayOfWeek.FRIDAY), "20:00", "26:00"),
+                entry(EnumSet.of(DayOfWeek.SATURDAY), "02:00", "05:00"));
+        assertEquivalent(entries);
+
+        ScheduleIndex index = ScheduleIndex.compile(entries);
+        assertEquals(9 * 60, index.getMinutesUntilEnd(DayOfWeek.FRIDAY, LocalTime.of(20, 0)));
+    }
+
+    @Test
+    void overlappingWindows() {
+        assertEquivalent(List.of(
+                entry(EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY), "09:00", "17:00"),
+                entry(EnumSet.of(DayOfWeek.TUESDAY), "15:00", "27:00"),
+                entry(EnumSet.of(DayOfWeek.WEDNESDAY), "01:00", "02:00")));
+    }
+
+    @Test
+    void alwaysOpenHasNoEdge() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.allOf(DayOfWeek.class), "00:00", "24:00"));
+        assertEquivalent(entries);
+
+        ScheduleIndex index = ScheduleIndex.compile(entries);
+        assertEquals(-1, index.getMinutesUntilEnd(DayOfWeek.MONDAY, LocalTime.NOON));
+        assertEquals(ScheduleIndex.NO_EDGE, index.getMinutesUntilEdge(0));
+    }
+
+    @Test
+    void singleEntryRemainingMinutesMatchEntry() {
+        // 他のエントリと重ならない場合は、エントリ自身の残り分数と一致する
+        List<ScheduleEntry> entries = List.of(
+                entry(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.SATURDAY), "18:30", "25:15"));
+        ScheduleIndex index = ScheduleIndex.compile(entries);
+        ScheduleEntry entry = entries.get(0);
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            DayOfWeek day = dayOf(minute);
+            LocalTime time = timeOf(minute);
+            assertEquals(entry.getMinutesUntilEnd(day, time), index.getMinutesUntilEnd(day, time),
+                    () -> day + " " + time);
+        }
+    }
+
+    @Test
+    void randomSchedulesMatchEntries() {
+        Random random = new Random(20260101L);
+        for (int round = 0; round < 200; round++) {
+            int count = 1 + random.nextInt(6);
+            List<ScheduleEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if (random.nextInt(3) == 0) {
+                        days.add(day);
+                    }
+                }
+                if (days.isEmpty()) {
+                    days.add(DayOfWeek.of(1 + random.nextInt(7)));
+                }
+                int start = random.nextInt(MINUTES_PER_DAY);
+                int end = start + 1 + random.nextInt(2 * MINUTES_PER_DAY - start);
+                entries.add(new ScheduleEntry(days, start, end));
+            }
+            assertEquivalent(entries);
+        }
+    }
+
+    /**
+     * 週内の全分について、開放状態・次の切り替えまでの分数・閉鎖までの残り分数を総当たりの結果と比べる
+     */
+    private static void assertEquivalent(List<ScheduleEntry> entries) {
+        ScheduleIndex index = ScheduleIndex.compile(entries);
+        boolean[] expected = new boolean[MINUTES_PER_WEEK];
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            expected[minute] = isWithinAny(entries, dayOf(minute), timeOf(minute));
+        }
+
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            int at = minute;
+            DayOfWeek day = dayOf(minute);
+            LocalTime time = timeOf(minute);
+            assertEquals(expected[minute], index.isOpen(minute), () -> entries + " @ " + day + " " + time);
+            assertEquals(expected[minute], index.isOpen(day, time), () -> entries + " @ " + day + " " + time);
+
+            int edge = minutesUntilEdge(expected, at);
+            assertEquals(edge, index.getMinutesUntilEdge(minute), () -> entries + " @ " + day + " " + time);
+            assertEquals(expected[minute] ? edge : -1, index.getMinutesUntilEnd(day, time),
+                    () -> entries + " @ " + day + " " + time);
+        }
+    }
+
+    private static boolean isWithinAny(List<ScheduleEntry> entries, DayOfWeek day, LocalTime time) {
+        for (ScheduleEntry entry : entries) {
+            if (entry.isWithin(day, time)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 週を循環しながら前に進み、状態が変わるまでの分数を数える
+     */
+    private static int minutesUntilEdge(boolean[] open, int minute) {
+        for (int step = 1; step <= MINUTES_PER_WEEK; step++) {
+            if (open[(minute + step) % MINUTES_PER_WEEK] != open[minute]) {
+                return step;
+            }
+        }
+        return ScheduleIndex.NO_EDGE;
+    }
+
+    private static DayOfWeek dayOf(int minuteOfWeek) {
+        return DayOfWeek.of(minuteOfWeek / MINUTES_PER_DAY + 1);
+    }
+
+    private static LocalTime timeOf(int minuteOfWeek) {
+        int minute = minuteOfWeek % MINUTES_PER_DAY;
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    private static ScheduleEntry entry(Set<DayOfWeek> days, String start, String end) {
+        return new ScheduleEntry(days, toMinutes(start), toMinutes(end));
+    }
+
+    private static int toMinutes(String time) {
+        String[] parts = time.split(":");
+        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    }
+}
@@ -0,0 +1,205 @@
+package dev.timegateplugin.timegate.schedule;
+
+import dev.timegateplugin.timegate.access.GroupResolver;
+import dev.timegateplugin.timegate.config.ConfigSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ScheduleSimulator} が夏時間のあるタイムゾーン（America/New_York）で出す出来事と確認事項を、固定した時計で確認する
+ * <p>
+ * 2026 年は 3/8 2:00 に時計が 3:00 へ進み、11/1 2:00 に 1:00 へ戻る。
+ */
+class ScheduleSimulatorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    @Test
+    void ordinaryWeekHasOneWindowPerDay() {
+        List<ScheduleEntry> entries = List.of(
+                entry(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), "10:00", "25:00"),
+                entry(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), "18:00", "23:00"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(5), at(2026, 7, 6, 0, 0), Duration.ofDays(7));
+
+        // 開始時点は日曜の開放時間中（月曜 1:00 まで）。最後の日曜の開放時間は期間内に閉じない
+        assertEquals(7, result.count(ScheduleSimulator.EventType.OPEN));
+        assertEquals(7, result.count(ScheduleSimulator.EventType.CLOSE));
+        assertEquals(7, result.count(ScheduleSimulator.EventType.WARNING));
+        assertEquals(event(at(2026, 7, 6, 1, 0), ScheduleSimulator.EventType.CLOSE, 0), result.events().get(1));
+        assertEquals(List.of(), result.findings());
+    }
+
+    @Test
+    void windowInsideSpringForwardGapDisappears() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.SUNDAY), "02:10", "02:50"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(), at(2026, 3, 7, 12, 0), Duration.ofDays(1));
+
+        assertEquals(0, result.count(ScheduleSimulator.EventType.OPEN));
+        assertEquals(0, result.count(ScheduleSimulator.EventType.CLOSE));
+        assertEquals(1, result.findings().size());
+        assertContains(result.findings(), "3/8 02:10 の開放が実時刻上なくなります");
+    }
+
+    @Test
+    void windowAcrossSpringForwardGapIsShorter() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.SATURDAY), "22:00", "28:00"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(), at(2026, 3, 7, 12, 0), Duration.ofDays(1));
+
+        assertEquals(List.of(
+                event(at(2026, 3, 7, 22, 0), ScheduleSimulator.EventType.OPEN, 0),
+                event(at(2026, 3, 8, 4, 0), ScheduleSimulator.EventType.CLOSE, 0)), result.events());
+        assertEquals(1, result.findings().size());
+        assertContains(result.findings(), "開放時間が 360 分ではなく 300 分になります");
+    }
+
+    @Test
+    void closeInsideSpringForwardGapHappensAtTransition() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.SUNDAY), "01:30", "02:30"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(), at(2026, 3, 7, 12, 0), Duration.ofDays(1));
+
+        // 2:30 は存在しないため、時計が進む瞬間（3:00）に閉鎖する
+        assertEquals(List.of(
+                event(at(2026, 3, 8, 1, 30), ScheduleSimulator.EventType.OPEN, 0),
+                event(at(2026, 3, 8, 3, 0), ScheduleSimulator.EventType.CLOSE, 0)), result.events());
+        assertContains(result.findings(), "開放時間が 60 分ではなく 30 分になります");
+    }
+
+    @Test
+    void repeatedFallBackHourOpensOnFirstOccurrence() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.SUNDAY), "01:30", "03:00"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(), at(2026, 10, 31, 12, 0), Duration.ofDays(1));
+
+        Instant firstOneThirty = LocalDateTime.of(2026, 11, 1, 1, 30).atZone(ZONE).withEarlierOffsetAtOverlap()
+                .toInstant();
+        assertEquals(List.of(
+                event(firstOneThirty, ScheduleSimulator.EventType.OPEN, 0),
+                event(at(2026, 11, 1, 3, 0), ScheduleSimulator.EventType.CLOSE, 0)), result.events());
+        assertEquals(2, result.findings().size());
+        assertContains(result.findings(), "時計が戻る切り替えのため 11/1 01:30 が 2 回あります（開放は 1 回目に行われます）");
+        assertContains(result.findings(), "開放時間が 90 分ではなく 150 分になります");
+    }
+
+    @Test
+    void closeInRepeatedHourUsesFirstOccurrence() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.SATURDAY), "23:00", "25:30"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(), at(2026, 10, 31, 12, 0), Duration.ofDays(1));
+
+        Instant firstOneThirty = LocalDateTime.of(2026, 11, 1, 1, 30).atZone(ZONE).withEarlierOffsetAtOverlap()
+                .toInstant();
+        assertEquals(event(firstOneThirty, ScheduleSimulator.EventType.CLOSE, 0), result.events().get(1));
+        assertContains(result.findings(), "11/1 01:30 が 2 回あります（閉鎖は 1 回目に行われます）");
+        // 実時刻でも 150 分のため、長さの確認事項は出ない
+        assertEquals(1, result.findings().size());
+    }
+
+    @Test
+    void warningsAlreadyPassedAtOpenMergeIntoOne() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.MONDAY), "18:00", "18:07"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(10, 5, 1, 0), at(2026, 7, 6, 12, 0),
+                Duration.ofDays(1));
+
+        // 10 分前の告知は開放前のため、開放時点で残り分数（7 分）を 1 回だけ告知する。同時刻は開放の後に並ぶ
+        assertEquals(List.of(
+                event(at(2026, 7, 6, 18, 0), ScheduleSimulator.EventType.OPEN, 0),
+                event(at(2026, 7, 6, 18, 0), ScheduleSimulator.EventType.WARNING, 7),
+                event(at(2026, 7, 6, 18, 2), ScheduleSimulator.EventType.WARNING, 5),
+                event(at(2026, 7, 6, 18, 6), ScheduleSimulator.EventType.WARNING, 1),
+                event(at(2026, 7, 6, 18, 7), ScheduleSimulator.EventType.CLOSE, 0)), result.events());
+    }
+
+    @Test
+    void windowOpenAtStartDoesNotMergeWarnings() {
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.MONDAY), "18:00", "18:07"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(10, 5, 1), at(2026, 7, 6, 18, 1),
+                Duration.ofHours(1));
+
+        assertEquals(List.of(
+                event(at(2026, 7, 6, 18, 2), ScheduleSimulator.EventType.WARNING, 5),
+                event(at(2026, 7, 6, 18, 6), ScheduleSimulator.EventType.WARNING, 1),
+                event(at(2026, 7, 6, 18, 7), ScheduleSimulator.EventType.CLOSE, 0)), result.events());
+    }
+
+    @Test
+    void warningsBeforeEndOfSpanAreCounted() {
+        // 期間の終わりをまたぐ開放時間でも、期間内の告知は数える
+        List<ScheduleEntry> entries = List.of(entry(EnumSet.of(DayOfWeek.MONDAY), "18:00", "19:00"));
+        ScheduleSimulator.Result result = simulate(entries, List.of(30, 5), at(2026, 7, 6, 12, 0),
+                Duration.ofMinutes(6 * 60 + 40));
+
+        assertEquals(List.of(
+                event(at(2026, 7, 6, 18, 0), ScheduleSimulator.EventType.OPEN, 0),
+                event(at(2026, 7, 6, 18, 30), ScheduleSimulator.EventType.WARNING, 30)), result.events());
+    }
+
+    @Test
+    void reportsOverlappingEntriesAndExceptions() {
+        List<ScheduleEntry> entries = List.of(
+                entry(EnumSet.of(DayOfWeek.FRIDAY), "20:00", "26:00"),
+                entry(EnumSet.of(DayOfWeek.SATURDAY), "01:00", "03:00"));
+        List<DateException> exceptions = List.of(
+                new DateException(LocalDateTime.of(2026, 7, 10, 0, 0), LocalDateTime.of(2026, 7, 12, 0, 0),
+                        GateState.CLOSED),
+                new DateException(LocalDateTime.of(2026, 7, 11, 18, 0), LocalDateTime.of(2026, 7, 11, 22, 0),
+                        GateState.OPEN));
+        ScheduleSimulator.Result result = ScheduleSimulator.simulate(snapshot(entries, exceptions, List.of()),
+                at(2026, 7, 6, 0, 0), Duration.ofDays(7));
+
+        assertContains(result.findings(), "スケジュール #1 と #2 の開放時間が重なっています (土 1:00〜土 2:00)");
+        assertContains(result.findings(), "例外 #1 と #2 の期間が重なっています (7/11 18:00〜7/11 22:00、#2 が優先されます)");
+    }
+
+    private static ScheduleSimulator.Result simulate(List<ScheduleEntry> entries, List<Integer> warnings,
+            Instant now, Duration span) {
+        Clock clock = Clock.fixed(now, ZONE);
+        return ScheduleSimulator.simulate(snapshot(entries, List.of(), warnings), clock.instant(), span);
+    }
+
+    /**
+     * シミュレーターが使う項目だけを埋めた設定スナップショット
+     */
+    private static ConfigSnapshot snapshot(List<ScheduleEntry> entries, List<DateException> exceptions,
+            List<Integer> warnings) {
+        CompiledSchedule schedule = new CompiledSchedule(ScheduleIndex.compile(entries), RuleIndex.empty(),
+                ExceptionIndex.compile(exceptions));
+        return new ConfigSnapshot(1, entries, List.of(), exceptions, schedule, List.of(), true, null, 0, 0, null,
+                false, null, null, warnings, null, ZONE, false, 0, null, null, null, null, null, null, null, null,
+                false, 0);
+    }
+
+    private static void assertContains(List<String> findings, String text) {
+        assertTrue(findings.stream().anyMatch(finding -> finding.contains(text)),
+                findings + " に " + text + " がありません");
+    }
+
+    private static ScheduleSimulator.Event event(Instant at, ScheduleSimulator.EventType type, int minutes) {
+        return new ScheduleSimulator.Event(at, GroupResolver.DEFAULT_GROUP, type, minutes);
+    }
+
+    /**
+     * タイムゾーンの壁時計の日時を実時刻にする（2 回ある時刻は 1 回目）
+     */
+    private static Instant at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZONE).toInstant();
+    }
+
+    private static ScheduleEntry entry(Set<DayOfWeek> days, String start, String end) {
+        return new ScheduleEntry(days, toMinutes(start), toMinutes(end));
+    }
+
+    private static int toMinutes(String time) {
+        String[] parts = time.split(":");
+        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    }
+}